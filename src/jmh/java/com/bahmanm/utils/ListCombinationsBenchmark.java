@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import org.eclipse.collections.impl.list.mutable.FastList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iterating all the combinations of {@link ListCombinations}, sequentially
+ * (allocating, reusing a view or an array) and in parallel.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListCombinationsBenchmark {
+
+  /** number of lists x size of each list */
+  @Param({"4x10", "8x5"})
+  String shape;
+
+  List<List<Integer>> lists;
+
+  @Setup
+  public void setUp() {
+    String[] parts = shape.split("x");
+    int count = Integer.parseInt(parts[0]);
+    int size = Integer.parseInt(parts[1]);
+    lists = FastList.newList(count);
+    for (int i=0; i<count; i++) {
+      List<Integer> list = FastList.newList(size);
+      for (int j=0; j<size; j++)
+        list.add(i * size + j);
+      lists.add(list);
+    }
+  }
+
+  @Benchmark
+  public void next(Blackhole bh) {
+    ListCombinations<Integer> lc = new ListCombinations<>(lists);
+    while (lc.hasNext())
+      bh.consume(lc.next());
+  }
+
+  @Benchmark
+  public void nextView(Blackhole bh) {
+    ListCombinations<Integer> lc = new ListCombinations<>(lists);
+    while (lc.hasNext())
+      bh.consume(lc.nextView());
+  }
+
+  @Benchmark
+  public void nextArray(Blackhole bh) {
+    ListCombinations<Integer> lc = new ListCombinations<>(lists);
+    Integer[] dest = new Integer[lists.size()];
+    while (lc.hasNext())
+      bh.consume(lc.next(dest));
+  }
+
+  @Benchmark
+  public long parallelStream() {
+    return new ListCombinations<>(lists).parallelStream()
+      .mapToLong(c -> c.get(0))
+      .sum();
+  }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import org.eclipse.collections.impl.list.mutable.FastList;
+import org.eclipse.collections.impl.map.mutable.UnifiedMap;
+import org.eclipse.collections.impl.set.mutable.UnifiedSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RandomUtils#randPeek} on lists, sets and maps (plain and indexed),
+ * from one thread and from many threads.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomUtilsBenchmark {
+
+  @Param({"1000", "1000000"})
+  int size;
+
+  List<Integer> list;
+  Set<Integer> set;
+  Set<Integer> indexedSet;
+  Map<Integer, Integer> map;
+  Map<Integer, Integer> indexedMap;
+
+  @Setup
+  public void setUp() {
+    list = FastList.newList(size);
+    set = UnifiedSet.newSet(size);
+    indexedSet = new IndexedSet<>(size);
+    map = UnifiedMap.newMap(size);
+    indexedMap = new IndexedMap<>(size);
+    for (int i=0; i<size; i++) {
+      list.add(i);
+      set.add(i);
+      indexedSet.add(i);
+      map.put(i, i);
+      indexedMap.put(i, i);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Integer list() {
+    return RandomUtils.randPeek(list);
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Integer listContended() {
+    return RandomUtils.randPeek(list);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public List<Integer> listBulk() {
+    return RandomUtils.randPeek(list, 64);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Integer set() {
+    return RandomUtils.randPeek(set);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Integer indexedSet() {
+    return RandomUtils.randPeek(indexedSet);
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Integer indexedSetContended() {
+    return RandomUtils.randPeek(indexedSet);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Integer map() {
+    return RandomUtils.randPeek(map);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Integer indexedMap() {
+    return RandomUtils.randPeek(indexedMap);
+  }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar vs batch distance computations of {@link SpatialUtils} and the
+ * approximate distance modes.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialUtilsBenchmark {
+
+  @Param({"256"})
+  int size;
+
+  double[] lats1;
+  double[] lons1;
+  double[] lats2;
+  double[] lons2;
+  double[] dest;
+  double[] matrix;
+
+  @Setup
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(42);
+    lats1 = new double[size];
+    lons1 = new double[size];
+    lats2 = new double[size];
+    lons2 = new double[size];
+    for (int i=0; i<size; i++) {
+      lats1[i] = random.nextDouble(-90, 90);
+      lons1[i] = random.nextDouble(-180, 180);
+      lats2[i] = random.nextDouble(-90, 90);
+      lons2[i] = random.nextDouble(-180, 180);
+    }
+    dest = new double[size];
+    matrix = new double[size * size];
+  }
+
+  @Benchmark
+  public double[] oneToManyScalar() {
+    for (int i=0; i<size; i++)
+      dest[i] = SpatialUtils.distance(lats1[0], lons1[0], lats2[i], lons2[i]);
+    return dest;
+  }
+
+  @Benchmark
+  public double[] oneToManyBatch() {
+    return SpatialUtils.distances(lats1[0], lons1[0], lats2, lons2, dest);
+  }
+
+  @Benchmark
+  public double[] pairwiseScalar() {
+    for (int i=0; i<size; i++)
+      dest[i] = SpatialUtils.distance(lats1[i], lons1[i], lats2[i], lons2[i]);
+    return dest;
+  }
+
+  @Benchmark
+  public double[] pairwiseBatch() {
+    return SpatialUtils.distancesPairwise(lats1, lons1, lats2, lons2, dest);
+  }
+
+  @Benchmark
+  public double[] matrixScalar() {
+    for (int i=0; i<size; i++)
+      for (int j=0; j<size; j++)
+        matrix[i * size + j] =
+          SpatialUtils.distance(lats1[i], lons1[i], lats2[j], lons2[j]);
+    return matrix;
+  }
+
+  @Benchmark
+  public double[] matrixBatch() {
+    return SpatialUtils.distanceMatrix(lats1, lons1, lats2, lons2, matrix);
+  }
+
+  @Benchmark
+  public double[] pairwiseEquirectangular() {
+    for (int i=0; i<size; i++)
+      dest[i] = SpatialUtils.distance(
+        SpatialUtils.DistanceMode.EQUIRECTANGULAR,
+        lats1[i], lons1[i], lats2[i], lons2[i]
+      );
+    return dest;
+  }
+
+  @Benchmark
+  public double[] pairwiseHaversineTable() {
+    for (int i=0; i<size; i++)
+      dest[i] = SpatialUtils.distance(
+        SpatialUtils.DistanceMode.HAVERSINE_TABLE,
+        lats1[i], lons1[i], lats2[i], lons2[i]
+      );
+    return dest;
+  }
+
+  @Benchmark
+  public int radiusByDistance() {
+    int count = 0;
+    for (int i=0; i<size; i++)
+      if (SpatialUtils.distance(lats1[i], lons1[i], lats2[i], lons2[i])
+          <= 5_000_000)
+        count++;
+    return count;
+  }
+
+  @Benchmark
+  public int radiusByChord() {
+    int count = 0;
+    double threshold = SpatialUtils.chordSquared(5_000_000);
+    for (int i=0; i<size; i++)
+      if (SpatialUtils.chordSquared(lats1[i], lons1[i], lats2[i], lons2[i])
+          <= threshold)
+        count++;
+    return count;
+  }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import com.bahmanm.utils.RandomSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the 10 nearest neighbours of a query using {@link LshIndex}
+ * versus a brute force scan, over clustered points.  The recall of the
+ * index (the fraction of the true 10 nearest it finds) is printed once per
+ * trial.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LshIndexBenchmark {
+
+  final static private int k = 10;
+  final static private int queryCount = 256;
+
+  @Param({"64", "256"})
+  int dims;
+
+  @Param({"20000"})
+  int size;
+
+  @Param({"EUCLIDEAN", "COSINE"})
+  Metrics metric;
+
+  double[] coords;
+  Point[] queries;
+  LshIndex index;
+  int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    RandomSampler random = new RandomSampler(42);
+    int perCluster = 50;
+    coords = new double[size * dims];
+    double[] centre = new double[dims];
+    for (int i=0; i<size; i++) {
+      if (i % perCluster == 0)
+        for (int d=0; d<dims; d++)
+          centre[d] = random.nextGaussian() * 10;
+      for (int d=0; d<dims; d++)
+        coords[i * dims + d] = centre[d] + random.nextGaussian() * 0.5;
+    }
+    queries = new Point[queryCount];
+    for (int q=0; q<queryCount; q++) {
+      int i = random.nextInt(size);
+      double[] qCoords = new double[dims];
+      for (int d=0; d<dims; d++)
+        qCoords[d] = coords[i * dims + d] + random.nextGaussian() * 0.2;
+      queries[q] = new Point(qCoords);
+    }
+    PointSet points = new PointSet(coords, dims);
+    index = metric == Metrics.COSINE ?
+      LshIndex.cosine(points, 10, 12, new RandomSampler(1)) :
+      LshIndex.euclidean(
+        points, 10, 8, 4 * Math.sqrt(dims), new RandomSampler(1)
+      );
+    System.out.printf("%nrecall@%d = %.3f%n", k, recall());
+  }
+
+  @Benchmark
+  public int[] lsh() {
+    return index.nearest(queries[next++ & (queryCount - 1)], k);
+  }
+
+  @Benchmark
+  public int[] bruteForce() {
+    return bruteForce(queries[next++ & (queryCount - 1)]);
+  }
+
+  private int[] bruteForce(Point q) {
+    double[] qCoords = new double[dims];
+    for (int d=0; d<dims; d++)
+      qCoords[d] = q.getCoord(d);
+    Neighbours neighbours = new Neighbours(k);
+    for (int i=0; i<size; i++)
+      neighbours.offer(i, metric.distance(qCoords, 0, coords, i * dims, dims));
+    return neighbours.toIds(null);
+  }
+
+  private double recall() {
+    int found = 0;
+    for (Point q : queries) {
+      int[] expected = bruteForce(q);
+      int[] actual = index.nearest(q, k);
+      for (int e : expected)
+        for (int a : actual)
+          if (a == e)
+            found++;
+    }
+    return (double) found / (queryCount * k);
+  }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orthant sign lookups from one thread and from many threads contending on
+ * the cache, plus bulk classification.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrthantsBenchmark {
+
+  @State(Scope.Thread)
+  public static class Lookup {
+
+    @Param({"3", "10", "16"})
+    int dims;
+
+    int count;
+    int orthant;
+
+    @Setup
+    public void setUp() {
+      count = Orthants.getOrthantCount(dims);
+    }
+
+    int nextOrthant() {
+      orthant = orthant == count ? 1 : orthant + 1;
+      return orthant;
+    }
+
+  }
+
+  @State(Scope.Benchmark)
+  public static class Bulk {
+
+    @Param({"100000"})
+    int size;
+
+    PointSet points;
+    Point origin;
+
+    @Setup
+    public void setUp() {
+      SplittableRandom random = new SplittableRandom(42);
+      double[] coords = new double[size * 4];
+      for (int i=0; i<coords.length; i++)
+        coords[i] = random.nextDouble(-1, 1);
+      points = new PointSet(coords, 4);
+      origin = new Point(new double[4]);
+    }
+
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Point getOrthantSign(Lookup lookup) {
+    return Orthants.getOrthantSign(lookup.dims, lookup.nextOrthant());
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Point getOrthantSignContended(Lookup lookup) {
+    return Orthants.getOrthantSign(lookup.dims, lookup.nextOrthant());
+  }
+
+  @Benchmark
+  @Threads(1)
+  public int[] classify(Bulk bulk) {
+    return Orthants.classify(bulk.points, bulk.origin);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Orthants.Partition partition(Bulk bulk) {
+    return Orthants.partition(bulk.points, bulk.origin);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Orthants.Partition partitionParallel(Bulk bulk) {
+    return Orthants.partitionParallel(bulk.points, bulk.origin);
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The scalar vs the Vector API {@link PointKernels} over a batch of points,
+ * the way the bulk operations of {@link PointSet} and {@link Skylines} call
+ * them.  "vector" falls back to "scalar" where the Vector API is not
+ * available (see the log at debug level).
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointKernelsBenchmark {
+
+  @Param({"scalar", "vector"})
+  String kernelsName;
+
+  @Param({"3", "16", "64"})
+  int dims;
+
+  @Param({"100000"})
+  int size;
+
+  PointKernels kernels;
+  double[] coords;
+  double[] origin;
+  double[] dest;
+  /** all the coordinates of each point are &lt; those of origin */
+  double[] below;
+
+  @Setup
+  public void setUp() {
+    kernels = PointKernels.load(kernelsName);
+    SplittableRandom random = new SplittableRandom(42);
+    coords = random.doubles(size * dims, -100, 100).toArray();
+    origin = random.doubles(dims, -100, 100).toArray();
+    dest = new double[size * dims];
+    below = new double[size * dims];
+    for (int i=0; i<below.length; i++)
+      below[i] = origin[i % dims] - random.nextDouble(1, 10);
+  }
+
+  @Benchmark
+  public double[] plus() {
+    for (int offset=0; offset<coords.length; offset+=dims)
+      kernels.plus(coords, offset, origin, 0, dest, offset, dims);
+    return dest;
+  }
+
+  @Benchmark
+  public double[] distanceAbs() {
+    for (int offset=0; offset<coords.length; offset+=dims)
+      kernels.subtract(coords, offset, origin, 0, dest, offset, dims, true);
+    return dest;
+  }
+
+  @Benchmark
+  public double[] trimRelative() {
+    for (int offset=0; offset<coords.length; offset+=dims)
+      kernels.trim(coords, offset, origin, 0, dest, offset, dims);
+    return dest;
+  }
+
+  @Benchmark
+  public double[] negate() {
+    kernels.negate(coords, 0, dest, 0, coords.length);
+    return dest;
+  }
+
+  /**
+   * Each point against the one after it; most pairs fail on the first
+   * coordinates.
+   */
+  @Benchmark
+  public int isDominates() {
+    int result = 0;
+    for (int offset=dims; offset<coords.length; offset+=dims)
+      if (kernels.isDominates(coords, offset - dims, coords, offset, dims))
+        result++;
+    return result;
+  }
+
+  /**
+   * Points which dominate the origin, so every coordinate is compared.
+   */
+  @Benchmark
+  public int isDominatesAll() {
+    int result = 0;
+    for (int offset=0; offset<coords.length; offset+=dims)
+      if (kernels.isDominates(below, offset, origin, 0, dims))
+        result++;
+    return result;
+  }
+
+}
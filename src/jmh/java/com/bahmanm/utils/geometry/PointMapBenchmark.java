@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import org.eclipse.collections.impl.map.mutable.UnifiedMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up every point of a set in a map keyed by {@link Point},
+ * {@link HashedPoint} and in a {@link PointMap}.  Half of the lookups miss.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointMapBenchmark {
+
+  @Param({"3", "32"})
+  int dims;
+
+  @Param({"100000"})
+  int size;
+
+  double[] queries;
+  Point[] pointQueries;
+  HashedPoint[] hashedQueries;
+  UnifiedMap<Point, Integer> pointMap;
+  UnifiedMap<HashedPoint, Integer> hashedMap;
+  PointMap<Integer> map;
+
+  @Setup
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(42);
+    queries = new double[size * dims];
+    for (int i=0; i<queries.length; i++)
+      queries[i] = random.nextInt(1000);
+    pointQueries = new Point[size];
+    hashedQueries = new HashedPoint[size];
+    pointMap = UnifiedMap.newMap(size);
+    hashedMap = UnifiedMap.newMap(size);
+    map = new PointMap<>(dims, size, false);
+    for (int i=0; i<size; i++) {
+      double[] coords = new double[dims];
+      System.arraycopy(queries, i * dims, coords, 0, dims);
+      pointQueries[i] = new Point(coords);
+      hashedQueries[i] = new HashedPoint(coords);
+      if (i % 2 == 0) {
+        pointMap.put(new Point(coords.clone()), i);
+        hashedMap.put(new HashedPoint(coords), i);
+        map.put(coords, 0, i);
+      }
+    }
+  }
+
+  @Benchmark
+  public int pointKeys() {
+    int found = 0;
+    for (Point q : pointQueries)
+      if (pointMap.get(q) != null)
+        found++;
+    return found;
+  }
+
+  @Benchmark
+  public int hashedPointKeys() {
+    int found = 0;
+    for (HashedPoint q : hashedQueries)
+      if (hashedMap.get(q) != null)
+        found++;
+    return found;
+  }
+
+  @Benchmark
+  public int pointMap() {
+    int found = 0;
+    for (int i=0; i<size; i++)
+      if (map.get(queries, i * dims) != null)
+        found++;
+    return found;
+  }
+
+}
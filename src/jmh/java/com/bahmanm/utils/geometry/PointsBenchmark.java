@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each operation of {@link Points}, both allocating and writing into a
+ * {@link MutablePoint}.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointsBenchmark {
+
+  @Param({"3", "16"})
+  int dims;
+
+  Point p;
+  Point o;
+  MutablePoint dest;
+
+  @Setup
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(42);
+    double[] pCoords = new double[dims];
+    double[] oCoords = new double[dims];
+    for (int i=0; i<dims; i++) {
+      pCoords[i] = random.nextDouble(-100, 100);
+      oCoords[i] = random.nextDouble(-100, 100);
+    }
+    p = new Point(pCoords);
+    o = new Point(oCoords);
+    dest = new MutablePoint(dims);
+  }
+
+  @Benchmark
+  public Point plus() {
+    return Points.plus(p, o);
+  }
+
+  @Benchmark
+  public Point plusInto() {
+    return Points.plus(p, o, dest);
+  }
+
+  @Benchmark
+  public Point multiply() {
+    return Points.multiply(p, o);
+  }
+
+  @Benchmark
+  public Point multiplyInto() {
+    return Points.multiply(p, o, dest);
+  }
+
+  @Benchmark
+  public Point negate() {
+    return Points.negate(p);
+  }
+
+  @Benchmark
+  public Point negateInto() {
+    return Points.negate(p, dest);
+  }
+
+  @Benchmark
+  public Point distance() {
+    return Points.distance(p, o);
+  }
+
+  @Benchmark
+  public Point distanceInto() {
+    return Points.distance(p, o, dest);
+  }
+
+  @Benchmark
+  public Point distanceAbs() {
+    return Points.distanceAbs(p, o);
+  }
+
+  @Benchmark
+  public Point distanceAbsInto() {
+    return Points.distanceAbs(p, o, dest);
+  }
+
+  @Benchmark
+  public Point trimNegative() {
+    return Points.trimNegative(p);
+  }
+
+  @Benchmark
+  public Point trimNegativeInto() {
+    return Points.trimNegative(p, dest);
+  }
+
+  @Benchmark
+  public Point trimRelative() {
+    return Points.trimRelative(p, o);
+  }
+
+  @Benchmark
+  public Point trimRelativeInto() {
+    return Points.trimRelative(p, o, dest);
+  }
+
+  @Benchmark
+  public Point translate() {
+    return Points.translate(p, o);
+  }
+
+  @Benchmark
+  public Point translateInto() {
+    return Points.translate(p, o, dest);
+  }
+
+  @Benchmark
+  public Point toOrthant() {
+    return Points.toOrthant(p, o, 3);
+  }
+
+  @Benchmark
+  public Point toOrthantInto() {
+    return Points.toOrthant(p, o, 3, dest);
+  }
+
+  @Benchmark
+  public Point toFirstOrthant() {
+    return Points.toFirstOrthant(p, o);
+  }
+
+  @Benchmark
+  public Point toFirstOrthantInto() {
+    return Points.toFirstOrthant(p, o, dest);
+  }
+
+  @Benchmark
+  public boolean isDominates() {
+    return Points.isDominates(p, o);
+  }
+
+  @Benchmark
+  public int compare() {
+    return Points.compare(p, o);
+  }
+
+}
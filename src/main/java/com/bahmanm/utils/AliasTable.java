@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+/**
+ * An alias table (Vose's method) for sampling indices with given weights in
+ * constant time: index i is sampled with probability
+ * weights[i] / sum(weights).<br>
+ * The table is immutable and may be shared between threads.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final public class AliasTable {
+
+  /** probability of keeping each index rather than using its alias */
+  final private double[] probability;
+  /** alias of each index */
+  final private int[] alias;
+
+  /**
+   * Creates an alias table for the given weights.
+   *
+   * @param weights the given weights (not empty, non-negative and finite,
+   *    with a positive sum)
+   */
+  public AliasTable(double[] weights) {
+    assert(weights != null && weights.length > 0);
+    int size = weights.length;
+    double sum = 0;
+    for (double w : weights) {
+      assert(w >= 0 && !Double.isInfinite(w));
+      sum += w;
+    }
+    assert(sum > 0);
+    probability = new double[size];
+    alias = new int[size];
+    double[] scaled = new double[size];
+    int[] small = new int[size];
+    int[] large = new int[size];
+    int smallCount = 0;
+    int largeCount = 0;
+    for (int i=0; i<size; i++) {
+      scaled[i] = weights[i] * size / sum;
+      if (scaled[i] < 1)
+        small[smallCount++] = i;
+      else
+        large[largeCount++] = i;
+    }
+    while (smallCount > 0 && largeCount > 0) {
+      int s = small[--smallCount];
+      int l = large[--largeCount];
+      probability[s] = scaled[s];
+      alias[s] = l;
+      scaled[l] = (scaled[l] + scaled[s]) - 1;
+      if (scaled[l] < 1)
+        small[smallCount++] = l;
+      else
+        large[largeCount++] = l;
+    }
+    while (largeCount > 0)
+      probability[large[--largeCount]] = 1;
+    while (smallCount > 0)
+      probability[small[--smallCount]] = 1;
+  }
+
+  /**
+   * @return number of weights
+   */
+  public int size() {
+    return probability.length;
+  }
+
+  /**
+   * Samples an index.
+   *
+   * @param sampler the source of randomness
+   * @return an index in [0, size())
+   */
+  public int next(RandomSampler sampler) {
+    int i = sampler.nextInt(probability.length);
+    return sampler.nextDouble() < probability[i] ? i : alias[i];
+  }
+
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import java.nio.FloatBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Computation of the full N x N matrix of distances between points on the
+ * map, in row-major order.<br>
+ * Since the matrix is symmetric, the distance of each pair is computed only
+ * once and written to both (i, j) and (j, i).  The work is divided into
+ * square tiles of the upper triangle which are computed into a small scratch
+ * array and then copied out row by row, so both the inputs and the output
+ * are accessed with good locality.  The parallel variants run the tiles in
+ * the common fork-join pool.<br>
+ * The destination can be a double[], or a float[] or a (possibly direct)
+ * {@link FloatBuffer} to halve the memory, keeping float precision (about a
+ * metre at 10,000 km).  N * N must fit in an int.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final public class DistanceMatrix {
+
+  /** number of rows and columns of each tile */
+  final static private int tileSize = 128;
+
+  /**
+   * Computes the distance matrix of the given points.
+   *
+   * @param lats latitudes of the points (in signed decimal degrees)
+   * @param lons longitudes of the points (in signed decimal degrees)
+   * @param dest destination of the distances in meters (length = N * N)
+   * @return dest
+   */
+  static public double[] build(double[] lats, double[] lons, double[] dest) {
+    assert(dest != null);
+    build(lats, lons, dest, dest.length, false);
+    return dest;
+  }
+
+  /**
+   * @see #build(double[], double[], double[])
+   */
+  static public float[] build(double[] lats, double[] lons, float[] dest) {
+    assert(dest != null);
+    build(lats, lons, dest, dest.length, false);
+    return dest;
+  }
+
+  /**
+   * Same as {@link #build(double[], double[], double[])} writing into a
+   * buffer with absolute puts; the position of the buffer is not changed.
+   */
+  static public FloatBuffer build(
+    double[] lats, double[] lons, FloatBuffer dest
+  ) {
+    assert(dest != null);
+    build(lats, lons, dest, dest.limit(), false);
+    return dest;
+  }
+
+  /**
+   * Same as {@link #build(double[], double[], double[])} running the tiles
+   * in parallel.
+   */
+  static public double[] buildParallel(
+    double[] lats, double[] lons, double[] dest
+  ) {
+    assert(dest != null);
+    build(lats, lons, dest, dest.length, true);
+    return dest;
+  }
+
+  /**
+   * Same as {@link #build(double[], double[], float[])} running the tiles
+   * in parallel.
+   */
+  static public float[] buildParallel(
+    double[] lats, double[] lons, float[] dest
+  ) {
+    assert(dest != null);
+    build(lats, lons, dest, dest.length, true);
+    return dest;
+  }
+
+  /**
+   * Same as {@link #build(double[], double[], FloatBuffer)} running the
+   * tiles in parallel.
+   */
+  static public FloatBuffer buildParallel(
+    double[] lats, double[] lons, FloatBuffer dest
+  ) {
+    assert(dest != null);
+    build(lats, lons, dest, dest.limit(), true);
+    return dest;
+  }
+
+  /**
+   * Computes the matrix into a destination of any of the supported types.
+   *
+   * @param lats latitudes of the points
+   * @param lons longitudes of the points
+   * @param dest the destination
+   * @param destLength length of the destination
+   * @param isParallel should the tiles be run in parallel?
+   */
+  static private void build(
+    double[] lats, double[] lons, Object dest, int destLength,
+    boolean isParallel
+  ) {
+    assert(
+      lats != null && lons != null && lats.length == lons.length &&
+      (long) lats.length * lats.length == destLength
+    );
+    int n = lats.length;
+    HalfAngleTerms terms = new HalfAngleTerms(lats, lons);
+    int tiles = (n + tileSize - 1) / tileSize;
+    int[] tileRows = new int[tiles * (tiles + 1) / 2];
+    int[] tileCols = new int[tileRows.length];
+    for (int r=0, t=0; r<tiles; r++)
+      for (int c=r; c<tiles; c++, t++) {
+        tileRows[t] = r;
+        tileCols[t] = c;
+      }
+    IntStream indices = IntStream.range(0, tileRows.length);
+    (isParallel ? indices.parallel() : indices).forEach(
+      t -> computeTile(
+        terms, tileRows[t] * tileSize, tileCols[t] * tileSize, dest
+      )
+    );
+  }
+
+  /**
+   * Computes a tile and writes it, and its mirror, to the destination.
+   *
+   * @param terms the half-angle terms of the points
+   * @param row0 first row of the tile
+   * @param col0 first column of the tile (&gt;= row0)
+   * @param dest the destination
+   */
+  static private void computeTile(
+    HalfAngleTerms terms, int row0, int col0, Object dest
+  ) {
+    int n = terms.size;
+    int rows = Math.min(tileSize, n - row0);
+    int cols = Math.min(tileSize, n - col0);
+    boolean isDiagonal = row0 == col0;
+    double[] scratch = new double[rows * cols];
+    for (int r=0; r<rows; r++) {
+      int from = isDiagonal ? r + 1 : 0;
+      terms.distances(
+        row0 + r, terms, col0 + from, col0 + cols, scratch, r * cols + from
+      );
+    }
+    if (isDiagonal)
+      for (int r=0; r<rows; r++)
+        for (int c=0; c<r; c++)
+          scratch[r * cols + c] = scratch[c * cols + r];
+    for (int r=0; r<rows; r++)
+      copy(scratch, r * cols, 1, dest, (row0 + r) * n + col0, cols);
+    if (!isDiagonal)
+      for (int c=0; c<cols; c++)
+        copy(scratch, c, cols, dest, (col0 + c) * n + row0, rows);
+  }
+
+  /**
+   * Copies a strided run of the scratch array to a contiguous run of the
+   * destination.
+   */
+  static private void copy(
+    double[] src, int srcIndex, int srcStride,
+    Object dest, int destIndex, int length
+  ) {
+    if (dest instanceof double[]) {
+      double[] d = (double[]) dest;
+      for (int k=0; k<length; k++)
+        d[destIndex + k] = src[srcIndex + k * srcStride];
+    } else if (dest instanceof float[]) {
+      float[] d = (float[]) dest;
+      for (int k=0; k<length; k++)
+        d[destIndex + k] = (float) src[srcIndex + k * srcStride];
+    } else {
+      FloatBuffer d = (FloatBuffer) dest;
+      for (int k=0; k<length; k++)
+        d.put(destIndex + k, (float) src[srcIndex + k * srcStride]);
+    }
+  }
+
+}
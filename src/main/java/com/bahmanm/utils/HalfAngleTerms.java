@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import static java.lang.Math.cos;
+import static java.lang.Math.sin;
+import static java.lang.Math.toRadians;
+
+/**
+ * The sine and cosine of the half angles of many points, computed once so
+ * that the Haversine distance of a pair is trigonometry free except for the
+ * final inversion, using
+ * sin((a - b) / 2) = sin(a/2)cos(b/2) - cos(a/2)sin(b/2).<br>
+ * This is the pair kernel behind
+ * {@link SpatialUtils#distanceMatrix(double[], double[], double[], double[],
+ * double[])} and {@link DistanceMatrix}.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final class HalfAngleTerms {
+
+  /** number of points */
+  final int size;
+  final private double[] sinLat;
+  final private double[] cosLat;
+  final private double[] sinLon;
+  final private double[] cosLon;
+  /** cos(lat) */
+  final private double[] cosFullLat;
+
+  /**
+   * Computes the terms of the given points.
+   *
+   * @param lats latitudes of the points (in signed decimal degrees)
+   * @param lons longitudes of the points (in signed decimal degrees)
+   */
+  HalfAngleTerms(double[] lats, double[] lons) {
+    assert(lats != null && lons != null && lats.length == lons.length);
+    size = lats.length;
+    sinLat = new double[size];
+    cosLat = new double[size];
+    sinLon = new double[size];
+    cosLon = new double[size];
+    cosFullLat = new double[size];
+    for (int i=0; i<size; i++) {
+      double rHalfLat = toRadians(lats[i]) / 2;
+      double rHalfLon = toRadians(lons[i]) / 2;
+      sinLat[i] = sin(rHalfLat);
+      cosLat[i] = cos(rHalfLat);
+      sinLon[i] = sin(rHalfLon);
+      cosLon[i] = cos(rHalfLon);
+      cosFullLat[i] = cosLat[i] * cosLat[i] - sinLat[i] * sinLat[i];
+    }
+  }
+
+  /**
+   * Computes the distances between point i of this instance and the points
+   * [from, to) of another.
+   *
+   * @param i index of the point of this instance
+   * @param others the other points (may be this instance)
+   * @param from index of the first other point (inclusive)
+   * @param to index of the last other point (exclusive)
+   * @param dest destination of the distances in meters
+   * @param destIndex index into dest of the distance to point 'from'
+   */
+  void distances(
+    int i, HalfAngleTerms others, int from, int to,
+    double[] dest, int destIndex
+  ) {
+    double sinLat1 = sinLat[i];
+    double cosLat1 = cosLat[i];
+    double sinLon1 = sinLon[i];
+    double cosLon1 = cosLon[i];
+    double cosFullLat1 = cosFullLat[i];
+    for (int j=from; j<to; j++) {
+      double sinHalfDLat =
+        others.sinLat[j] * cosLat1 - others.cosLat[j] * sinLat1;
+      double sinHalfDLon =
+        others.sinLon[j] * cosLon1 - others.cosLon[j] * sinLon1;
+      dest[destIndex + j - from] = SpatialUtils.haversine(
+        sinHalfDLat * sinHalfDLat +
+        cosFullLat1 * others.cosFullLat[j] * sinHalfDLon * sinHalfDLon
+      );
+    }
+  }
+
+}
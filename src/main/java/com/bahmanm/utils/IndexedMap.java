@@ -0,0 +1,262 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map whose entries are also stored in dense arrays, so that a key can be
+ * accessed by its position in constant time.  This makes picking a random
+ * key O(1), eg via {@link RandomUtils#randPeek(Map)}.<br>
+ * Like {@link IndexedSet}, removal moves the last entry into the position of
+ * the removed one and the iteration order is the order of the positions.
+ * <br>
+ * This class is NOT thread-safe.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+public class IndexedMap<K, V> extends AbstractMap<K, V> {
+
+  /** key to position */
+  final private ObjectIntHashMap<K> index;
+  /** keys by position */
+  private Object[] keys;
+  /** values by position */
+  private Object[] values;
+  /** number of entries */
+  private int size;
+  /** view of the entries */
+  final private Set<Map.Entry<K, V>> entrySet = new EntrySet();
+
+  /**
+   * Creates an empty map.
+   */
+  public IndexedMap() {
+    this(16);
+  }
+
+  /**
+   * Creates an empty map with room for a given number of entries.
+   *
+   * @param capacity the given number of entries
+   */
+  public IndexedMap(int capacity) {
+    assert(capacity >= 0);
+    index = new ObjectIntHashMap<>(capacity);
+    keys = new Object[Math.max(capacity, 1)];
+    values = new Object[keys.length];
+  }
+
+  /**
+   * Creates a map of the entries of a given map.
+   *
+   * @param src the given map
+   */
+  public IndexedMap(Map<? extends K, ? extends V> src) {
+    this(src.size());
+    putAll(src);
+  }
+
+  /**
+   * Returns the key at a given position.
+   *
+   * @param i the given position, in [0, size())
+   * @return the key
+   */
+  @SuppressWarnings("unchecked")
+  public K getKey(int i) {
+    checkPosition(i);
+    return (K) keys[i];
+  }
+
+  /**
+   * Returns the value at a given position.
+   *
+   * @param i the given position, in [0, size())
+   * @return the value
+   */
+  @SuppressWarnings("unchecked")
+  public V getValue(int i) {
+    checkPosition(i);
+    return (V) values[i];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return index.containsKey(key);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    int i = index.getIfAbsent(key, -1);
+    return i < 0 ? null : (V) values[i];
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(K key, V value) {
+    int i = index.getIfAbsent(key, -1);
+    if (i >= 0) {
+      V old = (V) values[i];
+      values[i] = value;
+      return old;
+    }
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+    }
+    keys[size] = key;
+    values[size] = value;
+    index.put(key, size++);
+    return null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V remove(Object key) {
+    int i = index.getIfAbsent(key, -1);
+    if (i < 0)
+      return null;
+    V old = (V) values[i];
+    removeAt(i);
+    return old;
+  }
+
+  @Override
+  public void clear() {
+    index.clear();
+    Arrays.fill(keys, 0, size, null);
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return entrySet;
+  }
+
+  /**
+   * Removes the entry at a given position by moving the last entry into it.
+   *
+   * @param i the given position
+   */
+  @SuppressWarnings("unchecked")
+  private void removeAt(int i) {
+    index.removeKey((K) keys[i]);
+    int last = --size;
+    if (i != last) {
+      K moved = (K) keys[last];
+      keys[i] = moved;
+      values[i] = values[last];
+      index.put(moved, i);
+    }
+    keys[last] = null;
+    values[last] = null;
+  }
+
+  private void checkPosition(int i) {
+    if (i < 0 || i >= size)
+      throw new IndexOutOfBoundsException(i + " not in [0, " + size + ")");
+  }
+
+  /**
+   * A view of the entries, in the order of positions.
+   */
+  final private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void clear() {
+      IndexedMap.this.clear();
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+      return new Iterator<Map.Entry<K, V>>() {
+        /** position of the next entry */
+        private int next = 0;
+        /** position of the last returned entry, -1 if none */
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+          return next < size;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+          if (!hasNext())
+            throw new NoSuchElementException();
+          last = next++;
+          return new Entry(last);
+        }
+
+        @Override
+        public void remove() {
+          if (last < 0)
+            throw new IllegalStateException();
+          removeAt(last);
+          next = last;
+          last = -1;
+        }
+      };
+    }
+
+  }
+
+  /**
+   * An entry which writes its value through to the map.
+   */
+  final private class Entry extends AbstractMap.SimpleEntry<K, V> {
+
+    /** position of the entry */
+    final private int i;
+
+    Entry(int i) {
+      super(IndexedMap.this.getKey(i), IndexedMap.this.getValue(i));
+      this.i = i;
+    }
+
+    @Override
+    public V setValue(V value) {
+      values[i] = value;
+      return super.setValue(value);
+    }
+
+  }
+
+}
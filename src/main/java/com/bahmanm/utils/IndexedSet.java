@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set whose elements are also stored in a dense array, so that an element
+ * can be accessed by its position in constant time.  This makes picking a
+ * random element O(1), eg via {@link RandomUtils#randPeek(java.util.Set)}.
+ * <br>
+ * Adding, removing and looking up an element are O(1) as well: removal moves
+ * the last element into the position of the removed one, so positions are
+ * not stable across removals.  The iteration order is the order of the
+ * positions.<br>
+ * This class is NOT thread-safe.
+ *
+ * @param <E> type of elements
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+public class IndexedSet<E> extends AbstractSet<E> {
+
+  /** element to position */
+  final private ObjectIntHashMap<E> index;
+  /** elements by position */
+  private Object[] elements;
+  /** number of elements */
+  private int size;
+
+  /**
+   * Creates an empty set.
+   */
+  public IndexedSet() {
+    this(16);
+  }
+
+  /**
+   * Creates an empty set with room for a given number of elements.
+   *
+   * @param capacity the given number of elements
+   */
+  public IndexedSet(int capacity) {
+    assert(capacity >= 0);
+    index = new ObjectIntHashMap<>(capacity);
+    elements = new Object[Math.max(capacity, 1)];
+  }
+
+  /**
+   * Creates a set of the given elements.
+   *
+   * @param src the given elements
+   */
+  public IndexedSet(Collection<? extends E> src) {
+    this(src.size());
+    addAll(src);
+  }
+
+  /**
+   * Returns the element at a given position.
+   *
+   * @param i the given position, in [0, size())
+   * @return the element
+   */
+  @SuppressWarnings("unchecked")
+  public E get(int i) {
+    if (i < 0 || i >= size)
+      throw new IndexOutOfBoundsException(i + " not in [0, " + size + ")");
+    return (E) elements[i];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return index.containsKey(o);
+  }
+
+  @Override
+  public boolean add(E e) {
+    if (index.containsKey(e))
+      return false;
+    if (size == elements.length)
+      elements = Arrays.copyOf(elements, size * 2);
+    elements[size] = e;
+    index.put(e, size++);
+    return true;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    int i = index.getIfAbsent(o, -1);
+    if (i < 0)
+      return false;
+    removeAt(i);
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    index.clear();
+    Arrays.fill(elements, 0, size, null);
+    size = 0;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      /** position of the next element */
+      private int next = 0;
+      /** position of the last returned element, -1 if none */
+      private int last = -1;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public E next() {
+        if (!hasNext())
+          throw new NoSuchElementException();
+        last = next;
+        return get(next++);
+      }
+
+      @Override
+      public void remove() {
+        if (last < 0)
+          throw new IllegalStateException();
+        removeAt(last);
+        next = last;
+        last = -1;
+      }
+    };
+  }
+
+  /**
+   * Removes the element at a given position by moving the last element into
+   * it.
+   *
+   * @param i the given position
+   */
+  @SuppressWarnings("unchecked")
+  private void removeAt(int i) {
+    index.removeKey((E) elements[i]);
+    int last = --size;
+    if (i != last) {
+      E moved = (E) elements[last];
+      elements[i] = moved;
+      index.put(moved, i);
+    }
+    elements[last] = null;
+  }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in counters of the hot paths of the utilities.<br>
+ * Counting is enabled by starting the JVM with
+ * {@code -Dcom.bahmanm.utils.instrumentation=true}.  The switch is read once
+ * into a static final field, so when it is off the JIT removes the counting
+ * altogether; when it is on, each count is an uncontended
+ * {@link LongAdder} increment.<br>
+ * The counters can be read as a {@link Snapshot} or written to the log.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final public class Instrumentation {
+
+  /** name of the system property which enables the counters */
+  final static public String property = "com.bahmanm.utils.instrumentation";
+
+  /** are the counters enabled? */
+  final static public boolean isEnabled = Boolean.getBoolean(property);
+
+  final static private Logger logger =
+    LoggerFactory.getLogger(Instrumentation.class);
+
+  /**
+   * The counters.
+   */
+  public enum Counter {
+    /** orthant signs found in the cache */
+    ORTHANT_SIGN_CACHE_HIT,
+    /** orthant signs computed and put in the cache */
+    ORTHANT_SIGN_CACHE_MISS,
+    /** orthant signs computed for too many dimensions to be cached */
+    ORTHANT_SIGN_UNCACHED,
+    /** zero points found in the cache */
+    POINT_ZERO_CACHE_HIT,
+    /** zero points created and put in the cache */
+    POINT_ZERO_CACHE_MISS,
+    /** combinations returned by ListCombinations */
+    COMBINATIONS_EMITTED,
+    /** elements sampled through RandomUtils */
+    RANDOM_SAMPLES;
+
+    final private LongAdder adder = new LongAdder();
+
+    /**
+     * Adds 1 to the counter if the counters are enabled.
+     */
+    public void increment() {
+      if (isEnabled)
+        adder.increment();
+    }
+
+    /**
+     * Adds a given value to the counter if the counters are enabled.
+     *
+     * @param n the given value
+     */
+    public void add(long n) {
+      if (isEnabled)
+        adder.add(n);
+    }
+
+  }
+
+  /**
+   * Reads the current values of all the counters.  The counters may be
+   * updated while they are read, so the values are not necessarily of the
+   * same instant.
+   *
+   * @return the values
+   */
+  static public Snapshot snapshot() {
+    Counter[] counters = Counter.values();
+    long[] values = new long[counters.length];
+    for (int i=0; i<counters.length; i++)
+      values[i] = counters[i].adder.sum();
+    return new Snapshot(values);
+  }
+
+  /**
+   * Sets all the counters to 0.
+   */
+  static public void reset() {
+    for (Counter c : Counter.values())
+      c.adder.reset();
+  }
+
+  /**
+   * Writes a snapshot of the counters to the log at info level.
+   */
+  static public void log() {
+    log(logger);
+  }
+
+  /**
+   * Logs a snapshot of the counters to a given logger at info level.
+   *
+   * @param logger the given logger
+   */
+  static void log(Logger logger) {
+    if (logger.isInfoEnabled())
+      logger.info("{}", snapshot());
+  }
+
+  /**
+   * The values of the counters at some point in time.
+   */
+  final static public class Snapshot {
+
+    final private long[] values;
+
+    private Snapshot(long[] values) {
+      this.values = values;
+    }
+
+    /**
+     * Value of a given counter.
+     *
+     * @param counter the given counter
+     * @return the value
+     */
+    public long get(Counter counter) {
+      return values[counter.ordinal()];
+    }
+
+    /**
+     * Ratio of the hits of a cache to all its lookups.
+     *
+     * @param hit the counter of the hits
+     * @param miss the counter of the misses
+     * @return the ratio, or NaN if there were no lookups
+     */
+    public double getHitRatio(Counter hit, Counter miss) {
+      long hits = get(hit);
+      long total = hits + get(miss);
+      return total == 0 ? Double.NaN : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder result = new StringBuilder("Instrumentation[");
+      for (Counter c : Counter.values()) {
+        if (c.ordinal() > 0)
+          result.append(", ");
+        result.append(c).append('=').append(get(c));
+      }
+      return result.append(']').toString();
+    }
+
+  }
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import org.eclipse.collections.impl.list.mutable.FastList;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy (iterator) style combinations of multiple sequences which, unlike
+ * {@link ListCombinations}, are never copied.<br>
+ * The combinations are iterated in
+ * {@link ListCombinations.Order#LEXICOGRAPHIC} order, so:
+ * <ul>
+ * <li>the first sequence is iterated exactly once and may thus be
+ * single-pass or unbounded (eg lines of a large file);</li>
+ * <li>every other sequence is iterated again, via a new iterator, each time
+ * the sequence before it moves.</li>
+ * </ul>
+ * Only the current element of each sequence is held, so the memory used is
+ * bounded regardless of the sizes of the sequences.  Since an
+ * {@link Iterable} has a single abstract method, a sequence can be given as
+ * a supplier of iterators, eg {@code () -> IntStream.range(0, n).iterator()}.
+ * <br>
+ * NOTE: The iterators of the sequences after the first are abandoned, not
+ * closed, so they must not own resources.  Only the first sequence may be
+ * backed by eg {@code Files.lines(path)}, and the caller has to close that
+ * stream once done.
+ * <br>
+ * Stopping early is a matter of not calling {@link #next()} anymore or of
+ * short-circuiting {@link #stream()}.  {@link #forEachChunk(int, Consumer)}
+ * hands the combinations over in batches.
+ *
+ * @param <T> type of elements of the sequences
+ *
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+public class LazyListCombinations<T>
+  implements Iterator<List<T>>, Iterable<List<T>> {
+
+  /** input sequences */
+  final private FastList<Iterable<? extends T>> input = new FastList<>();
+  /** current iterator of each sequence */
+  final private FastList<Iterator<? extends T>> iterators = new FastList<>();
+  /** current element of each sequence */
+  final private Object[] current;
+  /** is any of the sequences empty? */
+  final private boolean isEmpty;
+  /** has the first combination been emitted? */
+  private boolean started;
+  /** reusable view of the current combination */
+  final private List<T> currentView = new CurrentView();
+
+  /**
+   * Creates a new instance over the given sequences.
+   *
+   * @param sequences sequences to calculate the combinations of
+   */
+  @SafeVarargs
+  public LazyListCombinations(Iterable<? extends T>... sequences) {
+    this(Arrays.asList(sequences));
+  }
+
+  /**
+   * Creates a new instance over the given sequences.  The first iterator of
+   * each sequence is obtained immediately.
+   *
+   * @param sequences a list of sequences to calculate the combinations of
+   *    (not empty)
+   */
+  public LazyListCombinations(List<? extends Iterable<? extends T>> sequences) {
+    assert(sequences != null && !sequences.isEmpty());
+    boolean anyEmpty = false;
+    for (Iterable<? extends T> sequence : sequences) {
+      assert(sequence != null);
+      Iterator<? extends T> it = sequence.iterator();
+      input.add(sequence);
+      iterators.add(it);
+      anyEmpty |= !it.hasNext();
+    }
+    isEmpty = anyEmpty;
+    current = new Object[input.size()];
+  }
+
+  /**
+   * Checks if there is another combination left.
+   *
+   * @return true if there is another combination, false otherwise
+   */
+  @Override
+  public boolean hasNext() {
+    if (!started)
+      return !isEmpty;
+    for (int i=iterators.size()-1; i>=0; i--)
+      if (iterators.get(i).hasNext())
+        return true;
+    return false;
+  }
+
+  /**
+   * Calculates the next combination of the input sequences.
+   *
+   * @return the next combination
+   */
+  @Override
+  public List<T> next() {
+    return FastList.newList(nextView());
+  }
+
+  /**
+   * Calculates the next combination of the input sequences into a given
+   * array.
+   *
+   * @param dest the destination array (its length must be the number of
+   *    input sequences)
+   * @return dest, filled with the next combination
+   * @throws NoSuchElementException if there are no more combinations
+   */
+  public T[] next(T[] dest) {
+    assert(dest != null && dest.length == current.length);
+    List<T> view = nextView();
+    for (int i=0; i<dest.length; i++)
+      dest[i] = view.get(i);
+    return dest;
+  }
+
+  /**
+   * Calculates the next combination of the input sequences and returns it as
+   * a read-only view.<br>
+   * NOTE: The same view instance is returned on every call and its contents
+   * change as the iteration proceeds; copy it if it needs to be retained.
+   *
+   * @return a view of the next combination
+   * @throws NoSuchElementException if there are no more combinations
+   * @throws IllegalStateException if a sequence is empty when iterated again
+   */
+  public List<T> nextView() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    int last = current.length - 1;
+    if (!started) {
+      started = true;
+      for (int i=0; i<=last; i++)
+        current[i] = iterators.get(i).next();
+    } else {
+      int pos = last;
+      while (!iterators.get(pos).hasNext())
+        pos--;
+      current[pos] = iterators.get(pos).next();
+      for (int i=pos+1; i<=last; i++) {
+        Iterator<? extends T> it = input.get(i).iterator();
+        if (!it.hasNext())
+          throw new IllegalStateException(
+            "sequence " + i + " is empty when iterated again"
+          );
+        iterators.set(i, it);
+        current[i] = it.next();
+      }
+    }
+    return currentView;
+  }
+
+  /**
+   * Emits the remaining combinations in chunks of a given size; the last
+   * chunk may be smaller.  Each chunk is a new list of new combinations, so
+   * it can be handed over to another thread.  The next chunk is not computed
+   * until the consumer returns.
+   *
+   * @param chunkSize the given size (positive)
+   * @param consumer the consumer of the chunks
+   */
+  public void forEachChunk(
+    int chunkSize, Consumer<? super List<List<T>>> consumer
+  ) {
+    assert(consumer != null);
+    forEachChunkWhile(
+      chunkSize,
+      chunk -> {
+        consumer.accept(chunk);
+        return true;
+      }
+    );
+  }
+
+  /**
+   * Same as {@link #forEachChunk(int, Consumer)} except that it stops as soon
+   * as the consumer returns false.  The iteration can be resumed later.
+   *
+   * @param chunkSize the given size (positive)
+   * @param consumer the consumer of the chunks, returning whether to go on
+   * @return true if all the combinations were emitted, false if stopped
+   */
+  public boolean forEachChunkWhile(
+    int chunkSize, Predicate<? super List<List<T>>> consumer
+  ) {
+    assert(chunkSize > 0 && consumer != null);
+    while (hasNext()) {
+      FastList<List<T>> chunk = FastList.newList(chunkSize);
+      while (chunk.size() < chunkSize && hasNext())
+        chunk.add(next());
+      if (!consumer.test(chunk))
+        return !hasNext();
+    }
+    return true;
+  }
+
+  /**
+   * Creates a sequential stream of the remaining combinations, which
+   * consumes this instance.
+   *
+   * @return the stream
+   */
+  public Stream<List<T>> stream() {
+    return StreamSupport.stream(
+      Spliterators.spliteratorUnknownSize(
+        this, Spliterator.ORDERED | Spliterator.NONNULL
+      ),
+      false
+    );
+  }
+
+  /**
+   * Forbidden.
+   *
+   * @throws UnsupportedOperationException
+   */
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Iterator<List<T>> iterator() {
+    return this;
+  }
+
+  /**
+   * A read-only view of the current combination.
+   */
+  final private class CurrentView
+    extends AbstractList<T> implements RandomAccess {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+      return (T) current[index];
+    }
+
+    @Override
+    public int size() {
+      return current.length;
+    }
+
+  }
+
+}
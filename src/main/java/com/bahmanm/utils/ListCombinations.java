@@ -15,18 +15,37 @@
  */
 package com.bahmanm.utils;
 
+import com.bahmanm.utils.Instrumentation.Counter;
 import org.eclipse.collections.impl.list.mutable.FastList;
-import org.eclipse.collections.impl.tuple.Tuples;
 import org.eclipse.collections.impl.utility.ListIterate;
 
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Lazy (iterator) style combinations of multiple lists.<br>
- * It is important to note that the order of the iteration is not guaranteed.
+ * The order of the iteration is defined by {@link Order}; unless specified
+ * the combinations are iterated in {@link Order#COLEXICOGRAPHIC} order.
+ * <br>
+ * The index into the input lists is kept as a primitive odometer, so moving
+ * to the next combination is O(1) amortised and allocation free.  Use
+ * {@link #next(Object[])} or {@link #nextView()} to avoid allocating a new
+ * list per combination as well.<br>
+ * Each combination has a rank (its position in the iteration, starting from
+ * 0) which can be computed in either direction via {@link #rank(List)} and
+ * {@link #unrank(long)}; {@link #spliterator()} splits the combination space
+ * by rank so it can be processed in parallel.<br>
+ * To update a result incrementally instead of recomputing it for every
+ * combination, use {@link #nextView(ChangeListener)}, preferably in
+ * {@link Order#GRAY} order where each step changes a single element.
  *
  * @param <T> type of elements of the lists
  *
@@ -35,14 +54,59 @@ import java.util.NoSuchElementException;
 public class ListCombinations<T>
   implements Iterator<List<T>>, Iterable<List<T>> {
 
+  /**
+   * Order of the iteration of combinations.
+   */
+  public enum Order {
+    /**
+     * The element from the first list changes on every step, eg
+     * [0,a], [1,a], [0,b], [1,b]
+     */
+    COLEXICOGRAPHIC,
+    /**
+     * The element from the last list changes on every step, eg
+     * [0,a], [0,b], [1,a], [1,b]
+     */
+    LEXICOGRAPHIC,
+    /**
+     * Reflected Gray code: exactly one element changes on every step, the
+     * one from the first list most often, eg
+     * [0,a], [1,a], [1,b], [0,b]
+     */
+    GRAY
+  }
+
+  /**
+   * Receives the elements which change from one combination to the next.
+   *
+   * @param <T> type of elements of the lists
+   * @see #nextView(ChangeListener)
+   */
+  @FunctionalInterface
+  public interface ChangeListener<T> {
+
+    /**
+     * Called for each element which changed.
+     *
+     * @param position position of the element in the combination
+     * @param oldValue the element in the previous combination, or null for
+     *    the first combination
+     * @param newValue the element in the new combination
+     */
+    void changed(int position, T oldValue, T newValue);
+
+  }
+
   /** input lists */
   final FastList<FastList<T>> input = new FastList<>();
-  /** index value limit for each list in input */
-  final private FastList<Integer> indexLimits = new FastList<>();
+  /** sizes of the input lists */
+  final private int[] sizes;
+  /** order of the iteration */
+  final private Order order;
   /** current index values into lists of input */
-  private FastList<Integer> indexCurrent = new FastList<>();
-  /** are there more elements to iterate? */
-  private boolean hasNextCache;
+  final private Odometer indexCurrent;
+  /** reusable view of the current combination */
+  final private List<T> currentView = new CurrentView();
 
   /**
    * Creates a new instance making a copy of input lists.
@@ -60,15 +124,28 @@ public class ListCombinations<T>
    * @param lists a list of lists to calculate the combinations of
    */
   public ListCombinations(List<List<T>> lists) {
-    ListIterate.forEach(
+    this(lists, Order.COLEXICOGRAPHIC);
+  }
+
+  /**
+   * Creates a new instance making a copy of input lists.
+   *
+   * @param lists a list of lists to calculate the combinations of
+   * @param order the order of the iteration
+   */
+  public ListCombinations(List<List<T>> lists, Order order) {
+    assert(order != null);
+    this.order = order;
+    sizes = new int[lists.size()];
+    ListIterate.forEachWithIndex(
       lists,
-      ll -> {
+      (ll, i) -> {
         assert(ll != null && !ll.isEmpty());
         input.add(FastList.newList(ll));
-        indexLimits.add(ll.size() - 1);
+        sizes[i] = ll.size();
       }
     );
-    hasNextCache = computeHasNext();
+    indexCurrent = new Odometer(sizes, order);
   }
 
   /**
@@ -85,57 +162,96 @@ public class ListCombinations<T>
    */
   @Override
   public boolean hasNext() {
-    return hasNextCache;
+    return indexCurrent.hasNext();
   }
 
   /**
-   * Calculates the next combination of the input lists.<br>
-   * NOTE: The order of the combinations is not guaranteed.
+   * Calculates the next combination of the input lists.
    *
    * @return the next combination
    */
   @Override
   public List<T> next() {
-    if (!hasNext())
-      throw new NoSuchElementException();
-    indexCurrent = incIndexCurrent(indexLimits, indexCurrent);
-    hasNextCache = computeHasNext();
-    return indexCurrent.zipWithIndex().collect(pair ->
-      input
-        .get(pair.getTwo())
-        .get(pair.getOne())
-    );
+    indexCurrent.advance();
+    Counter.COMBINATIONS_EMITTED.increment();
+    return combinationOf(indexCurrent);
+  }
+
+  /**
+   * Creates a new list holding the combination a given odometer points to.
+   *
+   * @param index the given odometer
+   * @return the combination
+   */
+  private FastList<T> combinationOf(Odometer index) {
+    FastList<T> result = FastList.newList(input.size());
+    for (int i=0; i<input.size(); i++)
+      result.add(input.get(i).get(index.digit(i)));
+    return result;
   }
 
   /**
-   * Increments 'indexCurrent' by 1. The "update" is practically an
-   * "add with carry" operation, with carry set to 1 at the beginning.
+   * Calculates the next combination of the input lists into a given array.
+   * No new objects are allocated.
    *
-   * @return copy of currentIndex, incremented by 1
+   * @param dest the destination array (its length must be the number of
+   *    input lists)
+   * @return dest, filled with the next combination
+   * @throws NoSuchElementException if there are no more combinations
    */
-  static private FastList<Integer>
-  incIndexCurrent(
-    FastList<Integer> limits, FastList<Integer> current
-  ) {
-    if (current.isEmpty())
-      return FastList.newWithNValues(limits.size(), () -> 0);
-    else
-      return current.zip(limits).injectInto(
-        Tuples.pair(1, new FastList<Integer>()),
-        (accPair, valPair) -> {
-          int index = valPair.getOne();
-          int limit = valPair.getTwo();
-          int carry = accPair.getOne();
-          FastList<Integer> resultIndexList = accPair.getTwo();
+  public T[] next(T[] dest) {
+    assert(dest != null && dest.length == input.size());
+    indexCurrent.advance();
+    Counter.COMBINATIONS_EMITTED.increment();
+    for (int i=0; i<dest.length; i++)
+      dest[i] = input.get(i).get(indexCurrent.digit(i));
+    return dest;
+  }
 
-          int newIndex = index + carry;
-          resultIndexList.add(newIndex > limit ? 0 : newIndex);
-          return Tuples.pair(
-            newIndex > limit ? 1 : 0,
-            resultIndexList
-          );
-        }
-      ).getTwo();
+  /**
+   * Calculates the next combination of the input lists and returns it as a
+   * read-only view.<br>
+   * NOTE: The same view instance is returned on every call and its contents
+   * change as the iteration proceeds; copy it if it needs to be retained.
+   *
+   * @return a view of the next combination
+   * @throws NoSuchElementException if there are no more combinations
+   */
+  public List<T> nextView() {
+    indexCurrent.advance();
+    Counter.COMBINATIONS_EMITTED.increment();
+    return currentView;
+  }
+
+  /**
+   * Same as {@link #nextView()} and passes each element which changed to a
+   * given listener; every element is passed for the first combination.  In
+   * {@link Order#GRAY} order exactly one element changes per step,
+   * otherwise the listener is called for the elements up to the most
+   * significant one which changed.
+   *
+   * @param listener the given listener
+   * @return a view of the next combination
+   * @throws NoSuchElementException if there are no more combinations
+   */
+  public List<T> nextView(ChangeListener<? super T> listener) {
+    assert(listener != null);
+    indexCurrent.advance();
+    Counter.COMBINATIONS_EMITTED.increment();
+    boolean isFirst = indexCurrent.isFirst();
+    for (int i=0; i<indexCurrent.changedCount(); i++) {
+      int pos = indexCurrent.changed(i);
+      FastList<T> list = input.get(pos);
+      int digit = indexCurrent.digit(pos);
+      if (isFirst)
+        listener.changed(pos, null, list.get(digit));
+      else {
+        int previous = indexCurrent.previousDigit(pos);
+        if (previous != digit)
+          listener.changed(pos, list.get(previous), list.get(digit));
+      }
+    }
+    return currentView;
   }
 
   /**
@@ -148,22 +264,173 @@ public class ListCombinations<T>
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public Iterator<List<T>> iterator() {
+    return this;
+  }
+
+  /**
+   * Number of all combinations of the input lists.
+   *
+   * @return the product of the sizes of the input lists
+   * @throws ArithmeticException if the count overflows a long
+   */
+  public long count() {
+    return indexCurrent.count();
+  }
+
   /**
-   * Computes whether there are more elements to iterate.
+   * Computes the rank of a given combination, ie its position in the
+   * iteration order starting from 0.<br>
+   * NOTE: If an input list contains duplicates, the first occurrence is used.
    *
-   * @return True if there are more elements to iterate, False otherwise.
+   * @param combination the given combination
+   * @return the rank
+   * @throws IllegalArgumentException if an element of the combination is not
+   *    in the corresponding input list
    */
-  private boolean computeHasNext() {
-    return
-      indexCurrent.isEmpty() ||
-      indexLimits.zip(indexCurrent).anySatisfy(pair ->
-        pair.getOne() > pair.getTwo()
-      );
+  public long rank(List<T> combination) {
+    assert(combination != null && combination.size() == input.size());
+    int[] indices = new int[input.size()];
+    for (int i=0; i<input.size(); i++) {
+      indices[i] = input.get(i).indexOf(combination.get(i));
+      if (indices[i] < 0)
+        throw new IllegalArgumentException(
+          "Element " + i + " is not in input list " + i
+        );
+    }
+    return indexCurrent.rank(indices);
   }
 
+  /**
+   * Computes the combination with a given rank without enumerating the
+   * combinations before it.
+   *
+   * @param rank the given rank (0 &lt;= rank &lt; count)
+   * @return the combination
+   */
+  public List<T> unrank(long rank) {
+    assert(rank >= 0 && rank < count());
+    int[] indices = indexCurrent.unrank(rank, new int[input.size()]);
+    FastList<T> result = FastList.newList(input.size());
+    for (int i=0; i<input.size(); i++)
+      result.add(input.get(i).get(indices[i]));
+    return result;
+  }
+
+  /**
+   * Creates a spliterator over all the combinations, regardless of the
+   * iteration state of this instance.
+   *
+   * @return a sized, splittable spliterator
+   * @throws ArithmeticException if the count overflows a long
+   */
   @Override
-  public Iterator<List<T>> iterator() {
-    return this;
+  public Spliterator<List<T>> spliterator() {
+    return spliterator(0, count());
+  }
+
+  /**
+   * Creates a spliterator over a contiguous slice of the combinations,
+   * regardless of the iteration state of this instance.  Useful to divide the
+   * work among several processes.
+   *
+   * @param fromRank rank of the first combination (inclusive)
+   * @param toRank rank of the last combination (exclusive)
+   * @return a sized, splittable spliterator
+   */
+  public Spliterator<List<T>> spliterator(long fromRank, long toRank) {
+    assert(0 <= fromRank && fromRank <= toRank && toRank <= count());
+    return new RankSpliterator(fromRank, toRank);
+  }
+
+  /**
+   * Creates a sequential stream of all the combinations.
+   *
+   * @return the stream
+   */
+  public Stream<List<T>> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /**
+   * Creates a parallel stream of all the combinations.
+   *
+   * @return the stream
+   */
+  public Stream<List<T>> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  /**
+   * A read-only view of the combination the odometer currently points to.
+   */
+  final private class CurrentView
+    extends AbstractList<T> implements RandomAccess {
+
+    @Override
+    public T get(int index) {
+      return input.get(index).get(indexCurrent.digit(index));
+    }
+
+    @Override
+    public int size() {
+      return input.size();
+    }
+
+  }
+
+  /**
+   * A spliterator over the range [from, to) of ranks which splits the range
+   * in halves.  Each instance has its own odometer.
+   */
+  final private class RankSpliterator implements Spliterator<List<T>> {
+
+    /** odometer positioned right before 'from' */
+    final private Odometer index = new Odometer(sizes, order);
+    /** rank of the next combination */
+    private long from;
+    /** rank after the last combination */
+    final private long to;
+
+    RankSpliterator(long from, long to) {
+      this.from = from;
+      this.to = to;
+      index.seek(from);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super List<T>> action) {
+      if (from >= to)
+        return false;
+      index.advance();
+      from++;
+      Counter.COMBINATIONS_EMITTED.increment();
+      action.accept(combinationOf(index));
+      return true;
+    }
+
+    @Override
+    public Spliterator<List<T>> trySplit() {
+      if (to - from < 2)
+        return null;
+      long mid = from + (to - from) / 2;
+      Spliterator<List<T>> prefix = new RankSpliterator(from, mid);
+      from = mid;
+      index.seek(mid);
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+
   }
 
 }
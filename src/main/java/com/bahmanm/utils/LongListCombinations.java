@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import org.eclipse.collections.api.list.primitive.LongList;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Lazy (iterator) style combinations of multiple lists of longs, which are
+ * neither boxed in the input nor in the emitted combinations.  Handy for
+ * the product of numeric grids, eg in parameter sweeps.<br>
+ * Apart from the element type it behaves like {@link ListCombinations}: the
+ * iteration order is defined by {@link ListCombinations.Order} and moving to
+ * the next combination is O(1) amortised.  Use {@link #next(long[])} or
+ * {@link #forEachInto(long[], Consumer)} to avoid allocating an array per
+ * combination.
+ *
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+public class LongListCombinations
+  implements Iterator<long[]>, Iterable<long[]> {
+
+  /** input lists */
+  final private long[][] input;
+  /** current index values into lists of input */
+  final private Odometer indexCurrent;
+
+  /**
+   * Creates a new instance making a copy of input lists.
+   *
+   * @param lists lists to calculate the combinations of
+   */
+  public LongListCombinations(long[]... lists) {
+    this(lists, ListCombinations.Order.COLEXICOGRAPHIC);
+  }
+
+  /**
+   * Creates a new instance making a copy of input lists.
+   *
+   * @param lists lists to calculate the combinations of
+   * @param order the order of the iteration
+   */
+  public LongListCombinations(
+    long[][] lists, ListCombinations.Order order
+  ) {
+    assert(lists != null && order != null);
+    input = new long[lists.length][];
+    int[] sizes = new int[lists.length];
+    for (int i=0; i<lists.length; i++) {
+      assert(lists[i] != null && lists[i].length > 0);
+      input[i] = lists[i].clone();
+      sizes[i] = lists[i].length;
+    }
+    indexCurrent = new Odometer(sizes, order);
+  }
+
+  /**
+   * Creates a new instance making a copy of input lists.
+   *
+   * @param lists a list of lists to calculate the combinations of
+   * @param order the order of the iteration
+   */
+  public LongListCombinations(
+    List<? extends LongList> lists, ListCombinations.Order order
+  ) {
+    this(toArrays(lists), order);
+  }
+
+  static private long[][] toArrays(List<? extends LongList> lists) {
+    assert(lists != null);
+    long[][] result = new long[lists.size()][];
+    for (int i=0; i<result.length; i++)
+      result[i] = lists.get(i).toArray();
+    return result;
+  }
+
+  /**
+   * Checks if there is another combination left.
+   *
+   * @return true if there is another combination, false otherwise
+   */
+  @Override
+  public boolean hasNext() {
+    return indexCurrent.hasNext();
+  }
+
+  /**
+   * Calculates the next combination of the input lists.
+   *
+   * @return the next combination
+   */
+  @Override
+  public long[] next() {
+    return next(new long[input.length]);
+  }
+
+  /**
+   * Calculates the next combination of the input lists into a given array.
+   *
+   * @param dest the destination array (its length must be the number of
+   *    input lists)
+   * @return dest, filled with the next combination
+   * @throws NoSuchElementException if there are no more combinations
+   */
+  public long[] next(long[] dest) {
+    assert(dest != null && dest.length == input.length);
+    if (!hasNext())
+      throw new NoSuchElementException();
+    indexCurrent.advance();
+    for (int i=0; i<dest.length; i++)
+      dest[i] = input[i][indexCurrent.digit(i)];
+    return dest;
+  }
+
+  /**
+   * Passes each of the remaining combinations to a given consumer, in the
+   * same array which is overwritten on every step.
+   *
+   * @param dest the reused array (its length must be the number of input
+   *    lists)
+   * @param consumer the given consumer
+   */
+  public void forEachInto(long[] dest, Consumer<? super long[]> consumer) {
+    assert(consumer != null);
+    while (hasNext())
+      consumer.accept(next(dest));
+  }
+
+  /**
+   * Number of all the combinations, regardless of the iteration state.
+   *
+   * @return number of combinations
+   * @throws ArithmeticException if the number does not fit in a long
+   */
+  public long count() {
+    return indexCurrent.count();
+  }
+
+  /**
+   * Computes the combination with a given rank (position in the iteration),
+   * regardless of the iteration state.
+   *
+   * @param rank the given rank (0 &lt;= rank &lt; count())
+   * @param dest the destination array (its length must be the number of
+   *    input lists)
+   * @return dest, filled with the combination
+   */
+  public long[] unrank(long rank, long[] dest) {
+    assert(dest != null && dest.length == input.length);
+    int[] digits = indexCurrent.unrank(rank, new int[input.length]);
+    for (int i=0; i<dest.length; i++)
+      dest[i] = input[i][digits[i]];
+    return dest;
+  }
+
+  /**
+   * Forbidden.
+   *
+   * @throws UnsupportedOperationException
+   */
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Iterator<long[]> iterator() {
+    return this;
+  }
+
+}
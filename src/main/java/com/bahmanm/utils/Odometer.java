@@ -0,0 +1,312 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A mixed-radix counter over primitive digits.<br>
+ * Depending on the order, either the first digit (colexicographic) or the
+ * last digit (lexicographic) is the least significant one, ie it changes on
+ * every step.  Incrementing is O(1) amortised and does not allocate.<br>
+ * In {@link ListCombinations.Order#GRAY} order the first digit is the least
+ * significant one and the states follow the reflected mixed-radix Gray
+ * code: each digit sweeps up and down its range, reversing its direction
+ * whenever a more significant digit moves, so every step changes exactly one
+ * digit by 1.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final class Odometer {
+
+  /** radix (number of possible values) of each digit */
+  final private int[] radices;
+  /** current value of each digit */
+  final private int[] digits;
+  /** is the last digit the least significant one? */
+  final private boolean lastFastest;
+  /** direction (1 or -1) of each digit in Gray order, otherwise null */
+  final private int[] directions;
+  /**
+   * number of digits which cannot move any further: at their maximum value,
+   * or in Gray order at the end of their direction
+   */
+  private int maxedCount;
+  /** significance of the most significant digit changed by the last step */
+  private int lastChanged = -1;
+  /** has the first state been emitted yet? */
+  private boolean started;
+
+  /**
+   * Creates a new odometer.
+   *
+   * @param radices radix of each digit (all > 0); the array is copied
+   * @param order the order of the states
+   */
+  Odometer(int[] radices, ListCombinations.Order order) {
+    assert(radices != null && order != null);
+    this.radices = radices.clone();
+    this.digits = new int[radices.length];
+    this.lastFastest = order == ListCombinations.Order.LEXICOGRAPHIC;
+    if (order == ListCombinations.Order.GRAY) {
+      directions = new int[radices.length];
+      Arrays.fill(directions, 1);
+    } else
+      directions = null;
+    for (int radix : radices)
+      assert(radix > 0);
+  }
+
+  /**
+   * Maps significance to position.
+   *
+   * @param k significance of a digit (0 is the least significant)
+   * @return position of the digit
+   */
+  private int pos(int k) {
+    return lastFastest ? digits.length - 1 - k : k;
+  }
+
+  /**
+   * Number of digits.
+   *
+   * @return number of digits
+   */
+  int size() {
+    return digits.length;
+  }
+
+  /**
+   * Current value of a given digit.
+   *
+   * @param pos position of the digit
+   * @return the value
+   */
+  int digit(int pos) {
+    return digits[pos];
+  }
+
+  /**
+   * Radix of a given digit.
+   *
+   * @param pos position of the digit
+   * @return the radix
+   */
+  int radix(int pos) {
+    return radices[pos];
+  }
+
+  /**
+   * Checks if there is another state left.
+   *
+   * @return true if there is another state, false otherwise
+   */
+  boolean hasNext() {
+    return !started || maxedCount < digits.length;
+  }
+
+  /**
+   * Moves to the next state: all zeroes on the first call, otherwise an
+   * "add with carry" of 1 starting from the least significant digit.  In
+   * Gray order, the least significant digit which can move in its direction
+   * moves, and the less significant ones reverse their direction.
+   *
+   * @return the position of the most significant digit which changed (in
+   *    Gray order the only one) or -1 on the first call
+   * @throws NoSuchElementException if all the states are exhausted
+   */
+  int advance() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    if (!started) {
+      started = true;
+      for (int radix : radices)
+        if (radix == 1) maxedCount++;
+      lastChanged = -1;
+      return -1;
+    }
+    if (directions != null)
+      return advanceGray();
+    int k = 0;
+    int pos = pos(k);
+    while (digits[pos] == radices[pos] - 1) {
+      digits[pos] = 0;
+      if (radices[pos] > 1) maxedCount--;
+      pos = pos(++k);
+    }
+    if (++digits[pos] == radices[pos] - 1)
+      maxedCount++;
+    lastChanged = k;
+    return pos;
+  }
+
+  private int advanceGray() {
+    int pos = 0;
+    while (isMaxed(pos)) {
+      directions[pos] = -directions[pos];
+      if (radices[pos] > 1) maxedCount--;
+      pos++;
+    }
+    digits[pos] += directions[pos];
+    if (isMaxed(pos))
+      maxedCount++;
+    lastChanged = pos;
+    return pos;
+  }
+
+  /**
+   * Can a given digit not move any further?
+   */
+  private boolean isMaxed(int pos) {
+    if (directions != null && directions[pos] < 0)
+      return digits[pos] == 0;
+    return digits[pos] == radices[pos] - 1;
+  }
+
+  /**
+   * Was the last step the first call of {@link #advance()}?
+   *
+   * @return true if so, false otherwise
+   */
+  boolean isFirst() {
+    return lastChanged < 0;
+  }
+
+  /**
+   * Number of digits changed by the last step: all of them after the first
+   * call of {@link #advance()}, one in Gray order, otherwise the least
+   * significant ones up to the one whose position {@link #advance()}
+   * returned.  Digits with a radix of 1 are counted although they never
+   * change.
+   *
+   * @return number of digits
+   */
+  int changedCount() {
+    if (lastChanged < 0)
+      return digits.length;
+    return directions != null ? 1 : lastChanged + 1;
+  }
+
+  /**
+   * Position of a digit changed by the last step.
+   *
+   * @param i index of the digit among the changed ones, from the least
+   *    significant (0 &lt;= i &lt; changedCount)
+   * @return position of the digit
+   */
+  int changed(int i) {
+    if (lastChanged < 0)
+      return i;
+    return directions != null ? lastChanged : pos(i);
+  }
+
+  /**
+   * Value of a digit changed by the last step before the step; undefined
+   * after the first call of {@link #advance()}.
+   *
+   * @param pos position of the digit
+   * @return the previous value
+   */
+  int previousDigit(int pos) {
+    if (directions != null)
+      return digits[pos] - directions[pos];
+    return pos == pos(lastChanged) ? digits[pos] - 1 : radices[pos] - 1;
+  }
+
+  /**
+   * Total number of states of the odometer.
+   *
+   * @return the product of all radices
+   * @throws ArithmeticException if the product overflows a long
+   */
+  long count() {
+    long result = 1;
+    for (int radix : radices)
+      result = Math.multiplyExact(result, radix);
+    return result;
+  }
+
+  /**
+   * Positions the odometer so that the next call to {@link #advance()} moves
+   * to the state with the given rank, ie the number of increments from all
+   * zeroes.
+   *
+   * @param rank the given rank (0 &lt;= rank &lt;= count)
+   */
+  void seek(long rank) {
+    assert(rank >= 0);
+    maxedCount = 0;
+    lastChanged = -1;
+    started = rank > 0;
+    unrank(started ? rank - 1 : 0, digits);
+    if (directions != null) {
+      // a digit goes down iff the number its more significant digits
+      // form in the counting order is odd
+      long higher = started ? rank - 1 : 0;
+      for (int k=0; k<digits.length; k++) {
+        higher /= radices[k];
+        directions[k] = (higher & 1) == 0 ? 1 : -1;
+      }
+    }
+    if (started)
+      for (int i=0; i<digits.length; i++)
+        if (isMaxed(i)) maxedCount++;
+  }
+
+  /**
+   * Computes the rank of given digit values.
+   *
+   * @param values the given digit values
+   * @return the rank
+   */
+  long rank(int[] values) {
+    assert(values.length == digits.length);
+    long result = 0;
+    for (int k=digits.length-1; k>=0; k--) {
+      int pos = pos(k);
+      assert(values[pos] >= 0 && values[pos] < radices[pos]);
+      int value = values[pos];
+      // in Gray order, a digit is reflected if the higher part is odd
+      if (directions != null && (result & 1) != 0)
+        value = radices[pos] - 1 - value;
+      result = result * radices[pos] + value;
+    }
+    return result;
+  }
+
+  /**
+   * Computes the digit values of a given rank.
+   *
+   * @param rank the given rank (0 &lt;= rank &lt; count)
+   * @param dest the destination of digit values
+   * @return dest
+   */
+  int[] unrank(long rank, int[] dest) {
+    assert(rank >= 0 && dest.length == digits.length);
+    for (int k=0; k<digits.length; k++) {
+      int pos = pos(k);
+      dest[pos] = (int) (rank % radices[pos]);
+      rank /= radices[pos];
+      // in Gray order, a digit is reflected if the higher part is odd
+      if (directions != null && (rank & 1) != 0)
+        dest[pos] = radices[pos] - 1 - dest[pos];
+    }
+    assert(rank == 0);
+    return dest;
+  }
+
+}
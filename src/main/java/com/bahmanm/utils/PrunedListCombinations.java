@@ -0,0 +1,236 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import org.eclipse.collections.impl.list.mutable.FastList;
+import org.eclipse.collections.impl.utility.ListIterate;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Lazy (iterator) style combinations of multiple lists, constrained by a
+ * predicate on prefixes of the combinations.<br>
+ * A combination [e1, ..., en] is emitted iff the predicate accepts every
+ * prefix [e1], [e1, e2], ..., [e1, ..., en].  Once a prefix is rejected, none
+ * of the combinations starting with it are visited, so the cost is
+ * proportional to the number of accepted prefixes rather than the product of
+ * the sizes of the lists.<br>
+ * The combinations are iterated in
+ * {@link ListCombinations.Order#LEXICOGRAPHIC} order.
+ * <br>
+ * Example (a budget constraint):
+ * <pre>
+ * new PrunedListCombinations&lt;&gt;(
+ *   prices,
+ *   prefix -&gt; sum(prefix) &lt;= budget
+ * )
+ * </pre>
+ *
+ * @param <T> type of elements of the lists
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+public class PrunedListCombinations<T>
+  implements Iterator<List<T>>, Iterable<List<T>> {
+
+  /** input lists */
+  final private FastList<FastList<T>> input = new FastList<>();
+  /** predicate on prefixes */
+  final private Predicate<? super List<T>> prefixFilter;
+  /** index values of the next accepted combination */
+  final private int[] indexCurrent;
+  /** index values of the last emitted combination */
+  final private int[] indexEmitted;
+  /** length of the prefix which is currently being examined */
+  private int level;
+  /** reusable view of the current prefix */
+  final private PrefixView prefix = new PrefixView();
+  /** reusable view of the last emitted combination */
+  final private List<T> emittedView = new EmittedView();
+  /** are there more elements to iterate? */
+  private boolean hasNextCache;
+
+  /**
+   * Creates a new instance making a copy of input lists.
+   *
+   * @param lists a list of lists to calculate the combinations of (not empty)
+   * @param prefixFilter the predicate on prefixes; the list passed to it is a
+   *    view which is valid only during the call
+   */
+  public PrunedListCombinations(
+    List<List<T>> lists, Predicate<? super List<T>> prefixFilter
+  ) {
+    assert(lists != null && !lists.isEmpty() && prefixFilter != null);
+    ListIterate.forEach(
+      lists,
+      ll -> {
+        assert(ll != null && !ll.isEmpty());
+        input.add(FastList.newList(ll));
+      }
+    );
+    this.prefixFilter = prefixFilter;
+    indexCurrent = new int[input.size()];
+    indexEmitted = new int[input.size()];
+    hasNextCache = search();
+  }
+
+  /**
+   * Checks if there is another combination left.
+   *
+   * @return true if there is another combination, false otherwise
+   */
+  @Override
+  public boolean hasNext() {
+    return hasNextCache;
+  }
+
+  /**
+   * Calculates the next accepted combination of the input lists.
+   *
+   * @return the next combination
+   */
+  @Override
+  public List<T> next() {
+    return FastList.newList(nextView());
+  }
+
+  /**
+   * Calculates the next accepted combination of the input lists into a given
+   * array.
+   *
+   * @param dest the destination array (its length must be the number of
+   *    input lists)
+   * @return dest, filled with the next combination
+   * @throws NoSuchElementException if there are no more combinations
+   */
+  public T[] next(T[] dest) {
+    assert(dest != null && dest.length == input.size());
+    List<T> view = nextView();
+    for (int i=0; i<dest.length; i++)
+      dest[i] = view.get(i);
+    return dest;
+  }
+
+  /**
+   * Calculates the next accepted combination of the input lists and returns
+   * it as a read-only view.<br>
+   * NOTE: The same view instance is returned on every call and its contents
+   * change as the iteration proceeds; copy it if it needs to be retained.
+   *
+   * @return a view of the next combination
+   * @throws NoSuchElementException if there are no more combinations
+   */
+  public List<T> nextView() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    System.arraycopy(indexCurrent, 0, indexEmitted, 0, indexCurrent.length);
+    indexCurrent[level]++;
+    hasNextCache = search();
+    return emittedView;
+  }
+
+  /**
+   * Finds the next accepted combination starting from the current index.
+   * Rejected prefixes are skipped together with all their extensions.
+   *
+   * @return true if a combination was found, false if exhausted
+   */
+  private boolean search() {
+    int last = indexCurrent.length - 1;
+    while (level >= 0) {
+      if (indexCurrent[level] == input.get(level).size()) {
+        indexCurrent[level] = 0;
+        if (--level >= 0)
+          indexCurrent[level]++;
+      } else if (!prefixFilter.test(prefix.ofLength(level + 1))) {
+        indexCurrent[level]++;
+      } else if (level == last) {
+        return true;
+      } else {
+        indexCurrent[++level] = 0;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Forbidden.
+   *
+   * @throws UnsupportedOperationException
+   */
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Iterator<List<T>> iterator() {
+    return this;
+  }
+
+  /**
+   * A read-only view of a prefix of the combination which is currently being
+   * examined.
+   */
+  final private class PrefixView
+    extends AbstractList<T> implements RandomAccess {
+
+    /** length of the prefix */
+    private int length;
+
+    PrefixView ofLength(int length) {
+      this.length = length;
+      return this;
+    }
+
+    @Override
+    public T get(int index) {
+      if (index >= length)
+        throw new IndexOutOfBoundsException(index + " >= " + length);
+      return input.get(index).get(indexCurrent[index]);
+    }
+
+    @Override
+    public int size() {
+      return length;
+    }
+
+  }
+
+  /**
+   * A read-only view of the last emitted combination.
+   */
+  final private class EmittedView
+    extends AbstractList<T> implements RandomAccess {
+
+    @Override
+    public T get(int index) {
+      return input.get(index).get(indexEmitted[index]);
+    }
+
+    @Override
+    public int size() {
+      return indexEmitted.length;
+    }
+
+  }
+
+}
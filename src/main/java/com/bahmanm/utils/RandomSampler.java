@@ -0,0 +1,279 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import org.eclipse.collections.impl.list.mutable.FastList;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * A seedable source of random samples backed by a {@link SplittableRandom}.
+ * <br>
+ * An instance is NOT thread-safe: it is meant to be confined to one thread.
+ * Use {@link #split()} to hand an independent sampler to another thread, or
+ * the static methods of {@link RandomUtils} which keep one sampler per
+ * thread.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final public class RandomSampler {
+
+  /** the underlying generator */
+  final private SplittableRandom random;
+
+  /**
+   * Creates a sampler with an arbitrary seed.
+   */
+  public RandomSampler() {
+    this(new SplittableRandom());
+  }
+
+  /**
+   * Creates a sampler with a given seed; samplers with the same seed produce
+   * the same samples when called in the same order.
+   *
+   * @param seed the given seed
+   */
+  public RandomSampler(long seed) {
+    this(new SplittableRandom(seed));
+  }
+
+  private RandomSampler(SplittableRandom random) {
+    this.random = random;
+  }
+
+  /**
+   * Creates a new sampler which is independent of this one.  The new sampler
+   * is determined by the state of this one, so splitting a seeded sampler
+   * produces reproducible samplers.
+   *
+   * @return the new sampler
+   */
+  public RandomSampler split() {
+    return new RandomSampler(random.split());
+  }
+
+  /**
+   * @param bound the upper bound (exclusive, positive)
+   * @return a random int in [0, bound)
+   */
+  public int nextInt(int bound) {
+    return random.nextInt(bound);
+  }
+
+  /**
+   * @return a random double in [0, 1)
+   */
+  public double nextDouble() {
+    return random.nextDouble();
+  }
+
+  /**
+   * Uses the polar method, drawing two doubles or more per call.
+   *
+   * @return a random double from the standard normal distribution
+   */
+  public double nextGaussian() {
+    double u;
+    double s;
+    do {
+      u = random.nextDouble() * 2 - 1;
+      double v = random.nextDouble() * 2 - 1;
+      s = u * u + v * v;
+    } while (s >= 1 || s == 0);
+    return u * Math.sqrt(-2 * Math.log(s) / s);
+  }
+
+  /**
+   * Returns a random element from a given list.
+   *
+   * @param src the given list (not null and not empty)
+   * @return a random element
+   */
+  public <T> T randPeek(List<T> src) {
+    assert(src != null && !src.isEmpty());
+    return src.get(random.nextInt(src.size()));
+  }
+
+  /**
+   * Returns a random element from a given collection.  Lists with random
+   * access and {@link IndexedSet}s are sampled in constant time; other
+   * collections are iterated up to the random position, without copying.
+   *
+   * @param src the given collection (not null and not empty)
+   * @return a random element
+   */
+  public <T> T randPeek(Collection<T> src) {
+    assert(src != null && !src.isEmpty());
+    if (src instanceof IndexedSet)
+      return randPeek((IndexedSet<T>) src);
+    if (src instanceof List && src instanceof RandomAccess)
+      return randPeek((List<T>) src);
+    int i = random.nextInt(src.size());
+    Iterator<T> it = src.iterator();
+    while (i-- > 0)
+      it.next();
+    return it.next();
+  }
+
+  /**
+   * Returns a random element from a given set in constant time.
+   *
+   * @param src the given set (not null and not empty)
+   * @return a random element
+   */
+  public <T> T randPeek(IndexedSet<T> src) {
+    assert(src != null && !src.isEmpty());
+    return src.get(random.nextInt(src.size()));
+  }
+
+  /**
+   * Returns a random key from the keys of a given map in constant time.
+   *
+   * @param src the given map (not null and not empty)
+   * @return a random key
+   */
+  public <K, V> K randPeek(IndexedMap<K, V> src) {
+    assert(src != null && !src.isEmpty());
+    return src.getKey(random.nextInt(src.size()));
+  }
+
+  /**
+   * Returns k random elements from a given list, with replacement, ie an
+   * element may be returned more than once.
+   *
+   * @param src the given list (not null and not empty)
+   * @param k number of elements
+   * @return a new list of the random elements
+   */
+  public <T> List<T> randPeek(List<T> src, int k) {
+    assert(src != null && !src.isEmpty() && k >= 0);
+    int size = src.size();
+    FastList<T> result = FastList.newList(k);
+    for (int i=0; i<k; i++)
+      result.add(src.get(random.nextInt(size)));
+    return result;
+  }
+
+  /**
+   * Returns k random elements from a given list, without replacement, ie
+   * elements at distinct positions, in random order.
+   *
+   * @param src the given list (not null)
+   * @param k number of elements (at most the size of the list)
+   * @return a new list of the random elements
+   */
+  public <T> List<T> randPeekDistinct(List<T> src, int k) {
+    assert(src != null && k >= 0 && k <= src.size());
+    int size = src.size();
+    FastList<T> result = FastList.newList(k);
+    if (k <= size / 4) {
+      IntHashSet picked = new IntHashSet(k);
+      while (result.size() < k) {
+        int i = random.nextInt(size);
+        if (picked.add(i))
+          result.add(src.get(i));
+      }
+    } else {
+      int[] indices = new int[size];
+      for (int i=0; i<size; i++)
+        indices[i] = i;
+      for (int i=0; i<k; i++) {
+        int j = i + random.nextInt(size - i);
+        int t = indices[j];
+        indices[j] = indices[i];
+        indices[i] = t;
+        result.add(src.get(t));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a random element from a given list where the probability of each
+   * element is given by an alias table.
+   *
+   * @param src the given list (not null)
+   * @param weights alias table of the weights of the elements of the list
+   *    (of the same size as the list)
+   * @return a random element
+   */
+  public <T> T randPeek(List<T> src, AliasTable weights) {
+    assert(src != null && weights != null && src.size() == weights.size());
+    return src.get(weights.next(this));
+  }
+
+  /**
+   * Returns k random elements of a given iterator, without replacement,
+   * consuming the iterator once.  Uses reservoir sampling (Li's algorithm L)
+   * which draws O(k log(n/k)) random numbers for n elements.
+   *
+   * @param src the given iterator
+   * @param k number of elements (positive)
+   * @return a new list of the random elements; all the elements if there are
+   *    at most k of them
+   */
+  public <T> List<T> reservoir(Iterator<? extends T> src, int k) {
+    assert(src != null && k > 0);
+    FastList<T> result = FastList.newList(k);
+    while (result.size() < k && src.hasNext())
+      result.add(src.next());
+    if (!src.hasNext())
+      return result;
+    double w = Math.exp(Math.log(nextOpenDouble()) / k);
+    while (true) {
+      long skip = (long) Math.floor(
+        Math.log(nextOpenDouble()) / Math.log1p(-w)
+      );
+      for (long i=0; i<skip; i++) {
+        if (!src.hasNext())
+          return result;
+        src.next();
+      }
+      if (!src.hasNext())
+        return result;
+      result.set(random.nextInt(k), src.next());
+      w *= Math.exp(Math.log(nextOpenDouble()) / k);
+    }
+  }
+
+  /**
+   * Same as {@link #reservoir(Iterator, int)} over the elements of a given
+   * stream, which is consumed sequentially.
+   *
+   * @param src the given stream
+   * @param k number of elements (positive)
+   * @return a new list of the random elements
+   */
+  public <T> List<T> reservoir(Stream<? extends T> src, int k) {
+    assert(src != null);
+    return reservoir(src.iterator(), k);
+  }
+
+  /**
+   * @return a random double in (0, 1]
+   */
+  private double nextOpenDouble() {
+    return 1.0 - random.nextDouble();
+  }
+
+}
@@ -15,20 +15,63 @@
  */
 package com.bahmanm.utils;
 
-import java.util.Random;
+import com.bahmanm.utils.Instrumentation.Counter;
+import org.eclipse.collections.impl.list.mutable.FastList;
+
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
-import java.util.ArrayList;
 import java.util.Set;
 import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
 
 /**
- * Collection of utilities to generate random data.
+ * Collection of utilities to generate random data.<br>
+ * Each thread draws from its own {@link RandomSampler}, so the methods do not
+ * contend with each other.  The samplers of all threads are split from a
+ * common root which can be seeded with {@link #setSeed(long)}.
  *
  * @author Bahman Movaqar <Bahman AT BahmanM.com>
  */
 final public class RandomUtils {
 
-  final static private Random r = new Random();
+  /** the root which the samplers of the threads are split from */
+  static private volatile Root root = new Root(new SplittableRandom(), 0);
+
+  /** the sampler of each thread */
+  final static private ThreadLocal<ThreadSampler> samplers =
+    ThreadLocal.withInitial(() -> root.newThreadSampler());
+
+  /**
+   * Seeds the root of the samplers.  Each thread, including the current
+   * one, gets a new sampler split from the new root on its next call; thus
+   * a single thread which calls this method before sampling always gets the
+   * same samples.
+   *
+   * @param seed the given seed
+   */
+  static public void
+  setSeed(long seed) {
+    root = new Root(new SplittableRandom(seed), root.generation + 1);
+  }
+
+  /**
+   * Returns the sampler of the current thread.  It must not be handed to
+   * other threads; use {@link RandomSampler#split()} for that.
+   *
+   * @return the sampler
+   */
+  static public RandomSampler
+  sampler() {
+    ThreadSampler ts = samplers.get();
+    Root current = root;
+    if (ts.generation != current.generation) {
+      ts = current.newThreadSampler();
+      samplers.set(ts);
+    }
+    return ts.sampler;
+  }
 
   /**
    * Returns a random element from a given list.
@@ -38,14 +81,81 @@ final public class RandomUtils {
    */
   static public <T> T
   randPeek(List<T> src) {
-    assert src != null && !src.isEmpty();
-    return src.get(
-      r.nextInt(src.size())
-    );
+    Counter.RANDOM_SAMPLES.increment();
+    return sampler().randPeek(src);
   }
 
   /**
-   * Returns a random element from a given set.
+   * Returns k random elements from a given list, with replacement.
+   *
+   * @param src the given list (not null and not empty)
+   * @param k number of elements
+   * @return a new list of the random elements
+   * @see RandomSampler#randPeek(List, int)
+   */
+  static public <T> List<T>
+  randPeek(List<T> src, int k) {
+    return counted(sampler().randPeek(src, k));
+  }
+
+  /**
+   * Returns k random elements from a given list, without replacement.
+   *
+   * @param src the given list (not null)
+   * @param k number of elements (at most the size of the list)
+   * @return a new list of the random elements
+   * @see RandomSampler#randPeekDistinct(List, int)
+   */
+  static public <T> List<T>
+  randPeekDistinct(List<T> src, int k) {
+    return counted(sampler().randPeekDistinct(src, k));
+  }
+
+  /**
+   * Returns a random element from a given list with given weights.
+   *
+   * @param src the given list (not null)
+   * @param weights alias table of the weights of the elements
+   * @return a random element
+   * @see RandomSampler#randPeek(List, AliasTable)
+   */
+  static public <T> T
+  randPeek(List<T> src, AliasTable weights) {
+    Counter.RANDOM_SAMPLES.increment();
+    return sampler().randPeek(src, weights);
+  }
+
+  /**
+   * Returns k random elements of a given iterator, without replacement.
+   *
+   * @param src the given iterator
+   * @param k number of elements (positive)
+   * @return a new list of the random elements
+   * @see RandomSampler#reservoir(Iterator, int)
+   */
+  static public <T> List<T>
+  reservoir(Iterator<? extends T> src, int k) {
+    return counted(sampler().reservoir(src, k));
+  }
+
+  /**
+   * Returns k random elements of a given stream, without replacement.
+   *
+   * @param src the given stream
+   * @param k number of elements (positive)
+   * @return a new list of the random elements
+   * @see RandomSampler#reservoir(Stream, int)
+   */
+  static public <T> List<T>
+  reservoir(Stream<? extends T> src, int k) {
+    return counted(sampler().reservoir(src, k));
+  }
+
+  /**
+   * Returns a random element from a given set.  An {@link IndexedSet} is
+   * sampled in constant time; other sets are iterated up to the random
+   * position, which is O(n) but does not copy the set.  For a read-mostly
+   * set, sample a {@link #snapshot(Collection)} instead.
    *
    * @param src the given set (not null and not empty)
    * @return a random element
@@ -53,21 +163,89 @@ final public class RandomUtils {
   static public <T> T
   randPeek(Set<T> src) {
     assert src != null && !src.isEmpty();
-    return new ArrayList<>(src)
-      .get(
-        r.nextInt(src.size())
-      );
+    Counter.RANDOM_SAMPLES.increment();
+    return sampler().randPeek(src);
   }
 
   /**
-   * Returns a random key from the keys of a given map.
+   * Returns a random key from the keys of a given map.  An
+   * {@link IndexedMap} is sampled in constant time.
    *
    * @param src the given map (not null and not empty)
    * @return a random key
+   * @see #randPeek(Set)
    */
   static public <K, V> K
   randPeek(Map<K, V> src) {
     assert src != null && !src.isEmpty();
+    if (src instanceof IndexedMap) {
+      Counter.RANDOM_SAMPLES.increment();
+      return sampler().randPeek((IndexedMap<K, V>) src);
+    }
     return randPeek(src.keySet());
   }
+
+  /**
+   * Copies a given collection into an immutable list which can be sampled in
+   * constant time with {@link #randPeek(List)}.  Take the snapshot once and
+   * sample it many times while the collection does not change.
+   *
+   * @param src the given collection (not null)
+   * @return the snapshot
+   */
+  static public <T> List<T>
+  snapshot(Collection<T> src) {
+    assert src != null;
+    return FastList.newList(src).asUnmodifiable();
+  }
+
+  /**
+   * Counts the elements of a given sample.
+   *
+   * @param sample the given sample
+   * @return sample
+   */
+  static private <T> List<T>
+  counted(List<T> sample) {
+    Counter.RANDOM_SAMPLES.add(sample.size());
+    return sample;
+  }
+
+  /**
+   * A seeded root generator; the generation tells the threads whether their
+   * samplers were split from the current root.
+   */
+  final static private class Root {
+
+    final private SplittableRandom random;
+    final private int generation;
+
+    Root(SplittableRandom random, int generation) {
+      this.random = random;
+      this.generation = generation;
+    }
+
+    synchronized ThreadSampler newThreadSampler() {
+      return new ThreadSampler(
+        new RandomSampler(random.nextLong()), generation
+      );
+    }
+
+  }
+
+  /**
+   * The sampler of a thread together with the generation of its root.
+   */
+  final static private class ThreadSampler {
+
+    final private RandomSampler sampler;
+    final private int generation;
+
+    ThreadSampler(RandomSampler sampler, int generation) {
+      this.sampler = sampler;
+      this.generation = generation;
+    }
+
+  }
+
 }
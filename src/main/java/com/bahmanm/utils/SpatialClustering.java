@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static java.lang.Math.*;
+
+/**
+ * Clustering of points on the map.<br>
+ * Neighbours are found through a {@link SpatialIndex} whose cells are about
+ * the size of the radius, so the distance matrix of the points is never
+ * materialised and the memory used is linear in the number of points.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final public class SpatialClustering {
+
+  /** label of the points which do not belong to any cluster */
+  final static public int noise = -1;
+
+  /** smallest cell size of the index (in degrees) */
+  final static private double minCellDegrees = 1e-4;
+
+  /**
+   * Clusters the given points using DBSCAN: a point with at least minPoints
+   * points (including itself) within eps meters of it is a core point; core
+   * points within eps of each other belong to the same cluster, as do the
+   * non-core points within eps of a core point of the cluster.  Any other
+   * point is noise.<br>
+   * Core points are found in parallel in the common fork-join pool; the
+   * clusters are then expanded sequentially.  A non-core point within eps of
+   * more than one cluster belongs to the cluster found first, as in the
+   * original algorithm.
+   *
+   * @param lats latitudes of the points (in signed decimal degrees)
+   * @param lons longitudes of the points (in signed decimal degrees)
+   * @param eps the radius in meters
+   * @param minPoints minimum number of points in the neighbourhood of a core
+   *    point
+   * @return the cluster of each point, numbered from 0 in the order of the
+   *    first core point of each cluster, or {@link #noise}
+   */
+  static public int[] dbscan(
+    double[] lats, double[] lons, double eps, int minPoints
+  ) {
+    assert(
+      lats != null && lons != null && lats.length == lons.length &&
+      eps >= 0 && minPoints > 0
+    );
+    int n = lats.length;
+    double cellDegrees = min(
+      max(toDegrees(eps / SpatialUtils.earthRadius), minCellDegrees), 180
+    );
+    SpatialIndex index = SpatialIndex.bulkLoad(lats, lons, cellDegrees);
+    boolean[] isCore = new boolean[n];
+    IntStream.range(0, n).parallel().forEach(
+      i -> isCore[i] =
+        index.withinRadius(lats[i], lons[i], eps).size() >= minPoints
+    );
+    int[] labels = new int[n];
+    Arrays.fill(labels, noise);
+    IntArrayList stack = new IntArrayList();
+    int cluster = 0;
+    for (int i=0; i<n; i++) {
+      if (!isCore[i] || labels[i] != noise)
+        continue;
+      labels[i] = cluster;
+      stack.add(i);
+      while (!stack.isEmpty()) {
+        int p = stack.removeAtIndex(stack.size() - 1);
+        MutableIntList neighbours = index.withinRadius(lats[p], lons[p], eps);
+        for (int k=0; k<neighbours.size(); k++) {
+          int q = neighbours.get(k);
+          if (labels[q] != noise)
+            continue;
+          labels[q] = cluster;
+          if (isCore[q])
+            stack.add(q);
+        }
+      }
+      cluster++;
+    }
+    return labels;
+  }
+
+}
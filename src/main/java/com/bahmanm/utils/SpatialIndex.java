@@ -0,0 +1,391 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils;
+
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static java.lang.Math.*;
+
+/**
+ * An in-memory proximity index of points on the map (lat/lon).<br>
+ * The map is divided into a grid of cells of equal size in degrees and each
+ * point is bucketed into its cell.  Queries only visit the cells which may
+ * contain results and then filter the candidates exactly with
+ * {@link SpatialUtils#chordSquared(double, double, double, double)}.
+ * <br>
+ * Points are identified by the integer id returned upon insertion and their
+ * coordinates are kept in primitive arrays; no object is created per point.
+ * <br>
+ * NOTE: Instances are not thread-safe; queries may run concurrently only as
+ * long as the index is not modified.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+public class SpatialIndex {
+
+  /** height of each cell (in degrees) */
+  final private double cellDegrees;
+  /** width of each cell (in degrees); divides 360 exactly */
+  final private double lonCellDegrees;
+  /** number of cells along a meridian */
+  final private int latCells;
+  /** number of cells along the equator */
+  final private int lonCells;
+  /** cell key to ids of the points in the cell */
+  final private LongObjectHashMap<IntArrayList> cells =
+    new LongObjectHashMap<>();
+  /** latitude of each point, by id */
+  private double[] lats;
+  /** longitude of each point, by id */
+  private double[] lons;
+  /** ids of the removed points */
+  final private BitSet removed = new BitSet();
+  /** next id to assign */
+  private int nextId;
+  /** number of points in the index */
+  private int size;
+
+  /**
+   * Creates an empty index.
+   *
+   * @param cellDegrees size of each cell of the grid (in degrees); ideally
+   *    close to the typical query radius
+   */
+  public SpatialIndex(double cellDegrees) {
+    this(cellDegrees, 16);
+  }
+
+  /**
+   * Creates an empty index with a given capacity.
+   *
+   * @param cellDegrees size of each cell of the grid (in degrees)
+   * @param capacity expected number of points
+   */
+  public SpatialIndex(double cellDegrees, int capacity) {
+    assert(cellDegrees > 0 && cellDegrees <= 180 && capacity >= 0);
+    this.cellDegrees = cellDegrees;
+    latCells = (int) ceil(180 / cellDegrees);
+    lonCells = (int) ceil(360 / cellDegrees);
+    lonCellDegrees = 360.0 / lonCells;
+    lats = new double[max(capacity, 1)];
+    lons = new double[max(capacity, 1)];
+  }
+
+  /**
+   * Creates an index of the given points.  The id of each point is its index
+   * in the given arrays.
+   *
+   * @param lats latitudes of the points (in signed decimal degrees)
+   * @param lons longitudes of the points (in signed decimal degrees)
+   * @param cellDegrees size of each cell of the grid (in degrees)
+   * @return the index
+   */
+  static public SpatialIndex bulkLoad(
+    double[] lats, double[] lons, double cellDegrees
+  ) {
+    assert(lats != null && lons != null && lats.length == lons.length);
+    SpatialIndex result = new SpatialIndex(cellDegrees, lats.length);
+    for (int i=0; i<lats.length; i++)
+      result.insert(lats[i], lons[i]);
+    return result;
+  }
+
+  /**
+   * Number of points in the index.
+   *
+   * @return number of points
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Adds a point to the index.
+   *
+   * @param lat latitude of the point (in signed decimal degrees)
+   * @param lon longitude of the point (in signed decimal degrees)
+   * @return the id of the point
+   */
+  public int insert(double lat, double lon) {
+    assert(lat >= -90 && lat <= 90);
+    if (nextId == lats.length) {
+      lats = Arrays.copyOf(lats, lats.length * 2);
+      lons = Arrays.copyOf(lons, lons.length * 2);
+    }
+    int id = nextId++;
+    lats[id] = lat;
+    lons[id] = lon;
+    cells.getIfAbsentPut(cellKey(lat, lon), IntArrayList::new).add(id);
+    size++;
+    return id;
+  }
+
+  /**
+   * Removes a point from the index.
+   *
+   * @param id id of the point
+   * @return true if the point was removed, false if it was not in the index
+   */
+  public boolean remove(int id) {
+    if (id < 0 || id >= nextId || removed.get(id))
+      return false;
+    long key = cellKey(lats[id], lons[id]);
+    IntArrayList bucket = cells.get(key);
+    bucket.removeAtIndex(bucket.indexOf(id));
+    if (bucket.isEmpty())
+      cells.remove(key);
+    removed.set(id);
+    size--;
+    return true;
+  }
+
+  /**
+   * Latitude of a given point.
+   *
+   * @param id id of the point
+   * @return the latitude (in signed decimal degrees)
+   */
+  public double getLat(int id) {
+    assert(id >= 0 && id < nextId && !removed.get(id));
+    return lats[id];
+  }
+
+  /**
+   * Longitude of a given point.
+   *
+   * @param id id of the point
+   * @return the longitude (in signed decimal degrees)
+   */
+  public double getLon(int id) {
+    assert(id >= 0 && id < nextId && !removed.get(id));
+    return lons[id];
+  }
+
+  /**
+   * Finds all the points within a given radius of a given location.
+   *
+   * @param lat latitude of the location (in signed decimal degrees)
+   * @param lon longitude of the location (in signed decimal degrees)
+   * @param meters the radius in meters
+   * @return ids of the points, in no particular order
+   */
+  public MutableIntList withinRadius(double lat, double lon, double meters) {
+    assert(meters >= 0);
+    IntArrayList result = new IntArrayList();
+    double threshold = SpatialUtils.chordSquared(meters);
+    double radians = meters / SpatialUtils.earthRadius;
+    if (radians >= PI) {
+      cells.forEachValue(bucket -> bucket.forEach(result::add));
+      return result;
+    }
+    double radiusDegrees = toDegrees(radians);
+    double minLat = lat - radiusDegrees;
+    double maxLat = lat + radiusDegrees;
+    int fromLonCell;
+    int toLonCell;
+    double sinRadius = sin(radians);
+    double cosLat = cos(toRadians(lat));
+    if (minLat <= -90 || maxLat >= 90 || sinRadius >= cosLat) {
+      fromLonCell = 0;
+      toLonCell = lonCells - 1;
+    } else {
+      double halfWidth = toDegrees(asin(sinRadius / cosLat));
+      fromLonCell = lonCell(lon - halfWidth);
+      toLonCell = lonCell(lon + halfWidth);
+      if (toLonCell - fromLonCell >= lonCells - 1) {
+        fromLonCell = 0;
+        toLonCell = lonCells - 1;
+      }
+    }
+    int fromLatCell = latCell(max(minLat, -90));
+    int toLatCell = latCell(min(maxLat, 90));
+    long rangeSize =
+      (long) (toLatCell - fromLatCell + 1) * (toLonCell - fromLonCell + 1);
+    if (rangeSize > cells.size()) {
+      // sparser than the range: cheaper to visit the occupied cells only
+      cells.forEachValue(bucket -> filter(bucket, lat, lon, threshold, result));
+      return result;
+    }
+    for (int latCell=fromLatCell; latCell<=toLatCell; latCell++)
+      for (int lonCell=fromLonCell; lonCell<=toLonCell; lonCell++) {
+        IntArrayList bucket = cells.get(
+          (long) latCell * lonCells + floorMod(lonCell, lonCells)
+        );
+        if (bucket != null)
+          filter(bucket, lat, lon, threshold, result);
+      }
+    return result;
+  }
+
+  /**
+   * Adds the ids of a bucket which are within a given chord of a given
+   * location to a given list.
+   *
+   * @param bucket the bucket
+   * @param lat latitude of the location (in signed decimal degrees)
+   * @param lon longitude of the location (in signed decimal degrees)
+   * @param threshold the squared chord length on a unit sphere
+   * @param dest the list to add the ids to
+   */
+  private void filter(
+    IntArrayList bucket, double lat, double lon, double threshold,
+    IntArrayList dest
+  ) {
+    for (int i=0; i<bucket.size(); i++) {
+      int id = bucket.get(i);
+      if (SpatialUtils.chordSquared(lat, lon, lats[id], lons[id]) <= threshold)
+        dest.add(id);
+    }
+  }
+
+  /**
+   * Finds the k nearest points to a given location.<br>
+   * The search radius starts at the size of a cell and is doubled until at
+   * least k points are found.
+   *
+   * @param lat latitude of the location (in signed decimal degrees)
+   * @param lon longitude of the location (in signed decimal degrees)
+   * @param k number of points to find
+   * @return ids of at most k points, nearest first
+   */
+  public int[] nearest(double lat, double lon, int k) {
+    assert(k >= 0);
+    k = min(k, size);
+    if (k == 0)
+      return new int[0];
+    double maxMeters = PI * SpatialUtils.earthRadius;
+    double meters = toRadians(cellDegrees) * SpatialUtils.earthRadius;
+    MutableIntList candidates = withinRadius(lat, lon, meters);
+    while (candidates.size() < k && meters < maxMeters) {
+      meters = min(meters * 2, maxMeters);
+      candidates = withinRadius(lat, lon, meters);
+    }
+    double[] distances = new double[candidates.size()];
+    int[] ids = candidates.toArray();
+    for (int i=0; i<ids.length; i++)
+      distances[i] =
+        SpatialUtils.chordSquared(lat, lon, lats[ids[i]], lons[ids[i]]);
+    return smallest(ids, distances, k);
+  }
+
+  /**
+   * Selects the ids with the k smallest distances using a bounded max-heap.
+   *
+   * @param ids the candidate ids
+   * @param distances distance of each candidate
+   * @param k number of ids to select (&lt;= number of candidates)
+   * @return the selected ids, the one with the smallest distance first
+   */
+  static private int[] smallest(int[] ids, double[] distances, int k) {
+    int[] heapIds = new int[k];
+    double[] heapDistances = new double[k];
+    int heapSize = 0;
+    for (int i=0; i<ids.length; i++) {
+      if (heapSize < k) {
+        int pos = heapSize++;
+        while (pos > 0 && heapDistances[(pos - 1) / 2] < distances[i]) {
+          heapIds[pos] = heapIds[(pos - 1) / 2];
+          heapDistances[pos] = heapDistances[(pos - 1) / 2];
+          pos = (pos - 1) / 2;
+        }
+        heapIds[pos] = ids[i];
+        heapDistances[pos] = distances[i];
+      } else if (distances[i] < heapDistances[0]) {
+        siftDown(heapIds, heapDistances, k, ids[i], distances[i]);
+      }
+    }
+    int[] result = new int[k];
+    for (int n=k; n>0; n--) {
+      result[n - 1] = heapIds[0];
+      siftDown(
+        heapIds, heapDistances, n - 1, heapIds[n - 1], heapDistances[n - 1]
+      );
+    }
+    return result;
+  }
+
+  /**
+   * Replaces the root of a max-heap and restores the heap property.
+   *
+   * @param heapIds ids in the heap
+   * @param heapDistances distances in the heap
+   * @param heapSize size of the heap
+   * @param id the new id
+   * @param distance the new distance
+   */
+  static private void siftDown(
+    int[] heapIds, double[] heapDistances, int heapSize,
+    int id, double distance
+  ) {
+    int pos = 0;
+    while (true) {
+      int child = 2 * pos + 1;
+      if (child >= heapSize)
+        break;
+      if (
+        child + 1 < heapSize && heapDistances[child + 1] > heapDistances[child]
+      )
+        child++;
+      if (heapDistances[child] <= distance)
+        break;
+      heapIds[pos] = heapIds[child];
+      heapDistances[pos] = heapDistances[child];
+      pos = child;
+    }
+    if (heapSize > 0) {
+      heapIds[pos] = id;
+      heapDistances[pos] = distance;
+    }
+  }
+
+  /**
+   * Computes the key of the cell of a given location.
+   *
+   * @param lat latitude of the location (in signed decimal degrees)
+   * @param lon longitude of the location (in signed decimal degrees)
+   * @return the cell key
+   */
+  private long cellKey(double lat, double lon) {
+    return (long) latCell(lat) * lonCells + floorMod(lonCell(lon), lonCells);
+  }
+
+  /**
+   * Computes the column of the grid of a given longitude, without wrapping
+   * it around.
+   *
+   * @param lon the given longitude (in signed decimal degrees)
+   * @return the column
+   */
+  private int lonCell(double lon) {
+    return (int) floor((lon + 180) / lonCellDegrees);
+  }
+
+  /**
+   * Computes the row of the grid of a given latitude.
+   *
+   * @param lat the given latitude (in signed decimal degrees)
+   * @return the row
+   */
+  private int latCell(double lat) {
+    return min((int) floor((lat + 90) / cellDegrees), latCells - 1);
+  }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+/**
+ * An immutable point with a precomputed hash code, meant to be used as the
+ * key of hash based collections.<br>
+ * Unlike {@link Point}, it copies the given coordinates, so later changes to
+ * the array do not affect it.  It equals, and has the same hash code as, any
+ * {@link Point} with the same coordinates; comparing two HashedPoints fails
+ * fast when their hash codes differ.<br>
+ * {@link #canonical(double[])} also maps -0.0 to 0.0 (and any NaN to
+ * {@link Double#NaN}) so that points which are numerically equal are equal
+ * keys.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final public class HashedPoint extends Point {
+
+  /** the cached hash code */
+  final private int hash;
+
+  /**
+   * Creates a HashedPoint using a copy of the given coordinates.
+   *
+   * @param coords the given coordinates
+   */
+  public HashedPoint(double[] coords) {
+    this(coords.clone(), false);
+  }
+
+  /**
+   * Creates a HashedPoint using the given array, which is owned by the point
+   * from now on.
+   *
+   * @param coords the given coordinates
+   * @param isCanonical should the coordinates be canonicalised?
+   */
+  private HashedPoint(double[] coords, boolean isCanonical) {
+    super(isCanonical ? canonicalise(coords) : coords);
+    hash = super.hashCode();
+  }
+
+  /**
+   * Creates a HashedPoint with the coordinates of a given point.  Returns the
+   * point itself if it is already a HashedPoint.
+   *
+   * @param p the given point
+   * @return the point
+   */
+  static public HashedPoint of(Point p) {
+    assert(p != null);
+    if (p instanceof HashedPoint)
+      return (HashedPoint) p;
+    return new HashedPoint(coordsOf(p), false);
+  }
+
+  /**
+   * Creates a HashedPoint using a canonicalised copy of the given
+   * coordinates.
+   *
+   * @param coords the given coordinates
+   * @return the point
+   */
+  static public HashedPoint canonical(double[] coords) {
+    assert(coords != null);
+    return new HashedPoint(coords.clone(), true);
+  }
+
+  /**
+   * Creates a HashedPoint with the canonicalised coordinates of a given
+   * point.
+   *
+   * @param p the given point
+   * @return the point
+   */
+  static public HashedPoint canonical(Point p) {
+    assert(p != null);
+    return new HashedPoint(coordsOf(p), true);
+  }
+
+  /**
+   * Canonicalises a coordinate: -0.0 becomes 0.0 and NaN becomes
+   * {@link Double#NaN}.
+   *
+   * @param value the coordinate
+   * @return the canonical coordinate
+   */
+  static public double canonicalise(double value) {
+    return value != value ? Double.NaN : value + 0.0;
+  }
+
+  /**
+   * Canonicalises the given coordinates in place.
+   */
+  static private double[] canonicalise(double[] coords) {
+    for (int i=0; i<coords.length; i++)
+      coords[i] = canonicalise(coords[i]);
+    return coords;
+  }
+
+  /**
+   * Copies the coordinates of a given point into a new array.
+   */
+  static private double[] coordsOf(Point p) {
+    double[] result = new double[p.getDims()];
+    for (int i=0; i<result.length; i++)
+      result[i] = p.getCoord(i);
+    return result;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof HashedPoint && ((HashedPoint) obj).hash != hash)
+      return false;
+    return super.equals(obj);
+  }
+
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An immutable k-d tree over points of the same dimensions for k nearest
+ * neighbour, radius and axis-aligned box queries under a given
+ * {@link Metric}.<br>
+ * The tree is implicit: the points are stored in two flat arrays (packed
+ * coordinates and ids) in tree order, where the root of the range
+ * [from, to) is at (from + to) / 2 and splits the range on dimension
+ * (depth % dims).  So a tree takes about (dims * 8 + 4) bytes per point and
+ * no node objects.  It is built by recursive median partitioning
+ * (quickselect), optionally in parallel.<br>
+ * Points are identified by their index in the input.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final public class KdTree {
+
+  /** ranges smaller than this are not built in parallel */
+  final static private int parallelThreshold = 1 << 14;
+
+  /** packed coordinates of the points, in tree order */
+  final private double[] coords;
+  /** id of the points, in tree order */
+  final private int[] ids;
+  /** number of dimensions */
+  final private int dims;
+  /** number of points */
+  final private int size;
+  /** the distance function */
+  final private Metric metric;
+
+  private KdTree(double[] coords, int[] ids, int dims, Metric metric) {
+    this.coords = coords;
+    this.ids = ids;
+    this.dims = dims;
+    this.size = ids.length;
+    this.metric = metric;
+  }
+
+  /**
+   * Builds a tree of the given points with the Euclidean metric.
+   *
+   * @param points the given points
+   * @return the tree
+   */
+  static public KdTree build(PointSet points) {
+    return build(points, Metrics.EUCLIDEAN);
+  }
+
+  /**
+   * Builds a tree of the given points.
+   *
+   * @param points the given points
+   * @param metric the distance function (not {@link Metrics#COSINE})
+   * @return the tree
+   */
+  static public KdTree build(PointSet points, Metric metric) {
+    return build(points, metric, false);
+  }
+
+  /**
+   * Builds a tree of the given points.
+   *
+   * @param points the given points (not empty, all of the same dimensions)
+   * @param metric the distance function (not {@link Metrics#COSINE})
+   * @return the tree; ids are the positions in the iteration order of points
+   */
+  static public KdTree build(Collection<Point> points, Metric metric) {
+    return build(PointSet.of(points), metric, false);
+  }
+
+  /**
+   * Builds a tree of the given points, partitioning large ranges in parallel
+   * in the common fork-join pool.  The result is identical to that of
+   * {@link #build(PointSet, Metric)}.
+   *
+   * @param points the given points
+   * @param metric the distance function (not {@link Metrics#COSINE})
+   * @return the tree
+   */
+  static public KdTree buildParallel(PointSet points, Metric metric) {
+    return build(points, metric, true);
+  }
+
+  static private KdTree build(
+    PointSet points, Metric metric, boolean isParallel
+  ) {
+    assert(points != null && metric != null && metric != Metrics.COSINE);
+    int dims = points.getDims();
+    int size = points.size();
+    double[] src = new double[size * dims];
+    int[] perm = new int[size];
+    for (int i=0; i<size; i++) {
+      perm[i] = i;
+      for (int d=0; d<dims; d++)
+        src[i * dims + d] = points.getCoord(i, d);
+    }
+    BuildTask task = new BuildTask(src, dims, perm, 0, size, 0, isParallel);
+    if (isParallel)
+      ForkJoinPool.commonPool().invoke(task);
+    else
+      task.compute();
+    double[] coords = new double[size * dims];
+    for (int i=0; i<size; i++)
+      System.arraycopy(src, perm[i] * dims, coords, i * dims, dims);
+    return new KdTree(coords, perm, dims, metric);
+  }
+
+  /**
+   * @return number of points
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return number of dimensions
+   */
+  public int getDims() {
+    return dims;
+  }
+
+  /**
+   * @return the distance function
+   */
+  public Metric getMetric() {
+    return metric;
+  }
+
+  /**
+   * Finds the k points nearest to a given point.
+   *
+   * @param p the given point
+   * @param k number of points to find
+   * @return ids of at most k points, the nearest first
+   */
+  public int[] nearest(Point p, int k) {
+    assert(k >= 0);
+    double[] q = coordsOf(p);
+    Neighbours neighbours = new Neighbours(Math.min(k, size));
+    if (neighbours.capacity > 0)
+      nearest(q, 0, size, 0, neighbours);
+    return neighbours.toIds(ids);
+  }
+
+  private void nearest(
+    double[] q, int from, int to, int depth, Neighbours neighbours
+  ) {
+    if (from >= to)
+      return;
+    int mid = (from + to) >>> 1;
+    neighbours.offer(mid, metric.distance(q, 0, coords, mid * dims, dims));
+    int d = depth % dims;
+    double delta = q[d] - coords[mid * dims + d];
+    if (delta < 0) {
+      nearest(q, from, mid, depth + 1, neighbours);
+      if (neighbours.isCloser(-delta))
+        nearest(q, mid + 1, to, depth + 1, neighbours);
+    } else {
+      nearest(q, mid + 1, to, depth + 1, neighbours);
+      if (neighbours.isCloser(delta))
+        nearest(q, from, mid, depth + 1, neighbours);
+    }
+  }
+
+  /**
+   * Finds the points within a given distance of a given point.
+   *
+   * @param p the given point
+   * @param radius the given distance (inclusive)
+   * @return ids of the points, in no particular order
+   */
+  public MutableIntList withinRadius(Point p, double radius) {
+    double[] q = coordsOf(p);
+    MutableIntList result = new IntArrayList();
+    withinRadius(q, radius, 0, size, 0, result);
+    return result;
+  }
+
+  private void withinRadius(
+    double[] q, double radius, int from, int to, int depth,
+    MutableIntList result
+  ) {
+    if (from >= to)
+      return;
+    int mid = (from + to) >>> 1;
+    if (metric.distance(q, 0, coords, mid * dims, dims) <= radius)
+      result.add(ids[mid]);
+    int d = depth % dims;
+    double delta = q[d] - coords[mid * dims + d];
+    if (delta <= radius)
+      withinRadius(q, radius, from, mid, depth + 1, result);
+    if (-delta <= radius)
+      withinRadius(q, radius, mid + 1, to, depth + 1, result);
+  }
+
+  /**
+   * Finds the points inside an axis-aligned box.
+   *
+   * @param min the corner of the box with the smallest coordinates
+   * @param max the corner of the box with the largest coordinates
+   * @return ids of the points, in no particular order; the box is closed
+   */
+  public MutableIntList withinBox(Point min, Point max) {
+    double[] lo = coordsOf(min);
+    double[] hi = coordsOf(max);
+    MutableIntList result = new IntArrayList();
+    withinBox(lo, hi, 0, size, 0, result);
+    return result;
+  }
+
+  private void withinBox(
+    double[] lo, double[] hi, int from, int to, int depth,
+    MutableIntList result
+  ) {
+    if (from >= to)
+      return;
+    int mid = (from + to) >>> 1;
+    int offset = mid * dims;
+    boolean isInside = true;
+    for (int i=0; i<dims && isInside; i++)
+      isInside = lo[i] <= coords[offset + i] && coords[offset + i] <= hi[i];
+    if (isInside)
+      result.add(ids[mid]);
+    int d = depth % dims;
+    double split = coords[offset + d];
+    if (lo[d] <= split)
+      withinBox(lo, hi, from, mid, depth + 1, result);
+    if (hi[d] >= split)
+      withinBox(lo, hi, mid + 1, to, depth + 1, result);
+  }
+
+  /**
+   * Copies the coordinates of a given point into an array.
+   *
+   * @param p the given point (of the same dimensions as the tree)
+   * @return the coordinates
+   */
+  private double[] coordsOf(Point p) {
+    assert(p != null && p.getDims() == dims);
+    double[] result = new double[dims];
+    for (int i=0; i<dims; i++)
+      result[i] = p.getCoord(i);
+    return result;
+  }
+
+  /**
+   * Rearranges a range of the permutation so that the point at position k
+   * has the k-th smallest coordinate on a given dimension, the points before
+   * it have smaller or equal coordinates and the points after it have
+   * larger or equal coordinates (Hoare's quickselect).
+   *
+   * @param src packed coordinates of the points
+   * @param dims number of dimensions
+   * @param perm the permutation
+   * @param from start of the range (inclusive)
+   * @param to end of the range (exclusive)
+   * @param k the given position
+   * @param d the given dimension
+   */
+  static private void select(
+    double[] src, int dims, int[] perm, int from, int to, int k, int d
+  ) {
+    int lo = from;
+    int hi = to - 1;
+    while (hi > lo) {
+      double a = src[perm[lo] * dims + d];
+      double b = src[perm[(lo + hi) >>> 1] * dims + d];
+      double c = src[perm[hi] * dims + d];
+      double pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+      int i = lo;
+      int j = hi;
+      while (i <= j) {
+        while (src[perm[i] * dims + d] < pivot)
+          i++;
+        while (src[perm[j] * dims + d] > pivot)
+          j--;
+        if (i <= j) {
+          int t = perm[i];
+          perm[i++] = perm[j];
+          perm[j--] = t;
+        }
+      }
+      if (k <= j)
+        hi = j;
+      else if (k >= i)
+        lo = i;
+      else
+        break;
+    }
+  }
+
+  /**
+   * Builds the tree of a range of the permutation in place.
+   */
+  static private class BuildTask extends RecursiveAction {
+
+    final private double[] src;
+    final private int dims;
+    final private int[] perm;
+    final private int from;
+    final private int to;
+    final private int depth;
+    /** should the subtrees be built in parallel? */
+    final private boolean isParallel;
+
+    BuildTask(
+      double[] src, int dims, int[] perm, int from, int to, int depth,
+      boolean isParallel
+    ) {
+      this.src = src;
+      this.dims = dims;
+      this.perm = perm;
+      this.from = from;
+      this.to = to;
+      this.depth = depth;
+      this.isParallel = isParallel;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from < 2)
+        return;
+      int mid = (from + to) >>> 1;
+      select(src, dims, perm, from, to, mid, depth % dims);
+      BuildTask left =
+        new BuildTask(src, dims, perm, from, mid, depth + 1, isParallel);
+      BuildTask right =
+        new BuildTask(src, dims, perm, mid + 1, to, depth + 1, isParallel);
+      if (isParallel && to - from > parallelThreshold) {
+        invokeAll(left, right);
+      } else {
+        left.compute();
+        right.compute();
+      }
+    }
+
+  }
+
+}
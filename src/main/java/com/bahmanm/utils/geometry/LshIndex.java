@@ -0,0 +1,255 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import com.bahmanm.utils.RandomSampler;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
+
+/**
+ * An immutable locality-sensitive hashing index over points of the same
+ * (typically high) dimensions for approximate nearest neighbour queries,
+ * where k-d trees degrade to a linear scan.<br>
+ * Each point is hashed into a bucket of each of a number of tables; the key
+ * of a table concatenates a number of hash functions (the band), drawn at
+ * random:
+ * <ul>
+ * <li>Euclidean: floor((a . p + b) / w), a being a random Gaussian vector,
+ * b a random offset in [0, w) and w the bucket width</li>
+ * <li>cosine: the sign of a . p (sign random projection)</li>
+ * </ul>
+ * More hashes per table make the buckets more selective; more tables
+ * increase the chance that a near point shares a bucket with the query.
+ * The points sharing a bucket with the query are the candidates, which
+ * {@link #nearest(Point, int)} re-ranks exactly with the {@link Metric} of
+ * the index.<br>
+ * Points are identified by their index in the input.  Queries do not modify
+ * the index, so they may run concurrently.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final public class LshIndex {
+
+  /** packed coordinates of the points */
+  final private double[] coords;
+  /** number of dimensions */
+  final private int dims;
+  /** number of points */
+  final private int size;
+  /** number of tables */
+  final private int tables;
+  /** number of hash functions per table */
+  final private int hashesPerTable;
+  /** random vectors of the hash functions, table by table, packed */
+  final private double[] projections;
+  /** random offsets of the hash functions, or null for cosine */
+  final private double[] offsets;
+  /** bucket width of the Euclidean hash functions */
+  final private double bucketWidth;
+  /** key to ids of the points, per table */
+  final private LongObjectHashMap<IntArrayList>[] buckets;
+  /** the distance function used for re-ranking */
+  final private Metric metric;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private LshIndex(
+    PointSet points, int tables, int hashesPerTable, double bucketWidth,
+    boolean isCosine, RandomSampler random
+  ) {
+    assert(
+      points != null && tables > 0 && hashesPerTable > 0 && random != null
+    );
+    dims = points.getDims();
+    size = points.size();
+    this.tables = tables;
+    this.hashesPerTable = hashesPerTable;
+    this.bucketWidth = bucketWidth;
+    metric = isCosine ? Metrics.COSINE : Metrics.EUCLIDEAN;
+    coords = new double[size * dims];
+    for (int i=0; i<size; i++)
+      for (int d=0; d<dims; d++)
+        coords[i * dims + d] = points.getCoord(i, d);
+    int hashes = tables * hashesPerTable;
+    projections = new double[hashes * dims];
+    for (int i=0; i<projections.length; i++)
+      projections[i] = random.nextGaussian();
+    if (isCosine)
+      offsets = null;
+    else {
+      offsets = new double[hashes];
+      for (int i=0; i<hashes; i++)
+        offsets[i] = random.nextDouble() * bucketWidth;
+    }
+    buckets = new LongObjectHashMap[tables];
+    for (int t=0; t<tables; t++) {
+      LongObjectHashMap<IntArrayList> table = new LongObjectHashMap<>();
+      for (int i=0; i<size; i++)
+        table.getIfAbsentPut(key(t, coords, i * dims), IntArrayList::new)
+          .add(i);
+      buckets[t] = table;
+    }
+  }
+
+  /**
+   * Builds an index for the Euclidean distance.
+   *
+   * @param points the given points
+   * @param tables number of tables
+   * @param hashesPerTable number of hash functions per table
+   * @param bucketWidth width of the buckets of each hash function; about the
+   *    distance within which points should be found
+   * @param random source of the hash functions
+   * @return the index
+   */
+  static public LshIndex euclidean(
+    PointSet points, int tables, int hashesPerTable, double bucketWidth,
+    RandomSampler random
+  ) {
+    assert(bucketWidth > 0);
+    return new LshIndex(
+      points, tables, hashesPerTable, bucketWidth, false, random
+    );
+  }
+
+  /**
+   * Builds an index for the cosine distance (see {@link Metrics#COSINE}).
+   *
+   * @param points the given points
+   * @param tables number of tables
+   * @param hashesPerTable number of hash functions per table
+   * @param random source of the hash functions
+   * @return the index
+   */
+  static public LshIndex cosine(
+    PointSet points, int tables, int hashesPerTable, RandomSampler random
+  ) {
+    return new LshIndex(points, tables, hashesPerTable, 0, true, random);
+  }
+
+  /**
+   * @return number of points
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return number of dimensions
+   */
+  public int getDims() {
+    return dims;
+  }
+
+  /**
+   * @return number of tables
+   */
+  public int getTables() {
+    return tables;
+  }
+
+  /**
+   * @return number of hash functions per table
+   */
+  public int getHashesPerTable() {
+    return hashesPerTable;
+  }
+
+  /**
+   * @return the distance function used for re-ranking
+   */
+  public Metric getMetric() {
+    return metric;
+  }
+
+  /**
+   * Finds the points which share a bucket with a given point in any table.
+   *
+   * @param p the given point
+   * @return ids of the points, in no particular order
+   */
+  public MutableIntList candidates(Point p) {
+    double[] q = coordsOf(p);
+    IntHashSet seen = new IntHashSet();
+    IntArrayList result = new IntArrayList();
+    for (int t=0; t<tables; t++) {
+      IntArrayList bucket = buckets[t].get(key(t, q, 0));
+      if (bucket != null)
+        for (int i=0; i<bucket.size(); i++) {
+          int id = bucket.get(i);
+          if (seen.add(id))
+            result.add(id);
+        }
+    }
+    return result;
+  }
+
+  /**
+   * Finds approximately the k points nearest to a given point: the
+   * candidates are ranked by their exact distance to it.
+   *
+   * @param p the given point
+   * @param k number of points to find
+   * @return ids of at most k points, the nearest first
+   */
+  public int[] nearest(Point p, int k) {
+    assert(k >= 0);
+    double[] q = coordsOf(p);
+    MutableIntList candidates = candidates(p);
+    Neighbours neighbours =
+      new Neighbours(Math.min(k, candidates.size()));
+    for (int i=0; i<candidates.size(); i++) {
+      int id = candidates.get(i);
+      neighbours.offer(id, metric.distance(q, 0, coords, id * dims, dims));
+    }
+    return neighbours.toIds(null);
+  }
+
+  /**
+   * Computes the key of a point in a given table.
+   *
+   * @param table the table
+   * @param src coordinates of the point
+   * @param offset index of the first coordinate of the point
+   * @return the key
+   */
+  private long key(int table, double[] src, int offset) {
+    long result = table;
+    for (int j=0; j<hashesPerTable; j++) {
+      int h = table * hashesPerTable + j;
+      int pOffset = h * dims;
+      double dot = 0;
+      for (int d=0; d<dims; d++)
+        dot += projections[pOffset + d] * src[offset + d];
+      long value = offsets == null ?
+        (dot >= 0 ? 1 : 0) :
+        (long) Math.floor((dot + offsets[h]) / bucketWidth);
+      result = (result ^ value) * 0x9E3779B97F4A7C15L;
+      result ^= result >>> 32;
+    }
+    return result;
+  }
+
+  private double[] coordsOf(Point p) {
+    assert(p != null && p.getDims() == dims);
+    double[] result = new double[dims];
+    for (int d=0; d<dims; d++)
+      result[d] = p.getCoord(d);
+    return result;
+  }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import java.nio.MappedByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only points of a file mapped into memory by
+ * {@link PointFiles#open(java.nio.file.Path)}.<br>
+ * The points returned by {@link #get(long)} are flyweight views which read
+ * their coordinates directly from the mapped memory.  Files larger than 2 GB
+ * are mapped in several segments, each holding a whole number of points.
+ * The mapping is released when the store is garbage collected.<br>
+ * This class is thread-safe.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final public class MappedPointStore implements Iterable<Point> {
+
+  /** mapped segments of the coordinates */
+  final private MappedByteBuffer[] segments;
+  /** log2 of the number of points per segment */
+  final private int segmentShift;
+  /** number of points per segment - 1 */
+  final private long segmentMask;
+  /** number of dimensions */
+  final private int dims;
+  /** number of points */
+  final private long size;
+  /** expected CRC-32 of the coordinates */
+  final private long checksum;
+
+  MappedPointStore(
+    MappedByteBuffer[] segments, int pointsPerSegment, int dims, long size,
+    long checksum
+  ) {
+    assert(Integer.bitCount(pointsPerSegment) == 1);
+    this.segments = segments;
+    this.segmentShift = Integer.numberOfTrailingZeros(pointsPerSegment);
+    this.segmentMask = pointsPerSegment - 1;
+    this.dims = dims;
+    this.size = size;
+    this.checksum = checksum;
+  }
+
+  /**
+   * Number of points.
+   *
+   * @return number of points
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Get number of dimensions.
+   *
+   * @return number of dimensions
+   */
+  public int getDims() {
+    return dims;
+  }
+
+  /**
+   * Get coordinate value of a given point on a given dimension.
+   *
+   * @param i index of the point
+   * @param dim the given dimension (first dimension is 0)
+   * @return the coordinate value
+   */
+  public double getCoord(long i, int dim) {
+    assert(i >= 0 && i < size && dim >= 0 && dim < dims);
+    return segments[(int) (i >>> segmentShift)].getDouble(
+      (int) ((i & segmentMask) * dims + dim) * 8
+    );
+  }
+
+  /**
+   * Returns a view of the point at a given index.
+   *
+   * @param i the given index
+   * @return the point
+   */
+  public Point get(long i) {
+    assert(i >= 0 && i < size);
+    return new MappedPoint(i);
+  }
+
+  /**
+   * Copies the points into a {@link PointSet}.
+   *
+   * @return a new set of points
+   */
+  public PointSet toPointSet() {
+    assert(size <= Integer.MAX_VALUE / dims);
+    PointSet result = new PointSet((int) size, dims);
+    for (int i=0; i<size; i++)
+      for (int d=0; d<dims; d++)
+        result.setCoord(i, d, getCoord(i, d));
+    return result;
+  }
+
+  /**
+   * Computes the checksum of the mapped coordinates and compares it with the
+   * one in the header.  This reads the whole file.
+   *
+   * @return true if the checksums are equal, false otherwise
+   */
+  public boolean isValid() {
+    CRC32 crc = new CRC32();
+    for (MappedByteBuffer segment : segments)
+      crc.update(segment.duplicate());
+    return crc.getValue() == checksum;
+  }
+
+  /**
+   * @return an iterator over views of the points
+   * @see #get(long)
+   */
+  @Override
+  public Iterator<Point> iterator() {
+    return new Iterator<Point>() {
+      private long next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public Point next() {
+        if (!hasNext())
+          throw new NoSuchElementException();
+        return get(next++);
+      }
+    };
+  }
+
+  /**
+   * A point which reads its coordinates from the mapped memory.
+   */
+  final private class MappedPoint extends Point {
+
+    /** index of the point */
+    final private long index;
+
+    MappedPoint(long index) {
+      super(dims);
+      this.index = index;
+    }
+
+    @Override
+    public double getCoord(int dim) {
+      return MappedPointStore.this.getCoord(index, dim);
+    }
+
+  }
+
+}
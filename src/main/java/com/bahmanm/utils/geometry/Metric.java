@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+/**
+ * A distance function between points of the same dimensions.<br>
+ * To be usable by {@link KdTree}, the distance between two points must be at
+ * least the absolute difference of any single coordinate of them, which is
+ * the case for all the Lp norms of {@link Points#distance(Point, Point)}.
+ *
+ * @see Metrics
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+public interface Metric {
+
+  /**
+   * Computes the distance between two points given as ranges of arrays.
+   *
+   * @param a coordinates of the first point
+   * @param aOffset index of the first coordinate of the first point
+   * @param b coordinates of the second point
+   * @param bOffset index of the first coordinate of the second point
+   * @param dims number of dimensions
+   * @return the distance
+   */
+  double distance(double[] a, int aOffset, double[] b, int bOffset, int dims);
+
+  /**
+   * Computes the distance between two points.
+   *
+   * @param p the first point
+   * @param o the second point (of the same dimensions as p)
+   * @return the distance
+   */
+  default double distance(Point p, Point o) {
+    assert(p != null && o != null && p.getDims() == o.getDims());
+    int dims = p.getDims();
+    double[] a = new double[dims];
+    double[] b = new double[dims];
+    for (int i=0; i<dims; i++) {
+      a[i] = p.getCoord(i);
+      b[i] = o.getCoord(i);
+    }
+    return distance(a, 0, b, 0, dims);
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+/**
+ * The common metrics.  All but {@link #COSINE} are norms of the difference
+ * of two points as computed by {@link Points#distance(Point, Point)}, and
+ * run on the same kernels as {@link Points}.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+public enum Metrics implements Metric {
+
+  /** square root of the sum of the squared differences (L2) */
+  EUCLIDEAN {
+    @Override
+    public double distance(
+      double[] a, int aOffset, double[] b, int bOffset, int dims
+    ) {
+      return Math.sqrt(
+        PointKernels.kernels.sumSquaredDifferences(a, aOffset, b, bOffset, dims)
+      );
+    }
+  },
+
+  /** sum of the absolute differences (L1) */
+  MANHATTAN {
+    @Override
+    public double distance(
+      double[] a, int aOffset, double[] b, int bOffset, int dims
+    ) {
+      return PointKernels.kernels.sumAbsDifferences(
+        a, aOffset, b, bOffset, dims
+      );
+    }
+  },
+
+  /** largest absolute difference (L-infinity) */
+  CHEBYSHEV {
+    @Override
+    public double distance(
+      double[] a, int aOffset, double[] b, int bOffset, int dims
+    ) {
+      return PointKernels.kernels.maxAbsDifference(
+        a, aOffset, b, bOffset, dims
+      );
+    }
+  },
+
+  /**
+   * 1 - the cosine of the angle between two points (as vectors from the
+   * origin), in [0, 2]; 1 if either point is the origin.<br>
+   * NOTE: It is not usable by {@link KdTree}.
+   */
+  COSINE {
+    @Override
+    public double distance(
+      double[] a, int aOffset, double[] b, int bOffset, int dims
+    ) {
+      double dot = 0;
+      double aNorm = 0;
+      double bNorm = 0;
+      for (int i=0; i<dims; i++) {
+        double ac = a[aOffset + i];
+        double bc = b[bOffset + i];
+        dot += ac * bc;
+        aNorm += ac * ac;
+        bNorm += bc * bc;
+      }
+      if (aNorm == 0 || bNorm == 0)
+        return 1;
+      return 1 - dot / Math.sqrt(aNorm * bNorm);
+    }
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import java.util.Arrays;
+
+/**
+ * A point whose coordinates can be changed in place.<br>
+ * It is meant to be used as the destination of the operations of
+ * {@link Points} in hot loops, so that chained operations do not allocate.
+ * It equals only MutablePoints with the same coordinates, never an
+ * immutable {@link Point}; compare the latter with {@link #toPoint()}.
+ * <br>
+ * NOTE: Do not mutate an instance while it is used as a key in a hash based
+ * collection.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+public class MutablePoint extends Point {
+
+  /**
+   * Creates a MutablePoint with all coordinates set to 0.
+   *
+   * @param dims number of dimensions
+   */
+  public MutablePoint(int dims) {
+    this(new double[dims]);
+  }
+
+  /**
+   * Creates a MutablePoint using the given coordinates; the array is shared,
+   * not copied.
+   *
+   * @param coords the given coordinates
+   */
+  public MutablePoint(double[] coords) {
+    super(coords);
+  }
+
+  /**
+   * Creates a MutablePoint using a range of the given coordinates; the array
+   * is shared, not copied.
+   *
+   * @param coords the given coordinates
+   * @param offset index of the first coordinate of the point
+   * @param dims number of dimensions
+   */
+  MutablePoint(double[] coords, int offset, int dims) {
+    super(coords, offset, dims);
+  }
+
+  /**
+   * Set coordinate value of a given dimension.
+   *
+   * @param dim the given dimension (first dimension is 0)
+   * @param value the coordinate value
+   * @return this point
+   */
+  public MutablePoint setCoord(int dim, double value) {
+    coords[offset + dim] = value;
+    return this;
+  }
+
+  /**
+   * Copies the coordinates of a given point.
+   *
+   * @param p the given point (of the same dimensions)
+   * @return this point
+   */
+  public MutablePoint set(Point p) {
+    assert(p != null && p.getDims() == getDims());
+    for (int i=0; i<getDims(); i++)
+      coords[offset + i] = p.getCoord(i);
+    return this;
+  }
+
+  /**
+   * Creates a standalone immutable copy of this point.
+   *
+   * @return a new point
+   */
+  public Point toPoint() {
+    return new Point(
+      Arrays.copyOfRange(coords, offset, offset + getDims())
+    );
+  }
+
+}
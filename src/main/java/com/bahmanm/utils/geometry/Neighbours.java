@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+/**
+ * The k nearest points found so far by a search, in a bounded max-heap of
+ * positions by distance.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final class Neighbours {
+
+  /** the k */
+  final int capacity;
+  final private int[] positions;
+  final private double[] distances;
+  private int count;
+
+  Neighbours(int capacity) {
+    assert(capacity >= 0);
+    this.capacity = capacity;
+    positions = new int[capacity];
+    distances = new double[capacity];
+  }
+
+  /**
+   * Could a point at a given distance be one of the k nearest?
+   */
+  boolean isCloser(double distance) {
+    return count < capacity || (count > 0 && distance < distances[0]);
+  }
+
+  void offer(int position, double distance) {
+    if (count < capacity) {
+      int pos = count++;
+      while (pos > 0 && distances[(pos - 1) / 2] < distance) {
+        positions[pos] = positions[(pos - 1) / 2];
+        distances[pos] = distances[(pos - 1) / 2];
+        pos = (pos - 1) / 2;
+      }
+      positions[pos] = position;
+      distances[pos] = distance;
+    } else if (count > 0 && distance < distances[0]) {
+      siftDown(count, position, distance);
+    }
+  }
+
+  /**
+   * Replaces the root of the heap and restores the heap property.
+   */
+  private void siftDown(int heapSize, int position, double distance) {
+    int pos = 0;
+    while (true) {
+      int child = 2 * pos + 1;
+      if (child >= heapSize)
+        break;
+      if (child + 1 < heapSize && distances[child + 1] > distances[child])
+        child++;
+      if (distances[child] <= distance)
+        break;
+      positions[pos] = positions[child];
+      distances[pos] = distances[child];
+      pos = child;
+    }
+    if (heapSize > 0) {
+      positions[pos] = position;
+      distances[pos] = distance;
+    }
+  }
+
+  /**
+   * Empties the heap.
+   *
+   * @param ids id of each position, or null if the positions are the ids
+   * @return ids of the points, the nearest first
+   */
+  int[] toIds(int[] ids) {
+    int[] result = new int[count];
+    for (int n=count; n>0; n--) {
+      result[n - 1] = ids == null ? positions[0] : ids[positions[0]];
+      siftDown(n - 1, positions[n - 1], distances[n - 1]);
+    }
+    count = 0;
+    return result;
+  }
+
+}
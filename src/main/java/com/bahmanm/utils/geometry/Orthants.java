@@ -15,32 +15,36 @@
  */
 package com.bahmanm.utils.geometry;
 
-import com.bahmanm.utils.ListCombinations;
-import org.eclipse.collections.api.LazyIterable;
-import org.eclipse.collections.api.map.MutableMap;
-import org.eclipse.collections.api.tuple.Pair;
-import org.eclipse.collections.impl.list.mutable.FastList;
-import org.eclipse.collections.impl.map.mutable.SynchronizedMutableMap;
-import org.eclipse.collections.impl.map.mutable.UnifiedMap;
-import org.eclipse.collections.impl.tuple.Tuples;
-import org.eclipse.collections.impl.utility.LazyIterate;
-
-import java.util.List;
+import com.bahmanm.utils.Instrumentation.Counter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
 
 /**
- * Operations on orthans in an n-dimensional space.
+ * Operations on orthans in an n-dimensional space.<br>
+ * The orthants are numbered as follows: when all the 2^dims sign vectors are
+ * sorted lexicographically (-1 before 1), orthants 1 to 2^(dims-1) are the
+ * upper half of the list in reverse and the rest are the lower half in
+ * order.  Reading 1 as a set bit and -1 as a clear bit, with the first
+ * coordinate as the most significant bit, the sign vector of an orthant is
+ * thus computed in closed form.
  *
  * @author Bahman Movaqar <Bahman AT BahmanM.com>
  */
 final public class Orthants {
 
-  final static private MutableMap<Pair<Integer, Integer>, Point> orthantSignCache;
-  final static private MutableMap<Integer, Integer> orthantCountCache;
+  /** largest number of dimensions whose orthant signs are cached */
+  final static private int maxCachedDims = 12;
 
-  static {
-    orthantSignCache = SynchronizedMutableMap.of(UnifiedMap.newMap());
-    orthantCountCache = SynchronizedMutableMap.of(UnifiedMap.newMap());
-  }
+  /** inputs smaller than this are partitioned sequentially */
+  final static private int parallelThreshold = 1 << 15;
+
+  /** dims to (orthant - 1) to sign; each level is created lazily */
+  final static private AtomicReferenceArray<AtomicReferenceArray<Point>>
+    orthantSignCache = new AtomicReferenceArray<>(maxCachedDims + 1);
 
   /**
    * Returns the sign of coordinates in a given orthant.<br>
@@ -49,6 +53,7 @@ final public class Orthants {
    * <li>signs in orthant 1 = [1, 1]</li>
    * <li>signs in orthant 3 = [-1, -1]</li>
    * </ul>
+   * The results are cached without locking for up to 12 dimensions.
    *
    * @param dims number of dimensions of the metric space
    * @param orthant orthant number (starting from 1)
@@ -57,57 +62,345 @@ final public class Orthants {
   getOrthantSign(
     int dims, int orthant
   ) {
-    assert(dims > 0);
-    return orthantSignCache.getIfAbsentPut(
-      Tuples.pair(dims, orthant),
-      () -> {
-        List<Integer> signList = allOrthantSigns(dims)
-          .drop(orthant - 1)
-          .getFirst();
-        double[] sign = new double[dims];
-        for (int i=0; i<dims; i++)
-          sign[i] = signList.get(i);
-        return new Point(sign);
-      }
-    );
+    assert(dims > 0 && orthant > 0 && orthant <= getOrthantCount(dims));
+    if (dims > maxCachedDims) {
+      Counter.ORTHANT_SIGN_UNCACHED.increment();
+      return computeOrthantSign(dims, orthant);
+    }
+    AtomicReferenceArray<Point> signs = orthantSignCache.get(dims);
+    if (signs == null) {
+      orthantSignCache.compareAndSet(
+        dims, null, new AtomicReferenceArray<>(getOrthantCount(dims))
+      );
+      signs = orthantSignCache.get(dims);
+    }
+    Point sign = signs.get(orthant - 1);
+    if (sign == null) {
+      Counter.ORTHANT_SIGN_CACHE_MISS.increment();
+      sign = computeOrthantSign(dims, orthant);
+      if (!signs.compareAndSet(orthant - 1, null, sign))
+        sign = signs.get(orthant - 1);
+    } else
+      Counter.ORTHANT_SIGN_CACHE_HIT.increment();
+    return sign;
+  }
+
+  /**
+   * Computes the sign of coordinates in a given orthant.
+   *
+   * @param dims number of dimensions of the metric space
+   * @param orthant orthant number (starting from 1)
+   * @return a new point with coordinates set to either 1 or -1
+   */
+  static private Point
+  computeOrthantSign(
+    int dims, int orthant
+  ) {
+    int bits = getOrthantBits(dims, orthant);
+    double[] sign = new double[dims];
+    for (int i=0; i<dims; i++)
+      sign[i] = getSign(dims, bits, i);
+    return new Point(sign);
+  }
+
+  /**
+   * Returns the sign bits of a given orthant: bit (dims - 1 - i) is set iff
+   * coordinate i is positive.
+   *
+   * @param dims number of dimensions of the metric space
+   * @param orthant orthant number (starting from 1)
+   * @return the sign bits
+   */
+  static int
+  getOrthantBits(
+    int dims, int orthant
+  ) {
+    int count = getOrthantCount(dims);
+    int half = count >>> 1;
+    return orthant <= half ? count - orthant : orthant - 1 - half;
+  }
+
+  /**
+   * Returns the sign of a given coordinate from the sign bits of an orthant.
+   *
+   * @param dims number of dimensions of the metric space
+   * @param bits the sign bits
+   * @param dim the given dimension (first dimension is 0)
+   * @return either 1 or -1
+   */
+  static double
+  getSign(
+    int dims, int bits, int dim
+  ) {
+    return ((bits >>> (dims - 1 - dim)) & 1) != 0 ? 1.0 : -1.0;
   }
 
   /**
-   * Generates a list of all orthant (coordinate) signs as a list of lists where
-   * each list contains "dim" number of either 1 or -1 (representing the sign).
-   * The lists are ordered in a way that the first element is the signs for
-   * orthant 1, the second for orthant 2 and so on.
-   * <br>
-   * For example for a 2D space: [[1,1], [-1,1], [-1,-1], [-1,1]]
-   * <br>
+   * Returns all the orthants in Gray order: starting from orthant 1 (all
+   * signs positive), each orthant differs from the one before it in the
+   * sign of exactly one coordinate, given by {@link #getGrayFlip(int, int)}.
+   * So a quantity which depends on the signs can be updated, rather than
+   * recomputed, from one orthant to the next.<br>
+   * Example (2D space): 1 [1, 1], 2 [1, -1], 3 [-1, -1], 4 [-1, 1]
    *
-   * @param dims number of dimensions
-   * @return a list of lists each containing the sign of coordinates
+   * @param dims number of dimensions of the metric space
+   * @return the orthant numbers (starting from 1)
    */
-  static private LazyIterable<List<Integer>>
-  allOrthantSigns(
+  static public int[]
+  getGrayOrder(
     int dims
   ) {
-    FastList<List<Integer>> signs = FastList.newList(
-      new ListCombinations<>(
-        FastList.newWithNValues(
-          dims,
-          () -> FastList.newListWith(-1, 1)
-        )
-      )
-    ).sortThis(
-      (l1, l2) -> {
-        for (int i = 0; i < l1.size(); i++) {
-          int diff = l1.get(i) - l2.get(i);
-          if (diff != 0) return diff;
-        }
-        return 0;
-      }
+    int count = getOrthantCount(dims);
+    int[] result = new int[count];
+    for (int i=0; i<count; i++)
+      result[i] = getOrthantOfBits(dims, (count - 1) ^ i ^ (i >>> 1));
+    return result;
+  }
+
+  /**
+   * Returns the coordinate whose sign flips between two consecutive orthants
+   * of {@link #getGrayOrder(int)}.
+   *
+   * @param dims number of dimensions of the metric space
+   * @param step index of the latter orthant in the Gray order
+   *    (0 &lt; step &lt; orthant count)
+   * @return the dimension (first dimension is 0)
+   */
+  static public int
+  getGrayFlip(
+    int dims, int step
+  ) {
+    assert(step > 0 && step < getOrthantCount(dims));
+    return dims - 1 - Integer.numberOfTrailingZeros(step);
+  }
+
+  /**
+   * Returns the orthant which a given point falls in, relative to a given
+   * origin.  A coordinate equal to that of the origin counts as positive.
+   *
+   * @param p the given point
+   * @param origin the given origin (of the same dimensions as p)
+   * @return orthant number (starting from 1)
+   */
+  static public int
+  getOrthant(
+    Point p, Point origin
+  ) {
+    assert(p != null && origin != null && p.getDims() == origin.getDims());
+    int dims = p.getDims();
+    int bits = 0;
+    for (int i=0; i<dims; i++)
+      bits = (bits << 1) | (p.getCoord(i) >= origin.getCoord(i) ? 1 : 0);
+    return getOrthantOfBits(dims, bits);
+  }
+
+  /**
+   * Returns the orthant of given sign bits; the inverse of
+   * {@link #getOrthantBits(int, int)}.
+   *
+   * @param dims number of dimensions of the metric space
+   * @param bits the sign bits
+   * @return orthant number (starting from 1)
+   */
+  static int
+  getOrthantOfBits(
+    int dims, int bits
+  ) {
+    int count = getOrthantCount(dims);
+    int half = count >>> 1;
+    return bits >= half ? count - bits : bits + 1 + half;
+  }
+
+  /**
+   * Returns the orthant of each of the given points relative to a given
+   * origin.
+   *
+   * @param points the given points (of the same dimensions as origin)
+   * @param origin the given origin
+   * @return orthant numbers, in the iteration order of points
+   * @see #getOrthant(Point, Point)
+   */
+  static public int[]
+  classify(
+    Collection<Point> points, Point origin
+  ) {
+    assert(points != null);
+    int[] result = new int[points.size()];
+    int i = 0;
+    for (Point p : points)
+      result[i++] = getOrthant(p, origin);
+    return result;
+  }
+
+  /**
+   * Returns the orthant of each of the given points relative to a given
+   * origin.
+   *
+   * @param points the given points (of the same dimensions as origin)
+   * @param origin the given origin
+   * @return orthant numbers, by index of the points
+   * @see #getOrthant(Point, Point)
+   */
+  static public int[]
+  classify(
+    PointSet points, Point origin
+  ) {
+    double[] originCoords = coordsOf(points, origin);
+    int[] result = new int[points.size()];
+    classify(points, originCoords, result, 0, result.length);
+    return result;
+  }
+
+  /**
+   * Classifies a range of points into a given array.
+   *
+   * @param points the given points
+   * @param originCoords coordinates of the origin
+   * @param dest destination of the orthant numbers
+   * @param from start of the range (inclusive)
+   * @param to end of the range (exclusive)
+   */
+  static private void
+  classify(
+    PointSet points, double[] originCoords, int[] dest, int from, int to
+  ) {
+    int dims = originCoords.length;
+    for (int i=from; i<to; i++) {
+      int bits = 0;
+      for (int d=0; d<dims; d++)
+        bits = (bits << 1) | (points.getCoord(i, d) >= originCoords[d] ? 1 : 0);
+      dest[i] = getOrthantOfBits(dims, bits);
+    }
+  }
+
+  /**
+   * Groups the given points by the orthant they fall in relative to a given
+   * origin, using a counting sort.
+   *
+   * @param points the given points (of the same dimensions as origin)
+   * @param origin the given origin
+   * @return the groups, as indices in the iteration order of points
+   */
+  static public Partition
+  partition(
+    Collection<Point> points, Point origin
+  ) {
+    assert(origin != null);
+    return partition(classify(points, origin), origin.getDims());
+  }
+
+  /**
+   * Groups the given points by the orthant they fall in relative to a given
+   * origin, using a counting sort.
+   *
+   * @param points the given points (of the same dimensions as origin)
+   * @param origin the given origin
+   * @return the groups, as indices of the points
+   */
+  static public Partition
+  partition(
+    PointSet points, Point origin
+  ) {
+    return partition(classify(points, origin), points.getDims());
+  }
+
+  /**
+   * Counting sorts the indices of the given orthant numbers.
+   *
+   * @param orthants orthant number of each point
+   * @param dims number of dimensions of the metric space
+   * @return the groups
+   */
+  static private Partition
+  partition(
+    int[] orthants, int dims
+  ) {
+    int count = getOrthantCount(dims);
+    int[] offsets = new int[count + 1];
+    for (int orthant : orthants)
+      offsets[orthant]++;
+    for (int k=1; k<=count; k++)
+      offsets[k] += offsets[k - 1];
+    int[] cursors = new int[count];
+    System.arraycopy(offsets, 0, cursors, 0, count);
+    int[] indices = new int[orthants.length];
+    for (int i=0; i<orthants.length; i++)
+      indices[cursors[orthants[i] - 1]++] = i;
+    return new Partition(indices, offsets);
+  }
+
+  /**
+   * Same as {@link #partition(PointSet, Point)} except that the points are
+   * split into chunks which are classified, counted and scattered in parallel
+   * in the common fork-join pool.  The result is identical to that of the
+   * sequential version.
+   *
+   * @param points the given points (of the same dimensions as origin)
+   * @param origin the given origin
+   * @return the groups, as indices of the points
+   */
+  static public Partition
+  partitionParallel(
+    PointSet points, Point origin
+  ) {
+    double[] originCoords = coordsOf(points, origin);
+    int size = points.size();
+    int count = getOrthantCount(points.getDims());
+    int chunks = Math.min(
+      (size + parallelThreshold - 1) / parallelThreshold,
+      ForkJoinPool.getCommonPoolParallelism() * 4
     );
-    return LazyIterate.concatenate(
-      signs.asReversed().take(getOrthantCount(dims) / 2),
-      signs.take(getOrthantCount(dims) / 2)
+    if (chunks <= 1)
+      return partition(points, origin);
+    int chunkSize = (size + chunks - 1) / chunks;
+    int[] orthants = new int[size];
+    int[][] cursors = new int[chunks][count];
+    IntStream.range(0, chunks).parallel().forEach(c -> {
+      int from = c * chunkSize;
+      int to = Math.min(from + chunkSize, size);
+      classify(points, originCoords, orthants, from, to);
+      int[] histogram = cursors[c];
+      for (int i=from; i<to; i++)
+        histogram[orthants[i] - 1]++;
+    });
+    int[] offsets = new int[count + 1];
+    int start = 0;
+    for (int k=0; k<count; k++) {
+      for (int c=0; c<chunks; c++) {
+        int chunkCount = cursors[c][k];
+        cursors[c][k] = start;
+        start += chunkCount;
+      }
+      offsets[k + 1] = start;
+    }
+    int[] indices = new int[size];
+    IntStream.range(0, chunks).parallel().forEach(c -> {
+      int[] chunkCursors = cursors[c];
+      int to = Math.min((c + 1) * chunkSize, size);
+      for (int i=c*chunkSize; i<to; i++)
+        indices[chunkCursors[orthants[i] - 1]++] = i;
+    });
+    return new Partition(indices, offsets);
+  }
+
+  /**
+   * Copies the coordinates of a given origin into an array.
+   *
+   * @param points the points the origin is used with
+   * @param origin the given origin
+   * @return the coordinates
+   */
+  static private double[]
+  coordsOf(
+    PointSet points, Point origin
+  ) {
+    assert(
+      points != null && origin != null && origin.getDims() == points.getDims()
     );
+    double[] result = new double[origin.getDims()];
+    for (int d=0; d<result.length; d++)
+      result[d] = origin.getCoord(d);
+    return result;
   }
 
   /**
@@ -117,15 +410,84 @@ final public class Orthants {
    * @param dims number of dimensions of the metric space
    * @return the number of orthants
    */
-  static private int
+  static public int
   getOrthantCount(
     int dims
   ) {
-    assert(dims < 31);
-    return orthantCountCache.getIfAbsentPut(
-      dims,
-      () -> (int) Math.pow(2, dims)
-    );
+    assert(dims > 0 && dims < 31);
+    return 1 << dims;
+  }
+
+  /**
+   * Points grouped by orthant: the indices of the points in orthant k are
+   * stored in [getStart(k), getEnd(k)) of {@link #getIndices()}, in
+   * ascending order.
+   */
+  final static public class Partition {
+
+    /** indices of the points, grouped by orthant */
+    final private int[] indices;
+    /** offsets[k - 1] to offsets[k] is the range of orthant k */
+    final private int[] offsets;
+
+    Partition(int[] indices, int[] offsets) {
+      this.indices = indices;
+      this.offsets = offsets;
+    }
+
+    /**
+     * Returns the indices of all the points, grouped by orthant.  The array
+     * is shared, not copied.
+     *
+     * @return the indices
+     */
+    public int[] getIndices() {
+      return indices;
+    }
+
+    /**
+     * Returns the indices of the points in a given orthant.
+     *
+     * @param orthant orthant number (starting from 1)
+     * @return a new array of the indices, in ascending order
+     */
+    public int[] getIndices(int orthant) {
+      return Arrays.copyOfRange(indices, getStart(orthant), getEnd(orthant));
+    }
+
+    /**
+     * @param orthant orthant number (starting from 1)
+     * @return start of the range of the given orthant (inclusive)
+     */
+    public int getStart(int orthant) {
+      assert(orthant > 0 && orthant < offsets.length);
+      return offsets[orthant - 1];
+    }
+
+    /**
+     * @param orthant orthant number (starting from 1)
+     * @return end of the range of the given orthant (exclusive)
+     */
+    public int getEnd(int orthant) {
+      assert(orthant > 0 && orthant < offsets.length);
+      return offsets[orthant];
+    }
+
+    /**
+     * @param orthant orthant number (starting from 1)
+     * @return number of points in the given orthant
+     */
+    public int size(int orthant) {
+      return getEnd(orthant) - getStart(orthant);
+    }
+
+    /**
+     * @return number of orthants
+     */
+    public int getOrthantCount() {
+      return offsets.length - 1;
+    }
+
   }
 
 }
@@ -24,8 +24,14 @@ import java.util.Arrays;
  */
 public class Point {
 
-  /** coordinates on each dimension */
-  final private double[] coords;
+  /**
+   * coordinates on each dimension; null for points without storage of their
+   * own
+   */
+  final double[] coords;
+
+  /** index of the first coordinate in coords */
+  final int offset;
 
   /** number of dimensions */
   final private int dims;
@@ -36,9 +42,38 @@ public class Point {
    * @param coords the given coordinates
    */
   public Point(double[] coords) {
-    assert(coords != null && coords.length != 0);
+    this(coords, 0, coords == null ? 0 : coords.length);
+  }
+
+  /**
+   * Creates a Point using a range of the given coordinates; the array is
+   * shared, not copied.
+   *
+   * @param coords the given coordinates
+   * @param offset index of the first coordinate of the point
+   * @param dims number of dimensions
+   */
+  Point(double[] coords, int offset, int dims) {
+    assert(
+      coords != null && dims > 0 &&
+      offset >= 0 && offset + dims <= coords.length
+    );
     this.coords = coords;
-    dims = coords.length;
+    this.offset = offset;
+    this.dims = dims;
+  }
+
+  /**
+   * Creates a Point without storage of its own, for subclasses which
+   * override {@link #getCoord(int)}.
+   *
+   * @param dims number of dimensions
+   */
+  protected Point(int dims) {
+    assert(dims > 0);
+    this.coords = null;
+    this.offset = 0;
+    this.dims = dims;
   }
 
   /**
@@ -57,23 +92,39 @@ public class Point {
    * @return the coordinate value
    */
   public double getCoord(int dim) {
-    return coords[dim];
+    return coords[offset + dim];
   }
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(coords) + dims;
+    int result = 1;
+    for (int i=0; i<dims; i++) {
+      long bits = Double.doubleToLongBits(getCoord(i));
+      result = 31 * result + (int) (bits ^ (bits >>> 32));
+    }
+    return result + dims;
   }
 
   @Override
   public boolean equals(Object obj) {
     if (obj == this)
       return true;
-    else if (obj == null || obj.getClass() != Point.class)
+    else if (
+      !(obj instanceof Point) ||
+      (obj instanceof MutablePoint) != (this instanceof MutablePoint)
+    )
       return false;
     else {
       Point other = (Point) obj;
-      return dims == other.dims && Arrays.equals(coords, other.coords);
+      if (dims != other.dims)
+        return false;
+      for (int i=0; i<dims; i++)
+        if (
+          Double.doubleToLongBits(getCoord(i)) !=
+          Double.doubleToLongBits(other.getCoord(i))
+        )
+          return false;
+      return true;
     }
   }
 
@@ -84,7 +135,10 @@ public class Point {
 
   @Override
   public String toString() {
-    return "Point" + Arrays.toString(coords);
+    double[] values = new double[dims];
+    for (int i=0; i<dims; i++)
+      values[i] = getCoord(i);
+    return "Point" + Arrays.toString(values);
   }
 
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+
+/**
+ * Reading and writing points in a compact binary file format which can be
+ * memory-mapped.<br>
+ * The format is a 32 byte header followed by the coordinates of the points
+ * in row-major order, all little-endian:
+ * <pre>
+ * int    magic ("PNTS")
+ * int    version (1)
+ * int    number of dimensions
+ * int    reserved (0)
+ * long   number of points
+ * long   CRC-32 of the coordinates
+ * double coordinates...
+ * </pre>
+ * {@link #open(Path)} maps the file read-only and returns a
+ * {@link MappedPointStore} whose points are views over the mapped memory, so
+ * opening takes constant time regardless of the size of the file and
+ * processes mapping the same file share the page cache.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final public class PointFiles {
+
+  /** "PNTS" */
+  final static int magic = 0x504E5453;
+  final static int version = 1;
+  final static int headerBytes = 32;
+  /** largest size of a mapped segment */
+  final static int maxSegmentBytes = 1 << 30;
+  /** size of the write buffer */
+  final static private int bufferBytes = 1 << 20;
+
+  /**
+   * Writes the given points to a file, replacing it if it exists.
+   *
+   * @param path path of the file
+   * @param points the given points (not empty, all of the same dimensions)
+   * @throws IOException if the file can not be written
+   */
+  static public void write(Path path, Collection<Point> points)
+    throws IOException {
+    assert(points != null && !points.isEmpty());
+    write(path, points.iterator().next().getDims(), points.iterator());
+  }
+
+  /**
+   * Writes the given points to a file, replacing it if it exists.
+   *
+   * @param path path of the file
+   * @param points the given points
+   * @throws IOException if the file can not be written
+   */
+  static public void write(Path path, PointSet points) throws IOException {
+    assert(points != null);
+    write(path, points.getDims(), points.iterator());
+  }
+
+  /**
+   * Writes the points of an iterator to a file, replacing it if it exists.
+   * The points are streamed, so their number need not be known in advance.
+   *
+   * @param path path of the file
+   * @param dims number of dimensions of the points
+   * @param points the given points
+   * @throws IOException if the file can not be written
+   */
+  static public void write(
+    Path path, int dims, Iterator<? extends Point> points
+  ) throws IOException {
+    assert(path != null && dims > 0 && points != null);
+    try (
+      FileChannel channel = FileChannel.open(
+        path,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING
+      )
+    ) {
+      // room for at least one point
+      ByteBuffer buffer = ByteBuffer
+        .allocateDirect(Math.max(bufferBytes, dims * 8))
+        .order(ByteOrder.LITTLE_ENDIAN);
+      CRC32 crc = new CRC32();
+      long count = 0;
+      channel.position(headerBytes);
+      while (points.hasNext()) {
+        Point p = points.next();
+        assert(p.getDims() == dims);
+        if (buffer.remaining() < dims * 8)
+          flush(channel, buffer, crc);
+        for (int i=0; i<dims; i++)
+          buffer.putDouble(p.getCoord(i));
+        count++;
+      }
+      flush(channel, buffer, crc);
+      buffer.clear();
+      buffer
+        .putInt(magic)
+        .putInt(version)
+        .putInt(dims)
+        .putInt(0)
+        .putLong(count)
+        .putLong(crc.getValue());
+      buffer.flip();
+      channel.position(0);
+      while (buffer.hasRemaining())
+        channel.write(buffer);
+    }
+  }
+
+  /**
+   * Writes the contents of a buffer to a channel and updates a checksum.
+   */
+  static private void flush(FileChannel channel, ByteBuffer buffer, CRC32 crc)
+    throws IOException {
+    buffer.flip();
+    crc.update(buffer.duplicate());
+    while (buffer.hasRemaining())
+      channel.write(buffer);
+    buffer.clear();
+  }
+
+  /**
+   * Maps a file of points read-only.  The checksum is not verified; see
+   * {@link MappedPointStore#isValid()}.
+   *
+   * @param path path of the file
+   * @return the points
+   * @throws IOException if the file can not be read or is not a valid point
+   *    file
+   */
+  static public MappedPointStore open(Path path) throws IOException {
+    return open(path, maxSegmentBytes);
+  }
+
+  /**
+   * Maps a file of points read-only in segments of at most a given size.
+   *
+   * @param path path of the file
+   * @param segmentBytes the given size
+   * @return the points
+   * @throws IOException if the file can not be read or is not a valid point
+   *    file
+   */
+  static MappedPointStore open(Path path, int segmentBytes)
+    throws IOException {
+    assert(path != null);
+    try (
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)
+    ) {
+      ByteBuffer header = ByteBuffer.allocate(headerBytes)
+        .order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining())
+        if (channel.read(header) < 0)
+          throw new IOException(path + ": truncated header");
+      header.flip();
+      if (header.getInt() != magic)
+        throw new IOException(path + ": not a point file");
+      int fileVersion = header.getInt();
+      if (fileVersion != version)
+        throw new IOException(path + ": unsupported version " + fileVersion);
+      int dims = header.getInt();
+      header.getInt();
+      long count = header.getLong();
+      long checksum = header.getLong();
+      if (
+        dims <= 0 || count < 0 || (long) dims * 8 > segmentBytes ||
+        count > (Long.MAX_VALUE - headerBytes) / ((long) dims * 8)
+      )
+        throw new IOException(path + ": invalid header");
+      long dataBytes = count * dims * 8;
+      if (channel.size() < headerBytes + dataBytes)
+        throw new IOException(path + ": truncated data");
+      int pointsPerSegment = Integer.highestOneBit(segmentBytes / (dims * 8));
+      long segmentCount = (count + pointsPerSegment - 1) / pointsPerSegment;
+      if (segmentCount > Integer.MAX_VALUE)
+        throw new IOException(path + ": invalid header");
+      MappedByteBuffer[] segments = new MappedByteBuffer[(int) segmentCount];
+      long segmentSize = (long) pointsPerSegment * dims * 8;
+      for (int s=0; s<segments.length; s++) {
+        long position = s * segmentSize;
+        segments[s] = channel.map(
+          FileChannel.MapMode.READ_ONLY,
+          headerBytes + position,
+          Math.min(segmentSize, dataBytes - position)
+        );
+        segments[s].order(ByteOrder.LITTLE_ENDIAN);
+      }
+      return new MappedPointStore(
+        segments, pointsPerSegment, dims, count, checksum
+      );
+    }
+  }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+/**
+ * A hash set of points of the same dimensions whose coordinates are stored
+ * inline in one array; neither adding nor looking up a point creates any
+ * object.<br>
+ * Points are compared as by {@link Point#equals(Object)}; a canonical set
+ * compares them after mapping -0.0 to 0.0 (see
+ * {@link HashedPoint#canonicalise(double)}).
+ * <br>
+ * NOTE: Instances are not thread-safe.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+public class PointHashSet extends PointTable {
+
+  /**
+   * Creates an empty set.
+   *
+   * @param dims number of dimensions
+   */
+  public PointHashSet(int dims) {
+    this(dims, 16, false);
+  }
+
+  /**
+   * Creates an empty set.
+   *
+   * @param dims number of dimensions
+   * @param capacity expected number of points
+   * @param isCanonical should the coordinates be canonicalised?
+   */
+  public PointHashSet(int dims, int capacity, boolean isCanonical) {
+    super(dims, capacity, isCanonical);
+  }
+
+  /**
+   * Creates a set of the given points.
+   *
+   * @param points the given points
+   * @return a new set
+   */
+  static public PointHashSet of(PointSet points) {
+    assert(points != null);
+    PointHashSet result =
+      new PointHashSet(points.getDims(), points.size(), false);
+    for (Point p : points)
+      result.add(p);
+    return result;
+  }
+
+  /**
+   * Adds a given point.
+   *
+   * @param p the given point
+   * @return true if the point was not in the set, false otherwise
+   */
+  public boolean add(Point p) {
+    return addSlot(p) < 0;
+  }
+
+  /**
+   * Adds the point at a given range of an array.
+   *
+   * @param coords the given coordinates
+   * @param offset index of the first coordinate
+   * @return true if the point was not in the set, false otherwise
+   */
+  public boolean add(double[] coords, int offset) {
+    return addSlot(coords, offset) < 0;
+  }
+
+  /**
+   * Checks if the set contains a given point.
+   *
+   * @param p the given point
+   * @return true if found, false otherwise
+   */
+  public boolean contains(Point p) {
+    return findSlot(p) >= 0;
+  }
+
+  /**
+   * Checks if the set contains the point at a given range of an array.
+   *
+   * @param coords the given coordinates
+   * @param offset index of the first coordinate
+   * @return true if found, false otherwise
+   */
+  public boolean contains(double[] coords, int offset) {
+    return findSlot(coords, offset) >= 0;
+  }
+
+  /**
+   * Removes a given point.
+   *
+   * @param p the given point
+   * @return true if the point was in the set, false otherwise
+   */
+  public boolean remove(Point p) {
+    int slot = findSlot(p);
+    if (slot < 0)
+      return false;
+    removeSlot(slot);
+    return true;
+  }
+
+  /**
+   * Removes the point at a given range of an array.
+   *
+   * @param coords the given coordinates
+   * @param offset index of the first coordinate
+   * @return true if the point was in the set, false otherwise
+   */
+  public boolean remove(double[] coords, int offset) {
+    int slot = findSlot(coords, offset);
+    if (slot < 0)
+      return false;
+    removeSlot(slot);
+    return true;
+  }
+
+}
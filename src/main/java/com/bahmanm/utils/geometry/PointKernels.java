@@ -0,0 +1,234 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The per-coordinate loops behind {@link Points}, {@link PointSet} and the
+ * norms of {@link Metrics}, over ranges of coordinate arrays.<br>
+ * The implementation is chosen once, when this class is initialised: the
+ * Vector API (jdk.incubator.vector) kernels if they are on the classpath and
+ * the JVM can load them (JDK 16+ with
+ * {@code --add-modules jdk.incubator.vector}), the scalar ones otherwise.
+ * Set the system property {@value #property} to "scalar" to force the
+ * latter.<br>
+ * All the implementations give bitwise identical results, except for the
+ * sums of {@link #sumSquaredDifferences} and {@link #sumAbsDifferences}
+ * which may differ in the last bits as they are added in a different
+ * order.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+abstract class PointKernels {
+
+  /** name of the system property which selects the implementation */
+  final static String property = "com.bahmanm.utils.geometry.kernels";
+  /** class name of the Vector API implementation */
+  final static private String vectorClass =
+    "com.bahmanm.utils.geometry.VectorPointKernels";
+
+  final static private Logger logger =
+    LoggerFactory.getLogger(PointKernels.class);
+
+  /** the implementation in use */
+  final static PointKernels kernels =
+    load(System.getProperty(property, "vector"));
+
+  /**
+   * Loads an implementation by name, falling back to the scalar one.
+   *
+   * @param name "vector" or "scalar"
+   * @return the implementation
+   */
+  static PointKernels load(String name) {
+    if ("vector".equals(name))
+      try {
+        PointKernels result = (PointKernels) Class.forName(vectorClass)
+          .getDeclaredConstructor()
+          .newInstance();
+        logger.debug("Using {}", result);
+        return result;
+      } catch (ReflectiveOperationException | LinkageError e) {
+        logger.debug("Vector API kernels not available: {}", e.toString());
+      }
+    return new Scalar();
+  }
+
+  /** dest = a + b */
+  abstract void plus(
+    double[] a, int aOffset, double[] b, int bOffset,
+    double[] dest, int destOffset, int length
+  );
+
+  /** dest = a * b */
+  abstract void multiply(
+    double[] a, int aOffset, double[] b, int bOffset,
+    double[] dest, int destOffset, int length
+  );
+
+  /** dest = a - b, or |a - b| if isAbsValue */
+  abstract void subtract(
+    double[] a, int aOffset, double[] b, int bOffset,
+    double[] dest, int destOffset, int length, boolean isAbsValue
+  );
+
+  /** dest = -a */
+  abstract void negate(
+    double[] a, int aOffset, double[] dest, int destOffset, int length
+  );
+
+  /** dest = a &lt; b ? b : a */
+  abstract void trim(
+    double[] a, int aOffset, double[] b, int bOffset,
+    double[] dest, int destOffset, int length
+  );
+
+  /**
+   * Stops at the first coordinate which is not &lt;=.
+   *
+   * @see Points#isDominates(Point, Point)
+   */
+  abstract boolean isDominates(
+    double[] a, int aOffset, double[] b, int bOffset, int length
+  );
+
+  /** sum of (a - b)^2 */
+  abstract double sumSquaredDifferences(
+    double[] a, int aOffset, double[] b, int bOffset, int length
+  );
+
+  /** sum of |a - b| */
+  abstract double sumAbsDifferences(
+    double[] a, int aOffset, double[] b, int bOffset, int length
+  );
+
+  /** max of |a - b|, or 0 if length is 0 */
+  abstract double maxAbsDifference(
+    double[] a, int aOffset, double[] b, int bOffset, int length
+  );
+
+  /**
+   * Plain loops, which the JIT may unroll and vectorise on its own.
+   */
+  final static class Scalar extends PointKernels {
+
+    @Override
+    void plus(
+      double[] a, int aOffset, double[] b, int bOffset,
+      double[] dest, int destOffset, int length
+    ) {
+      for (int i=0; i<length; i++)
+        dest[destOffset + i] = a[aOffset + i] + b[bOffset + i];
+    }
+
+    @Override
+    void multiply(
+      double[] a, int aOffset, double[] b, int bOffset,
+      double[] dest, int destOffset, int length
+    ) {
+      for (int i=0; i<length; i++)
+        dest[destOffset + i] = a[aOffset + i] * b[bOffset + i];
+    }
+
+    @Override
+    void subtract(
+      double[] a, int aOffset, double[] b, int bOffset,
+      double[] dest, int destOffset, int length, boolean isAbsValue
+    ) {
+      if (isAbsValue)
+        for (int i=0; i<length; i++)
+          dest[destOffset + i] = Math.abs(a[aOffset + i] - b[bOffset + i]);
+      else
+        for (int i=0; i<length; i++)
+          dest[destOffset + i] = a[aOffset + i] - b[bOffset + i];
+    }
+
+    @Override
+    void negate(
+      double[] a, int aOffset, double[] dest, int destOffset, int length
+    ) {
+      for (int i=0; i<length; i++)
+        dest[destOffset + i] = -a[aOffset + i];
+    }
+
+    @Override
+    void trim(
+      double[] a, int aOffset, double[] b, int bOffset,
+      double[] dest, int destOffset, int length
+    ) {
+      for (int i=0; i<length; i++) {
+        double c = a[aOffset + i];
+        double o = b[bOffset + i];
+        dest[destOffset + i] = c < o ? o : c;
+      }
+    }
+
+    @Override
+    boolean isDominates(
+      double[] a, int aOffset, double[] b, int bOffset, int length
+    ) {
+      boolean oneLt = false;
+      for (int i=0; i<length; i++) {
+        double ac = a[aOffset + i];
+        double bc = b[bOffset + i];
+        if (!(ac <= bc)) return false;
+        if (ac < bc) oneLt = true;
+      }
+      return oneLt;
+    }
+
+    @Override
+    double sumSquaredDifferences(
+      double[] a, int aOffset, double[] b, int bOffset, int length
+    ) {
+      double sum = 0;
+      for (int i=0; i<length; i++) {
+        double d = a[aOffset + i] - b[bOffset + i];
+        sum += d * d;
+      }
+      return sum;
+    }
+
+    @Override
+    double sumAbsDifferences(
+      double[] a, int aOffset, double[] b, int bOffset, int length
+    ) {
+      double sum = 0;
+      for (int i=0; i<length; i++)
+        sum += Math.abs(a[aOffset + i] - b[bOffset + i]);
+      return sum;
+    }
+
+    @Override
+    double maxAbsDifference(
+      double[] a, int aOffset, double[] b, int bOffset, int length
+    ) {
+      double max = 0;
+      for (int i=0; i<length; i++)
+        max = Math.max(max, Math.abs(a[aOffset + i] - b[bOffset + i]));
+      return max;
+    }
+
+    @Override
+    public String toString() {
+      return "scalar kernels";
+    }
+
+  }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import java.util.function.BiConsumer;
+
+/**
+ * A hash map whose keys are points of the same dimensions.  The coordinates
+ * of the keys are stored inline in one array, so neither putting nor
+ * looking up a key creates any object.<br>
+ * Keys are compared as by {@link Point#equals(Object)}; a canonical map
+ * compares them after mapping -0.0 to 0.0 (see
+ * {@link HashedPoint#canonicalise(double)}).  Values may not be null.
+ * <br>
+ * NOTE: Instances are not thread-safe.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+public class PointMap<V> extends PointTable {
+
+  /** value of each slot; allocated by swapPayload */
+  private Object[] values;
+
+  /**
+   * Creates an empty map.
+   *
+   * @param dims number of dimensions
+   */
+  public PointMap(int dims) {
+    this(dims, 16, false);
+  }
+
+  /**
+   * Creates an empty map.
+   *
+   * @param dims number of dimensions
+   * @param capacity expected number of keys
+   * @param isCanonical should the coordinates be canonicalised?
+   */
+  public PointMap(int dims, int capacity, boolean isCanonical) {
+    super(dims, capacity, isCanonical);
+  }
+
+  /**
+   * Associates a value with a given key.
+   *
+   * @param key the given key
+   * @param value the value (not null)
+   * @return the previous value of the key, or null if there was none
+   */
+  public V put(Point key, V value) {
+    assert(value != null);
+    return put(addSlot(key), value);
+  }
+
+  /**
+   * Associates a value with the key at a given range of an array.
+   *
+   * @param coords the given coordinates
+   * @param offset index of the first coordinate
+   * @param value the value (not null)
+   * @return the previous value of the key, or null if there was none
+   */
+  public V put(double[] coords, int offset, V value) {
+    assert(value != null);
+    return put(addSlot(coords, offset), value);
+  }
+
+  /**
+   * Returns the value of a given key.
+   *
+   * @param key the given key
+   * @return the value, or null if the key is not found
+   */
+  public V get(Point key) {
+    return valueOf(findSlot(key));
+  }
+
+  /**
+   * Returns the value of the key at a given range of an array.
+   *
+   * @param coords the given coordinates
+   * @param offset index of the first coordinate
+   * @return the value, or null if the key is not found
+   */
+  public V get(double[] coords, int offset) {
+    return valueOf(findSlot(coords, offset));
+  }
+
+  /**
+   * Checks if the map contains a given key.
+   *
+   * @param key the given key
+   * @return true if found, false otherwise
+   */
+  public boolean containsKey(Point key) {
+    return findSlot(key) >= 0;
+  }
+
+  /**
+   * Checks if the map contains the key at a given range of an array.
+   *
+   * @param coords the given coordinates
+   * @param offset index of the first coordinate
+   * @return true if found, false otherwise
+   */
+  public boolean containsKey(double[] coords, int offset) {
+    return findSlot(coords, offset) >= 0;
+  }
+
+  /**
+   * Removes a given key.
+   *
+   * @param key the given key
+   * @return the value of the key, or null if the key was not found
+   */
+  public V remove(Point key) {
+    return remove(findSlot(key));
+  }
+
+  /**
+   * Removes the key at a given range of an array.
+   *
+   * @param coords the given coordinates
+   * @param offset index of the first coordinate
+   * @return the value of the key, or null if the key was not found
+   */
+  public V remove(double[] coords, int offset) {
+    return remove(findSlot(coords, offset));
+  }
+
+  /**
+   * Applies a given action to each key and its value, in no particular
+   * order.  The key is a view of the storage of the map which is only valid
+   * during the call; the map must not be modified meanwhile.
+   *
+   * @param action the given action
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(BiConsumer<? super Point, ? super V> action) {
+    assert(action != null);
+    for (int i=0; i<getSlotCount(); i++)
+      if (isUsed(i))
+        action.accept(new Point(coords, i * dims, dims), (V) values[i]);
+  }
+
+  @SuppressWarnings("unchecked")
+  private V put(int slot, V value) {
+    if (slot < 0) {
+      values[-(slot + 1)] = value;
+      return null;
+    }
+    V previous = (V) values[slot];
+    values[slot] = value;
+    return previous;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V valueOf(int slot) {
+    return slot < 0 ? null : (V) values[slot];
+  }
+
+  private V remove(int slot) {
+    if (slot < 0)
+      return null;
+    V result = valueOf(slot);
+    removeSlot(slot);
+    return result;
+  }
+
+  @Override
+  Object swapPayload(int slots) {
+    Object[] result = values;
+    values = new Object[slots];
+    return result;
+  }
+
+  @Override
+  void restorePayload(Object oldPayload, int from, int to) {
+    values[to] = ((Object[]) oldPayload)[from];
+  }
+
+  @Override
+  void moveSlot(int from, int to) {
+    values[to] = values[from];
+  }
+
+  @Override
+  void clearSlot(int slot) {
+    values[slot] = null;
+  }
+
+}
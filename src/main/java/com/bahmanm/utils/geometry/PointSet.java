@@ -0,0 +1,376 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import org.eclipse.collections.impl.list.mutable.FastList;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A fixed number of points of the same dimensions stored in one contiguous
+ * array in row-major order, ie point i occupies [i * dims, (i + 1) * dims).
+ * <br>
+ * {@link #get(int)} returns a flyweight {@link Point} which shares the
+ * storage of the set.  The bulk operations mirror those of {@link Points} and
+ * run over the whole set in tight loops, without creating an object per
+ * point, on the Vector API where available (JDK 16+ with
+ * {@code --add-modules jdk.incubator.vector}).  Each one has a variant which
+ * writes into a given destination set, which may be the set itself.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+public class PointSet implements Iterable<Point> {
+
+  final static private PointKernels kernels = PointKernels.kernels;
+
+  /** coordinates of all points */
+  final private double[] coords;
+
+  /** number of dimensions */
+  final private int dims;
+
+  /** number of points */
+  final private int size;
+
+  /**
+   * Creates a set of points with all coordinates set to 0.
+   *
+   * @param size number of points
+   * @param dims number of dimensions
+   */
+  public PointSet(int size, int dims) {
+    this(new double[size * dims], dims);
+  }
+
+  /**
+   * Creates a set of points using the given packed coordinates; the array is
+   * shared, not copied.
+   *
+   * @param coords the given coordinates in row-major order
+   * @param dims number of dimensions
+   */
+  public PointSet(double[] coords, int dims) {
+    assert(coords != null && dims > 0 && coords.length % dims == 0);
+    this.coords = coords;
+    this.dims = dims;
+    this.size = coords.length / dims;
+  }
+
+  /**
+   * Creates a set of points copying the coordinates of the given points.
+   *
+   * @param points the given points (not empty, all of the same dimensions)
+   * @return a new set of points
+   */
+  static public PointSet of(Collection<Point> points) {
+    assert(points != null && !points.isEmpty());
+    int dims = points.iterator().next().getDims();
+    PointSet result = new PointSet(points.size(), dims);
+    int i = 0;
+    for (Point p : points)
+      result.set(i++, p);
+    return result;
+  }
+
+  /**
+   * Number of points.
+   *
+   * @return number of points
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get number of dimensions.
+   *
+   * @return number of dimensions
+   */
+  public int getDims() {
+    return dims;
+  }
+
+  /**
+   * Get coordinate value of a given point on a given dimension.
+   *
+   * @param i index of the point
+   * @param dim the given dimension (first dimension is 0)
+   * @return the coordinate value
+   */
+  public double getCoord(int i, int dim) {
+    assert(dim >= 0 && dim < dims);
+    return coords[i * dims + dim];
+  }
+
+  /**
+   * Set coordinate value of a given point on a given dimension.
+   *
+   * @param i index of the point
+   * @param dim the given dimension (first dimension is 0)
+   * @param value the coordinate value
+   */
+  public void setCoord(int i, int dim, double value) {
+    assert(dim >= 0 && dim < dims);
+    coords[i * dims + dim] = value;
+  }
+
+  /**
+   * Copies the coordinates of a given point into a given index.
+   *
+   * @param i the given index
+   * @param p the given point
+   */
+  public void set(int i, Point p) {
+    assert(p != null && p.getDims() == dims);
+    int offset = i * dims;
+    for (int d=0; d<dims; d++)
+      coords[offset + d] = p.getCoord(d);
+  }
+
+  /**
+   * Returns a view of the point at a given index.  The view shares the
+   * storage of the set, so it reflects later changes to the set.
+   *
+   * @param i the given index
+   * @return the point
+   */
+  public Point get(int i) {
+    assert(i >= 0 && i < size);
+    return new Point(coords, i * dims, dims);
+  }
+
+  /**
+   * Copies the points into a list of standalone points.
+   *
+   * @return a new list of points
+   */
+  public List<Point> toList() {
+    FastList<Point> result = FastList.newList(size);
+    for (int i=0; i<size; i++) {
+      double[] pCoords = new double[dims];
+      System.arraycopy(coords, i * dims, pCoords, 0, dims);
+      result.add(new Point(pCoords));
+    }
+    return result;
+  }
+
+  /**
+   * @return an iterator over views of the points
+   * @see #get(int)
+   */
+  @Override
+  public Iterator<Point> iterator() {
+    return new Iterator<Point>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public Point next() {
+        if (!hasNext())
+          throw new NoSuchElementException();
+        return get(next++);
+      }
+    };
+  }
+
+  /**
+   * @see Points#plus(Point, Point)
+   */
+  public PointSet plus(Point o) {
+    return plus(o, new PointSet(size, dims));
+  }
+
+  /**
+   * @see Points#plus(Point, Point)
+   */
+  public PointSet plus(Point o, PointSet dest) {
+    double[] oCoords = coordsOf(o);
+    checkDest(dest);
+    double[] destCoords = dest.coords;
+    for (int i=0, offset=0; i<size; i++, offset+=dims)
+      kernels.plus(coords, offset, oCoords, 0, destCoords, offset, dims);
+    return dest;
+  }
+
+  /**
+   * @see Points#multiply(Point, Point)
+   */
+  public PointSet multiply(Point o) {
+    return multiply(o, new PointSet(size, dims));
+  }
+
+  /**
+   * @see Points#multiply(Point, Point)
+   */
+  public PointSet multiply(Point o, PointSet dest) {
+    double[] oCoords = coordsOf(o);
+    checkDest(dest);
+    double[] destCoords = dest.coords;
+    for (int i=0, offset=0; i<size; i++, offset+=dims)
+      kernels.multiply(coords, offset, oCoords, 0, destCoords, offset, dims);
+    return dest;
+  }
+
+  /**
+   * @see Points#negate(Point)
+   */
+  public PointSet negate() {
+    return negate(new PointSet(size, dims));
+  }
+
+  /**
+   * @see Points#negate(Point)
+   */
+  public PointSet negate(PointSet dest) {
+    checkDest(dest);
+    double[] destCoords = dest.coords;
+    kernels.negate(coords, 0, destCoords, 0, size * dims);
+    return dest;
+  }
+
+  /**
+   * @see Points#distance(Point, Point)
+   */
+  public PointSet distance(Point o) {
+    return distance(o, new PointSet(size, dims));
+  }
+
+  /**
+   * @see Points#distance(Point, Point)
+   */
+  public PointSet distance(Point o, PointSet dest) {
+    double[] oCoords = coordsOf(o);
+    checkDest(dest);
+    double[] destCoords = dest.coords;
+    for (int i=0, offset=0; i<size; i++, offset+=dims)
+      kernels.subtract(
+        coords, offset, oCoords, 0, destCoords, offset, dims, false
+      );
+    return dest;
+  }
+
+  /**
+   * @see Points#distanceAbs(Point, Point)
+   */
+  public PointSet distanceAbs(Point o) {
+    return distanceAbs(o, new PointSet(size, dims));
+  }
+
+  /**
+   * @see Points#distanceAbs(Point, Point)
+   */
+  public PointSet distanceAbs(Point o, PointSet dest) {
+    double[] oCoords = coordsOf(o);
+    checkDest(dest);
+    double[] destCoords = dest.coords;
+    for (int i=0, offset=0; i<size; i++, offset+=dims)
+      kernels.subtract(
+        coords, offset, oCoords, 0, destCoords, offset, dims, true
+      );
+    return dest;
+  }
+
+  /**
+   * @see Points#translate(Point, Point)
+   */
+  public PointSet translate(Point origin) {
+    return distance(origin);
+  }
+
+  /**
+   * @see Points#translate(Point, Point)
+   */
+  public PointSet translate(Point origin, PointSet dest) {
+    return distance(origin, dest);
+  }
+
+  /**
+   * @see Points#trimRelative(Point, Point)
+   */
+  public PointSet trimRelative(Point origin) {
+    return trimRelative(origin, new PointSet(size, dims));
+  }
+
+  /**
+   * @see Points#trimRelative(Point, Point)
+   */
+  public PointSet trimRelative(Point origin, PointSet dest) {
+    double[] oCoords = coordsOf(origin);
+    checkDest(dest);
+    double[] destCoords = dest.coords;
+    for (int i=0, offset=0; i<size; i++, offset+=dims)
+      kernels.trim(coords, offset, oCoords, 0, destCoords, offset, dims);
+    return dest;
+  }
+
+  /**
+   * @see Points#toOrthant(Point, Point, int)
+   */
+  public PointSet toOrthant(Point origin, int orthant) {
+    return toOrthant(origin, orthant, new PointSet(size, dims));
+  }
+
+  /**
+   * @see Points#toOrthant(Point, Point, int)
+   */
+  public PointSet toOrthant(Point origin, int orthant, PointSet dest) {
+    assert(orthant > 0);
+    double[] oCoords = coordsOf(origin);
+    int signBits = Orthants.getOrthantBits(dims, orthant);
+    double[] sign = new double[dims];
+    for (int d=0; d<dims; d++)
+      sign[d] = Orthants.getSign(dims, signBits, d);
+    checkDest(dest);
+    double[] destCoords = dest.coords;
+    for (int i=0, offset=0; i<size; i++, offset+=dims)
+      for (int d=0; d<dims; d++)
+        destCoords[offset + d] =
+          oCoords[d] + Math.abs(coords[offset + d] - oCoords[d]) * sign[d];
+    return dest;
+  }
+
+  /**
+   * Copies the coordinates of a given point into an array, so the inner loops
+   * do not go through the point.
+   *
+   * @param p the given point (of the same dimensions as the set)
+   * @return the coordinates
+   */
+  private double[] coordsOf(Point p) {
+    assert(p != null && p.getDims() == dims);
+    double[] result = new double[dims];
+    for (int d=0; d<dims; d++)
+      result[d] = p.getCoord(d);
+    return result;
+  }
+
+  /**
+   * Checks that a given destination has the same shape as this set.
+   *
+   * @param dest the given destination
+   */
+  private void checkDest(PointSet dest) {
+    assert(dest != null && dest.size == size && dest.dims == dims);
+  }
+
+}
@@ -0,0 +1,529 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * Per-dimension statistics (count, min, max, mean and variance) of points of
+ * the same dimensions, accumulated in a single pass without creating any
+ * object per point.  The means and variances are updated with Welford's
+ * method, which is numerically stable, and two accumulators are merged with
+ * Chan's formula, so the statistics can be computed by a parallel reduction
+ * (see {@link #collector(int)}).<br>
+ * The bounding box of the points is [{@link #getMin()}, {@link #getMax()}]
+ * and their centroid is {@link #getMean()}.  For the running Pareto front of
+ * the same points use a {@link Skyline}.<br>
+ * {@link Tumbling} and {@link Sliding} compute the statistics over windows
+ * of a fixed number of points.
+ * <br>
+ * NOTE: Instances are not thread-safe.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+public class PointStatistics implements Consumer<Point> {
+
+  /** number of dimensions */
+  final private int dims;
+  /** number of points */
+  private long count;
+  final private double[] min;
+  final private double[] max;
+  final private double[] mean;
+  /** sum of the squared differences from the mean */
+  final private double[] m2;
+
+  /**
+   * Creates an empty accumulator.
+   *
+   * @param dims number of dimensions
+   */
+  public PointStatistics(int dims) {
+    assert(dims > 0);
+    this.dims = dims;
+    min = new double[dims];
+    max = new double[dims];
+    mean = new double[dims];
+    m2 = new double[dims];
+    reset();
+  }
+
+  /**
+   * Computes the statistics of the given points.
+   *
+   * @param points the given points
+   * @return the statistics
+   */
+  static public PointStatistics of(PointSet points) {
+    assert(points != null);
+    PointStatistics result = new PointStatistics(points.getDims());
+    for (Point p : points)
+      result.accept(p);
+    return result;
+  }
+
+  /**
+   * A collector of the statistics of points, eg
+   * {@code points.parallelStream().collect(PointStatistics.collector(3))}.
+   *
+   * @param dims number of dimensions of the points
+   * @return the collector
+   */
+  static public Collector<Point, ?, PointStatistics> collector(int dims) {
+    return Collector.of(
+      () -> new PointStatistics(dims),
+      PointStatistics::accept,
+      PointStatistics::combine,
+      Collector.Characteristics.UNORDERED,
+      Collector.Characteristics.IDENTITY_FINISH
+    );
+  }
+
+  /**
+   * Adds a given point.
+   *
+   * @param p the given point
+   */
+  @Override
+  public void accept(Point p) {
+    assert(p != null && p.getDims() == dims);
+    long n = ++count;
+    for (int d=0; d<dims; d++)
+      add(d, p.getCoord(d), n);
+  }
+
+  /**
+   * Adds the point at a given range of an array.
+   *
+   * @param coords the given coordinates
+   * @param offset index of the first coordinate
+   */
+  public void accept(double[] coords, int offset) {
+    assert(coords != null && offset >= 0 && offset + dims <= coords.length);
+    long n = ++count;
+    for (int d=0; d<dims; d++)
+      add(d, coords[offset + d], n);
+  }
+
+  private void add(int d, double x, long n) {
+    if (x < min[d]) min[d] = x;
+    if (x > max[d]) max[d] = x;
+    double delta = x - mean[d];
+    mean[d] += delta / n;
+    m2[d] += delta * (x - mean[d]);
+  }
+
+  /**
+   * Removes the point at a given range of an array, which must have been
+   * added before, from the count, means and variances; min and max are not
+   * changed.
+   *
+   * @param coords the given coordinates
+   * @param offset index of the first coordinate
+   */
+  void remove(double[] coords, int offset) {
+    assert(count > 0);
+    long n = --count;
+    for (int d=0; d<dims; d++) {
+      if (n == 0) {
+        mean[d] = 0;
+        m2[d] = 0;
+        continue;
+      }
+      double x = coords[offset + d];
+      double delta = x - mean[d];
+      mean[d] -= delta / n;
+      m2[d] = Math.max(m2[d] - delta * (x - mean[d]), 0);
+    }
+  }
+
+  /**
+   * Merges the statistics of another accumulator into this one.
+   *
+   * @param other the other accumulator (of the same dimensions)
+   * @return this accumulator
+   */
+  public PointStatistics combine(PointStatistics other) {
+    assert(other != null && other.dims == dims);
+    if (other.count == 0)
+      return this;
+    long n = count + other.count;
+    double ratio = (double) other.count / n;
+    for (int d=0; d<dims; d++) {
+      min[d] = Math.min(min[d], other.min[d]);
+      max[d] = Math.max(max[d], other.max[d]);
+      double delta = other.mean[d] - mean[d];
+      mean[d] += delta * ratio;
+      m2[d] += other.m2[d] + delta * delta * count * ratio;
+    }
+    count = n;
+    return this;
+  }
+
+  /**
+   * Removes all the points.
+   */
+  public void reset() {
+    count = 0;
+    Arrays.fill(min, Double.POSITIVE_INFINITY);
+    Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    Arrays.fill(mean, 0);
+    Arrays.fill(m2, 0);
+  }
+
+  /**
+   * Creates an independent copy of this accumulator.
+   *
+   * @return the copy
+   */
+  public PointStatistics copy() {
+    return new PointStatistics(dims).combine(this);
+  }
+
+  /**
+   * @return number of dimensions
+   */
+  public int getDims() {
+    return dims;
+  }
+
+  /**
+   * @return number of points
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @param dim the given dimension
+   * @return the smallest coordinate on the dimension (+infinity if empty)
+   */
+  public double getMin(int dim) {
+    return min[dim];
+  }
+
+  /**
+   * @param dim the given dimension
+   * @return the largest coordinate on the dimension (-infinity if empty)
+   */
+  public double getMax(int dim) {
+    return max[dim];
+  }
+
+  /**
+   * @param dim the given dimension
+   * @return mean of the coordinates on the dimension (0 if empty)
+   */
+  public double getMean(int dim) {
+    return mean[dim];
+  }
+
+  /**
+   * @param dim the given dimension
+   * @return population variance of the coordinates on the dimension (0 if
+   *    empty)
+   */
+  public double getVariance(int dim) {
+    return count == 0 ? 0 : m2[dim] / count;
+  }
+
+  /**
+   * @param dim the given dimension
+   * @return sample variance of the coordinates on the dimension (0 if less
+   *    than 2 points)
+   */
+  public double getSampleVariance(int dim) {
+    return count < 2 ? 0 : m2[dim] / (count - 1);
+  }
+
+  /**
+   * @return the lower corner of the bounding box
+   */
+  public Point getMin() {
+    return new Point(min.clone());
+  }
+
+  /**
+   * @return the upper corner of the bounding box
+   */
+  public Point getMax() {
+    return new Point(max.clone());
+  }
+
+  /**
+   * @return the centroid
+   */
+  public Point getMean() {
+    return new Point(mean.clone());
+  }
+
+  /**
+   * @return population variances
+   */
+  public Point getVariance() {
+    double[] result = new double[dims];
+    for (int d=0; d<dims; d++)
+      result[d] = getVariance(d);
+    return new Point(result);
+  }
+
+  /**
+   * Sets the min and max of a given dimension.
+   */
+  void setRange(int dim, double min, double max) {
+    this.min[dim] = min;
+    this.max[dim] = max;
+  }
+
+  @Override
+  public String toString() {
+    double[] variance = new double[dims];
+    for (int d=0; d<dims; d++)
+      variance[d] = getVariance(d);
+    return "PointStatistics[count=" + count +
+      ", min=" + Arrays.toString(min) +
+      ", max=" + Arrays.toString(max) +
+      ", mean=" + Arrays.toString(mean) +
+      ", variance=" + Arrays.toString(variance) + "]";
+  }
+
+  /**
+   * Statistics over consecutive, non-overlapping windows of a fixed number
+   * of points: when a window is full, its statistics are handed to a given
+   * sink and a new window starts.  Only the current window is kept.
+   */
+  final static public class Tumbling implements Consumer<Point> {
+
+    final private int dims;
+    final private int size;
+    final private Consumer<? super PointStatistics> sink;
+    private PointStatistics current;
+
+    /**
+     * @param dims number of dimensions
+     * @param size number of points of each window
+     * @param sink receiver of the statistics of each window
+     */
+    public Tumbling(
+      int dims, int size, Consumer<? super PointStatistics> sink
+    ) {
+      assert(size > 0 && sink != null);
+      this.dims = dims;
+      this.size = size;
+      this.sink = sink;
+      current = new PointStatistics(dims);
+    }
+
+    @Override
+    public void accept(Point p) {
+      current.accept(p);
+      if (current.count == size)
+        flush();
+    }
+
+    /**
+     * Adds the point at a given range of an array.
+     *
+     * @param coords the given coordinates
+     * @param offset index of the first coordinate
+     */
+    public void accept(double[] coords, int offset) {
+      current.accept(coords, offset);
+      if (current.count == size)
+        flush();
+    }
+
+    /**
+     * Hands the statistics of the current window, if not empty, to the sink
+     * even if the window is not full, and starts a new window.
+     */
+    public void flush() {
+      if (current.count == 0)
+        return;
+      PointStatistics full = current;
+      current = new PointStatistics(dims);
+      sink.accept(full);
+    }
+
+  }
+
+  /**
+   * Statistics over the last given number of points.<br>
+   * The points of the window are kept in a ring buffer.  The means and
+   * variances are updated by adding the new point and removing the evicted
+   * one (and recomputed from the buffer once per window length, so rounding
+   * errors do not build up); min and max are kept in monotonic queues.
+   * Thus each point costs O(dims) amortised and the memory is
+   * O(size * dims).
+   */
+  final static public class Sliding implements Consumer<Point> {
+
+    final private int dims;
+    final private int size;
+    /** coordinates of the points of the window, in a ring */
+    final private double[] buffer;
+    /** slot of the next point in the ring */
+    private int next;
+    /** number of evictions since the last recomputation */
+    private int evictions;
+    final private PointStatistics stats;
+    final private Extremum[] mins;
+    final private Extremum[] maxes;
+
+    /**
+     * @param dims number of dimensions
+     * @param size number of points of the window
+     */
+    public Sliding(int dims, int size) {
+      assert(size > 0);
+      this.dims = dims;
+      this.size = size;
+      buffer = new double[size * dims];
+      stats = new PointStatistics(dims);
+      mins = new Extremum[dims];
+      maxes = new Extremum[dims];
+      for (int d=0; d<dims; d++) {
+        mins[d] = new Extremum(size, d, true);
+        maxes[d] = new Extremum(size, d, false);
+      }
+    }
+
+    @Override
+    public void accept(Point p) {
+      assert(p != null && p.getDims() == dims);
+      int slot = evict();
+      for (int d=0; d<dims; d++)
+        buffer[slot * dims + d] = p.getCoord(d);
+      add(slot);
+    }
+
+    /**
+     * Adds the point at a given range of an array.
+     *
+     * @param coords the given coordinates
+     * @param offset index of the first coordinate
+     */
+    public void accept(double[] coords, int offset) {
+      int slot = evict();
+      System.arraycopy(coords, offset, buffer, slot * dims, dims);
+      add(slot);
+    }
+
+    /**
+     * @return number of points in the window
+     */
+    public long getCount() {
+      return stats.count;
+    }
+
+    /**
+     * Computes the statistics of the points in the window.
+     *
+     * @return a new accumulator holding the statistics
+     */
+    public PointStatistics snapshot() {
+      PointStatistics result = stats.copy();
+      if (stats.count > 0)
+        for (int d=0; d<dims; d++)
+          result.setRange(d, mins[d].front(), maxes[d].front());
+      return result;
+    }
+
+    /**
+     * Evicts the oldest point if the window is full.
+     *
+     * @return the slot of the new point
+     */
+    private int evict() {
+      int slot = next;
+      if (stats.count == size) {
+        for (int d=0; d<dims; d++) {
+          mins[d].evict(slot);
+          maxes[d].evict(slot);
+        }
+        stats.remove(buffer, slot * dims);
+        evictions++;
+      }
+      return slot;
+    }
+
+    private void add(int slot) {
+      for (int d=0; d<dims; d++) {
+        mins[d].push(slot);
+        maxes[d].push(slot);
+      }
+      next = (slot + 1) % size;
+      if (evictions >= size) {
+        evictions = 0;
+        stats.reset();
+        for (int i=0; i<size; i++)
+          stats.accept(buffer, i * dims);
+      } else
+        stats.accept(buffer, slot * dims);
+    }
+
+    /**
+     * The slots of the window which may still become the min (or max) of a
+     * dimension, oldest first; their values are increasing (or decreasing),
+     * so the front is the current extremum.
+     */
+    final private class Extremum {
+
+      final private int[] slots;
+      final private int dim;
+      final private boolean isMin;
+      private int head;
+      private int length;
+
+      Extremum(int capacity, int dim, boolean isMin) {
+        slots = new int[capacity];
+        this.dim = dim;
+        this.isMin = isMin;
+      }
+
+      private double valueOf(int slot) {
+        return buffer[slot * dims + dim];
+      }
+
+      void push(int slot) {
+        double value = valueOf(slot);
+        while (length > 0) {
+          double back = valueOf(slots[(head + length - 1) % slots.length]);
+          if (isMin ? back < value : back > value)
+            break;
+          length--;
+        }
+        slots[(head + length++) % slots.length] = slot;
+      }
+
+      void evict(int slot) {
+        if (length > 0 && slots[head] == slot) {
+          head = (head + 1) % slots.length;
+          length--;
+        }
+      }
+
+      double front() {
+        return valueOf(slots[head]);
+      }
+
+    }
+
+  }
+
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table of points of the same dimensions whose
+ * coordinates are stored inline in one array, slot i occupying
+ * [i * dims, (i + 1) * dims).  It uses linear probing and backward shift
+ * deletion, so there are no tombstones.<br>
+ * Keys are compared as by {@link Point#equals(Object)}, and optionally
+ * canonicalised first (see {@link HashedPoint#canonicalise(double)}).
+ * Lookups take either a {@link Point} or a range of an array, and never
+ * create objects.<br>
+ * Subclasses which keep a payload per slot (eg a value) override the
+ * methods which allocate, move and clear it.  They are called from the
+ * constructor too, so their fields must not have initialisers.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+abstract class PointTable {
+
+  /** largest ratio of the used slots to all the slots */
+  final static private double maxLoad = 0.6;
+
+  /** number of dimensions */
+  final int dims;
+
+  /** are the coordinates canonicalised? */
+  final private boolean isCanonical;
+
+  /** coordinates of the keys */
+  double[] coords;
+
+  /** hash code of the key in each slot */
+  private int[] hashes;
+
+  /** is each slot used? */
+  private boolean[] isUsed;
+
+  /** number of slots - 1 */
+  private int mask;
+
+  /** number of keys */
+  private int size;
+
+  /** number of keys after which the table grows */
+  private int threshold;
+
+  /**
+   * @param dims number of dimensions
+   * @param capacity expected number of keys
+   * @param isCanonical should the coordinates be canonicalised?
+   */
+  PointTable(int dims, int capacity, boolean isCanonical) {
+    assert(dims > 0 && capacity >= 0);
+    this.dims = dims;
+    this.isCanonical = isCanonical;
+    int slots = Integer.highestOneBit(
+      Math.max((int) Math.ceil(capacity / maxLoad), 2) * 2 - 1
+    );
+    allocate(slots);
+  }
+
+  /**
+   * Number of keys.
+   *
+   * @return number of keys
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks if there are no keys.
+   *
+   * @return true if there are no keys, false otherwise
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Get number of dimensions.
+   *
+   * @return number of dimensions
+   */
+  public int getDims() {
+    return dims;
+  }
+
+  /**
+   * Removes all the keys.
+   */
+  public void clear() {
+    for (int i=0; i<isUsed.length; i++)
+      if (isUsed[i])
+        clearSlot(i);
+    Arrays.fill(isUsed, false);
+    size = 0;
+  }
+
+  /**
+   * Copies the keys into a set of points, in no particular order.
+   *
+   * @return a new set of points
+   */
+  public PointSet toPointSet() {
+    double[] result = new double[size * dims];
+    int offset = 0;
+    for (int i=0; i<isUsed.length; i++)
+      if (isUsed[i]) {
+        System.arraycopy(coords, i * dims, result, offset, dims);
+        offset += dims;
+      }
+    return new PointSet(result, dims);
+  }
+
+  /**
+   * Finds the slot of a given point.
+   *
+   * @param p the given point
+   * @return the slot, or -1 if not found
+   */
+  final int findSlot(Point p) {
+    assert(p != null && p.getDims() == dims);
+    int hash = hash(p);
+    for (int i=slotOf(hash); isUsed[i]; i=(i + 1) & mask)
+      if (hashes[i] == hash && isEqual(i, p))
+        return i;
+    return -1;
+  }
+
+  /**
+   * Finds the slot of a given range of coordinates.
+   *
+   * @param src the given coordinates
+   * @param offset index of the first coordinate
+   * @return the slot, or -1 if not found
+   */
+  final int findSlot(double[] src, int offset) {
+    checkRange(src, offset);
+    int hash = hash(src, offset);
+    for (int i=slotOf(hash); isUsed[i]; i=(i + 1) & mask)
+      if (hashes[i] == hash && isEqual(i, src, offset))
+        return i;
+    return -1;
+  }
+
+  /**
+   * Finds the slot of a given point, adding it if not found.
+   *
+   * @param p the given point
+   * @return the slot if found, or -(slot + 1) if added
+   */
+  final int addSlot(Point p) {
+    assert(p != null && p.getDims() == dims);
+    int hash = hash(p);
+    int i = slotOf(hash);
+    for (; isUsed[i]; i=(i + 1) & mask)
+      if (hashes[i] == hash && isEqual(i, p))
+        return i;
+    if (size >= threshold) {
+      grow();
+      for (i=slotOf(hash); isUsed[i]; i=(i + 1) & mask);
+    }
+    int offset = i * dims;
+    for (int d=0; d<dims; d++)
+      coords[offset + d] = canonical(p.getCoord(d));
+    return use(i, hash);
+  }
+
+  /**
+   * Finds the slot of a given range of coordinates, adding it if not found.
+   *
+   * @param src the given coordinates
+   * @param offset index of the first coordinate
+   * @return the slot if found, or -(slot + 1) if added
+   */
+  final int addSlot(double[] src, int offset) {
+    checkRange(src, offset);
+    int hash = hash(src, offset);
+    int i = slotOf(hash);
+    for (; isUsed[i]; i=(i + 1) & mask)
+      if (hashes[i] == hash && isEqual(i, src, offset))
+        return i;
+    if (size >= threshold) {
+      grow();
+      for (i=slotOf(hash); isUsed[i]; i=(i + 1) & mask);
+    }
+    int slotOffset = i * dims;
+    for (int d=0; d<dims; d++)
+      coords[slotOffset + d] = canonical(src[offset + d]);
+    return use(i, hash);
+  }
+
+  /**
+   * Removes the key in a given slot, shifting back the keys after it which
+   * would otherwise become unreachable.
+   *
+   * @param slot the given slot (used)
+   */
+  final void removeSlot(int slot) {
+    int i = slot;
+    for (int j=(i + 1) & mask; isUsed[j]; j=(j + 1) & mask) {
+      int home = slotOf(hashes[j]);
+      // keys whose home slot lies cyclically in (i, j] stay where they are
+      if (i <= j ? (i < home && home <= j) : (i < home || home <= j))
+        continue;
+      System.arraycopy(coords, j * dims, coords, i * dims, dims);
+      hashes[i] = hashes[j];
+      moveSlot(j, i);
+      i = j;
+    }
+    isUsed[i] = false;
+    clearSlot(i);
+    size--;
+  }
+
+  /**
+   * Checks if a given slot is used.
+   *
+   * @param slot the given slot
+   * @return true if used, false otherwise
+   */
+  final boolean isUsed(int slot) {
+    return isUsed[slot];
+  }
+
+  /**
+   * Number of slots.
+   *
+   * @return number of slots
+   */
+  final int getSlotCount() {
+    return isUsed.length;
+  }
+
+  /**
+   * Allocates the payload of a given number of slots.
+   *
+   * @param slots the number of slots
+   * @return the previous payload, or null if there is none
+   */
+  Object swapPayload(int slots) {
+    return null;
+  }
+
+  /**
+   * Copies the payload of a slot of the previous payload to a slot of the
+   * current one, when the table grows.
+   *
+   * @param oldPayload the previous payload
+   * @param from the old slot
+   * @param to the new slot
+   */
+  void restorePayload(Object oldPayload, int from, int to) {
+  }
+
+  /**
+   * Moves the payload of a slot to another slot.
+   *
+   * @param from the slot the key is moved from
+   * @param to the slot the key is moved to
+   */
+  void moveSlot(int from, int to) {
+  }
+
+  /**
+   * Clears the payload of a slot which becomes unused.
+   *
+   * @param slot the slot
+   */
+  void clearSlot(int slot) {
+  }
+
+  /**
+   * Marks a slot as used by a new key.
+   *
+   * @return -(slot + 1)
+   */
+  private int use(int slot, int hash) {
+    hashes[slot] = hash;
+    isUsed[slot] = true;
+    size++;
+    return -(slot + 1);
+  }
+
+  /**
+   * Doubles the number of slots and reinserts the keys.
+   */
+  private void grow() {
+    double[] oldCoords = coords;
+    int[] oldHashes = hashes;
+    boolean[] oldIsUsed = isUsed;
+    Object oldPayload = allocate(oldIsUsed.length * 2);
+    for (int j=0; j<oldIsUsed.length; j++)
+      if (oldIsUsed[j]) {
+        int i = slotOf(oldHashes[j]);
+        for (; isUsed[i]; i=(i + 1) & mask);
+        System.arraycopy(oldCoords, j * dims, coords, i * dims, dims);
+        hashes[i] = oldHashes[j];
+        isUsed[i] = true;
+        restorePayload(oldPayload, j, i);
+      }
+  }
+
+  /**
+   * Allocates the given number of empty slots.
+   *
+   * @return the previous payload
+   */
+  private Object allocate(int slots) {
+    coords = new double[slots * dims];
+    hashes = new int[slots];
+    isUsed = new boolean[slots];
+    mask = slots - 1;
+    threshold = (int) (slots * maxLoad);
+    return swapPayload(slots);
+  }
+
+  /**
+   * The home slot of a given hash code.
+   */
+  private int slotOf(int hash) {
+    int h = hash * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  /**
+   * Same as {@link Point#hashCode()} of the (canonical) coordinates.
+   */
+  private int hash(Point p) {
+    int result = 1;
+    for (int d=0; d<dims; d++)
+      result = 31 * result + hash(canonical(p.getCoord(d)));
+    return result + dims;
+  }
+
+  /**
+   * Same as {@link Point#hashCode()} of the (canonical) coordinates.
+   */
+  private int hash(double[] src, int offset) {
+    int result = 1;
+    for (int d=0; d<dims; d++)
+      result = 31 * result + hash(canonical(src[offset + d]));
+    return result + dims;
+  }
+
+  static private int hash(double value) {
+    long bits = Double.doubleToLongBits(value);
+    return (int) (bits ^ (bits >>> 32));
+  }
+
+  private boolean isEqual(int slot, Point p) {
+    int offset = slot * dims;
+    for (int d=0; d<dims; d++)
+      if (
+        Double.doubleToLongBits(coords[offset + d]) !=
+        Double.doubleToLongBits(canonical(p.getCoord(d)))
+      )
+        return false;
+    return true;
+  }
+
+  private boolean isEqual(int slot, double[] src, int offset) {
+    int slotOffset = slot * dims;
+    for (int d=0; d<dims; d++)
+      if (
+        Double.doubleToLongBits(coords[slotOffset + d]) !=
+        Double.doubleToLongBits(canonical(src[offset + d]))
+      )
+        return false;
+    return true;
+  }
+
+  private double canonical(double value) {
+    return isCanonical ? HashedPoint.canonicalise(value) : value;
+  }
+
+  private void checkRange(double[] src, int offset) {
+    assert(src != null && offset >= 0 && offset + dims <= src.length);
+  }
+
+}
@@ -15,6 +15,7 @@
  */
 package com.bahmanm.utils.geometry;
 
+import com.bahmanm.utils.Instrumentation.Counter;
 import org.eclipse.collections.api.map.MutableMap;
 import org.eclipse.collections.impl.map.mutable.SynchronizedMutableMap;
 import org.eclipse.collections.impl.map.mutable.UnifiedMap;
@@ -22,13 +23,17 @@ import org.eclipse.collections.impl.map.mutable.UnifiedMap;
 import java.util.Arrays;
 
 /**
- * Collection of methods and operations on points.
+ * Collection of methods and operations on points.<br>
+ * Each operation which creates a new point has a variant which writes into a
+ * given {@link MutablePoint} instead, so chains of operations can run without
+ * allocating.  The destination may be one of the operands.
  *
  * @author Bahman Movaqar <Bahman AT BahmanM.com>
  */
 final public class Points {
 
   final static private MutableMap<Integer, Point> pointZeroCache;
+  final static private PointKernels kernels = PointKernels.kernels;
 
   static {
     pointZeroCache = SynchronizedMutableMap.of(UnifiedMap.newMap());
@@ -50,13 +55,18 @@ final public class Points {
    */
   static public boolean isDominates(Point p, Point o) {
     assert(o != null && p.getDims() == o.getDims());
-    boolean allLte = true;
+    if (isPacked(p, o))
+      return kernels.isDominates(
+        p.coords, p.offset, o.coords, o.offset, p.getDims()
+      );
     boolean oneLt = false;
     for (int i=0; i<p.getDims(); i++) {
-      allLte = allLte && (p.getCoord(i) <= o.getCoord(i));
-      oneLt = oneLt || (p.getCoord(i) < o.getCoord(i));
+      double pc = p.getCoord(i);
+      double oc = o.getCoord(i);
+      if (!(pc <= oc)) return false;
+      if (pc < oc) oneLt = true;
     }
-    return allLte && oneLt;
+    return oneLt;
   }
 
   /**
@@ -75,18 +85,48 @@ final public class Points {
    *      according to the given origin
    */
   static public Point toOrthant(Point p, Point origin, int orthant) {
+    assert(p != null);
+    return new Point(toOrthant(p, origin, orthant, new double[p.getDims()], 0));
+  }
+
+  /**
+   * Same as {@link #toOrthant(Point, Point, int)} computed in a single pass
+   * (origin + |p - origin| * sign) into a given destination.
+   *
+   * @param p the given point
+   * @param origin the given origin
+   * @param orthant orthant number
+   * @param dest the destination
+   * @return dest
+   */
+  static public MutablePoint toOrthant(
+    Point p, Point origin, int orthant, MutablePoint dest
+  ) {
+    assert(dest != null && p != null && dest.getDims() == p.getDims());
+    toOrthant(p, origin, orthant, dest.coords, dest.offset);
+    return dest;
+  }
+
+  /**
+   * Writes the coordinates of {@link #toOrthant(Point, Point, int)} into a
+   * given array.
+   */
+  static private double[] toOrthant(
+    Point p, Point origin, int orthant, double[] dest, int destOffset
+  ) {
     assert(
       p != null && origin != null &&
       p.getDims() == origin.getDims() &&
       orthant > 0
     );
-    return Points.plus(
-      origin,
-      Points.multiply(
-        distanceAbs(p, origin),
-        Orthants.getOrthantSign(p.getDims(), orthant)
-      )
-    );
+    int dims = p.getDims();
+    int signBits = Orthants.getOrthantBits(dims, orthant);
+    for (int i=0; i<dims; i++) {
+      double o = origin.getCoord(i);
+      dest[destOffset + i] =
+        o + Math.abs(p.getCoord(i) - o) * Orthants.getSign(dims, signBits, i);
+    }
+    return dest;
   }
 
   /**
@@ -96,6 +136,15 @@ final public class Points {
     return toOrthant(p, origin, 1);
   }
 
+  /**
+   * @see Points#toOrthant(Point, Point, int, MutablePoint)
+   */
+  static public MutablePoint toFirstOrthant(
+    Point p, Point origin, MutablePoint dest
+  ) {
+    return toOrthant(p, origin, 1, dest);
+  }
+
   /**
    * Calculate the distance between two points by subtracting dimensions.
    *
@@ -127,6 +176,22 @@ final public class Points {
     return distance(p, o, true);
   }
 
+  /**
+   * @see Points#distance(Point, Point)
+   */
+  static public MutablePoint distance(Point p, Point o, MutablePoint dest) {
+    return distance(p, o, false, dest);
+  }
+
+  /**
+   * @see Points#distanceAbs(Point, Point)
+   */
+  static public MutablePoint distanceAbs(
+    Point p, Point o, MutablePoint dest
+  ) {
+    return distance(p, o, true, dest);
+  }
+
   /**
    * Calculate the distance between two points by subtracting dimensions.
    *
@@ -137,13 +202,40 @@ final public class Points {
    *    dimensions.
    */
   static private Point distance(Point p, Point o, boolean isAbsValue) {
+    assert(p != null);
+    return new Point(distance(p, o, isAbsValue, new double[p.getDims()], 0));
+  }
+
+  /**
+   * @see Points#distance(Point, Point, boolean)
+   */
+  static private MutablePoint distance(
+    Point p, Point o, boolean isAbsValue, MutablePoint dest
+  ) {
+    assert(dest != null && p != null && dest.getDims() == p.getDims());
+    distance(p, o, isAbsValue, dest.coords, dest.offset);
+    return dest;
+  }
+
+  /**
+   * Writes the coordinates of {@link #distance(Point, Point, boolean)} into a
+   * given array.
+   */
+  static private double[] distance(
+    Point p, Point o, boolean isAbsValue, double[] dest, int destOffset
+  ) {
     assert(o != null && p.getDims() == o.getDims());
-    double[] newCoords = new double[p.getDims()];
-    for (int i=0; i<p.getDims(); i++) {
-      double result = p.getCoord(i) - o.getCoord(i);
-      newCoords[i] = isAbsValue ? Math.abs(result) : result;
-    }
-    return new Point(newCoords);
+    if (isPacked(p, o))
+      kernels.subtract(
+        p.coords, p.offset, o.coords, o.offset,
+        dest, destOffset, p.getDims(), isAbsValue
+      );
+    else
+      for (int i=0; i<p.getDims(); i++) {
+        double result = p.getCoord(i) - o.getCoord(i);
+        dest[destOffset + i] = isAbsValue ? Math.abs(result) : result;
+      }
+    return dest;
   }
 
   /**
@@ -175,11 +267,35 @@ final public class Points {
    *    the given points
    */
   static public Point multiply(Point p, Point o) {
+    assert(p != null);
+    return new Point(multiply(p, o, new double[p.getDims()], 0));
+  }
+
+  /**
+   * @see Points#multiply(Point, Point)
+   */
+  static public MutablePoint multiply(Point p, Point o, MutablePoint dest) {
+    assert(dest != null && p != null && dest.getDims() == p.getDims());
+    multiply(p, o, dest.coords, dest.offset);
+    return dest;
+  }
+
+  /**
+   * Writes the coordinates of {@link #multiply(Point, Point)} into a given
+   * array.
+   */
+  static private double[] multiply(
+    Point p, Point o, double[] dest, int destOffset
+  ) {
     assert(p != null && o != null && p.getDims() == o.getDims());
-    double[] coords = new double[p.getDims()];
-    for (int i=0; i<p.getDims(); i++)
-      coords[i] = p.getCoord(i) * o.getCoord(i);
-    return new Point(coords);
+    if (isPacked(p, o))
+      kernels.multiply(
+        p.coords, p.offset, o.coords, o.offset, dest, destOffset, p.getDims()
+      );
+    else
+      for (int i=0; i<p.getDims(); i++)
+        dest[destOffset + i] = p.getCoord(i) * o.getCoord(i);
+    return dest;
   }
 
   /**
@@ -191,11 +307,34 @@ final public class Points {
    *    the given points
    */
   static public Point plus(Point p, Point o) {
+    assert(p != null);
+    return new Point(plus(p, o, new double[p.getDims()], 0));
+  }
+
+  /**
+   * @see Points#plus(Point, Point)
+   */
+  static public MutablePoint plus(Point p, Point o, MutablePoint dest) {
+    assert(dest != null && p != null && dest.getDims() == p.getDims());
+    plus(p, o, dest.coords, dest.offset);
+    return dest;
+  }
+
+  /**
+   * Writes the coordinates of {@link #plus(Point, Point)} into a given array.
+   */
+  static private double[] plus(
+    Point p, Point o, double[] dest, int destOffset
+  ) {
     assert(p != null && o != null && p.getDims() == o.getDims());
-    double[] coords = new double[p.getDims()];
-    for (int i=0; i<p.getDims(); i++)
-      coords[i] = p.getCoord(i) + o.getCoord(i);
-    return new Point(coords);
+    if (isPacked(p, o))
+      kernels.plus(
+        p.coords, p.offset, o.coords, o.offset, dest, destOffset, p.getDims()
+      );
+    else
+      for (int i=0; i<p.getDims(); i++)
+        dest[destOffset + i] = p.getCoord(i) + o.getCoord(i);
+    return dest;
   }
 
   /**
@@ -207,10 +346,28 @@ final public class Points {
    */
   static public Point negate(Point p) {
     assert(p != null);
-    double[] coords = new double[p.getDims()];
-    for (int i=0; i<p.getDims(); i++)
-      coords[i] = -p.getCoord(i);
-    return new Point(coords);
+    return new Point(negate(p, new double[p.getDims()], 0));
+  }
+
+  /**
+   * @see Points#negate(Point)
+   */
+  static public MutablePoint negate(Point p, MutablePoint dest) {
+    assert(dest != null && p != null && dest.getDims() == p.getDims());
+    negate(p, dest.coords, dest.offset);
+    return dest;
+  }
+
+  /**
+   * Writes the coordinates of {@link #negate(Point)} into a given array.
+   */
+  static private double[] negate(Point p, double[] dest, int destOffset) {
+    if (p.coords != null)
+      kernels.negate(p.coords, p.offset, dest, destOffset, p.getDims());
+    else
+      for (int i=0; i<p.getDims(); i++)
+        dest[destOffset + i] = -p.getCoord(i);
+    return dest;
   }
 
   /**
@@ -223,6 +380,13 @@ final public class Points {
     return trimRelative(p, getPointZero(p.getDims()));
   }
 
+  /**
+   * @see Points#trimNegative(Point)
+   */
+  static public MutablePoint trimNegative(Point p, MutablePoint dest) {
+    return trimRelative(p, getPointZero(p.getDims()), dest);
+  }
+
   /**
    * Trims all coordinates of a given point which are smaller than a given
    * origin to the value of origin.<br>
@@ -234,13 +398,40 @@ final public class Points {
    *      origin
    */
   static public Point trimRelative(Point p, Point origin) {
+    assert(p != null);
+    return new Point(trimRelative(p, origin, new double[p.getDims()], 0));
+  }
+
+  /**
+   * @see Points#trimRelative(Point, Point)
+   */
+  static public MutablePoint trimRelative(
+    Point p, Point origin, MutablePoint dest
+  ) {
+    assert(dest != null && p != null && dest.getDims() == p.getDims());
+    trimRelative(p, origin, dest.coords, dest.offset);
+    return dest;
+  }
+
+  /**
+   * Writes the coordinates of {@link #trimRelative(Point, Point)} into a given
+   * array.
+   */
+  static private double[] trimRelative(
+    Point p, Point origin, double[] dest, int destOffset
+  ) {
     assert(p != null && origin != null && p.getDims() == origin.getDims());
-    double[] coords = new double[p.getDims()];
-    for (int i=0; i<p.getDims(); i++)
-      coords[i] = p.getCoord(i) < origin.getCoord(i) ?
-        origin.getCoord(i) :
-        p.getCoord(i);
-    return new Point(coords);
+    if (isPacked(p, origin))
+      kernels.trim(
+        p.coords, p.offset, origin.coords, origin.offset,
+        dest, destOffset, p.getDims()
+      );
+    else
+      for (int i=0; i<p.getDims(); i++)
+        dest[destOffset + i] = p.getCoord(i) < origin.getCoord(i) ?
+          origin.getCoord(i) :
+          p.getCoord(i);
+    return dest;
   }
 
   /**
@@ -259,6 +450,28 @@ final public class Points {
     return distance(p, origin);
   }
 
+  /**
+   * @see Points#translate(Point, Point)
+   */
+  static public MutablePoint translate(
+    Point p, Point origin, MutablePoint dest
+  ) {
+    assert(p != null && origin != null && p.getDims() == origin.getDims());
+    return distance(p, origin, dest);
+  }
+
+  /**
+   * Checks if the coordinates of two points are in arrays, ie the
+   * {@link PointKernels} can work on them.
+   *
+   * @param p point
+   * @param o point
+   * @return True if both points have arrays, False otherwise.
+   */
+  static private boolean isPacked(Point p, Point o) {
+    return p.coords != null && o.coords != null;
+  }
+
   /**
    * Returns the point zero (all coordinates set to 0) for a metric space.
    *
@@ -267,6 +480,12 @@ final public class Points {
    */
   static private Point getPointZero(int dims) {
     assert(dims > 0);
+    Point zero = pointZeroCache.get(dims);
+    if (zero != null) {
+      Counter.POINT_ZERO_CACHE_HIT.increment();
+      return zero;
+    }
+    Counter.POINT_ZERO_CACHE_MISS.increment();
     return pointZeroCache.getIfAbsentPut(
       dims,
       () -> {
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import org.eclipse.collections.impl.list.mutable.FastList;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A skyline (Pareto front) which is maintained incrementally as points are
+ * added.<br>
+ * A point joins the skyline iff no point in the skyline dominates it (see
+ * {@link Points#isDominates(Point, Point)}), in which case the skyline points
+ * it dominates are dropped.
+ * <br>
+ * NOTE: Instances are not thread-safe.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+public class Skyline {
+
+  /** the current skyline points */
+  final private FastList<Point> points = new FastList<>();
+
+  /**
+   * Adds a point to the skyline.
+   *
+   * @param p the given point
+   * @return true if the point joined the skyline, false if it is dominated
+   */
+  public boolean add(Point p) {
+    assert(p != null);
+    for (int i=0; i<points.size(); i++)
+      if (Points.isDominates(points.get(i), p))
+        return false;
+    points.removeIf(o -> Points.isDominates(p, o));
+    points.add(p);
+    return true;
+  }
+
+  /**
+   * Adds all the given points to the skyline.
+   *
+   * @param ps the given points
+   * @return true if at least one of the points joined the skyline
+   */
+  public boolean addAll(Iterable<Point> ps) {
+    boolean result = false;
+    for (Point p : ps)
+      result |= add(p);
+    return result;
+  }
+
+  /**
+   * Checks if a point would be dominated by the current skyline.
+   *
+   * @param p the given point
+   * @return true if a skyline point dominates the given point
+   */
+  public boolean isDominated(Point p) {
+    assert(p != null);
+    return points.anySatisfy(o -> Points.isDominates(o, p));
+  }
+
+  /**
+   * Number of the points in the skyline.
+   *
+   * @return number of points
+   */
+  public int size() {
+    return points.size();
+  }
+
+  /**
+   * The current skyline points, in the order they joined.
+   *
+   * @return a read-only view of the points
+   */
+  public List<Point> getPoints() {
+    return Collections.unmodifiableList(points);
+  }
+
+}
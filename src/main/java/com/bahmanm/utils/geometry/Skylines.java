@@ -0,0 +1,356 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import org.eclipse.collections.impl.list.mutable.FastList;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computation of the skyline (Pareto front) of a set of points, ie the points
+ * which are not dominated by any other point in the sense of
+ * {@link Points#isDominates(Point, Point)}.<br>
+ * All the algorithms first sort the points with the order of
+ * {@link Points#compare(Point, Point)}: if P dominates O then P comes before
+ * O in that order, so a point only needs to be checked against the skyline
+ * points before it.<br>
+ * The points can be given either as a collection of {@link Point}s or as a
+ * packed array of coordinates where point i occupies
+ * [i * dims, (i + 1) * dims).  For the latter, the results are the indices of
+ * the skyline points in ascending order.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final public class Skylines {
+
+  /** ranges smaller than this are not split by divide and conquer */
+  final static private int sequentialThreshold = 64;
+  /** ranges smaller than this are not split by the parallel algorithm */
+  final static private int parallelThreshold = 2048;
+
+  /**
+   * Computes the skyline using the sort-filter-skyline algorithm.
+   *
+   * @param points the given points (all of the same dimensions)
+   * @return the skyline points
+   */
+  static public List<Point> sortFilter(Collection<Point> points) {
+    return select(points, sortFilter(pack(points), dimsOf(points)));
+  }
+
+  /**
+   * Computes the skyline using the sort-filter-skyline algorithm.
+   *
+   * @param coords packed coordinates of the points
+   * @param dims number of dimensions
+   * @return indices of the skyline points, in ascending order
+   */
+  static public int[] sortFilter(double[] coords, int dims) {
+    assert(coords != null && dims > 0 && coords.length % dims == 0);
+    int[] sorted = sortedIndices(coords, dims);
+    int size = filter(coords, dims, sorted, 0, sorted.length, sorted);
+    return ascending(sorted, size);
+  }
+
+  /**
+   * Computes the skyline using a divide and conquer algorithm.
+   *
+   * @param points the given points (all of the same dimensions)
+   * @return the skyline points
+   */
+  static public List<Point> divideAndConquer(Collection<Point> points) {
+    return select(points, divideAndConquer(pack(points), dimsOf(points)));
+  }
+
+  /**
+   * Computes the skyline using a divide and conquer algorithm: the sorted
+   * points are halved, the skyline of each half is computed recursively and
+   * the skyline points of the second half which are dominated by a skyline
+   * point of the first half are dropped.
+   *
+   * @param coords packed coordinates of the points
+   * @param dims number of dimensions
+   * @return indices of the skyline points, in ascending order
+   */
+  static public int[] divideAndConquer(double[] coords, int dims) {
+    assert(coords != null && dims > 0 && coords.length % dims == 0);
+    int[] sorted = sortedIndices(coords, dims);
+    int size = new SkylineTask(coords, dims, sorted, 0, sorted.length, false)
+      .compute();
+    return ascending(sorted, size);
+  }
+
+  /**
+   * Computes the skyline using the divide and conquer algorithm where the
+   * halves are processed in parallel in the common fork-join pool.
+   *
+   * @param points the given points (all of the same dimensions)
+   * @return the skyline points
+   */
+  static public List<Point> parallel(Collection<Point> points) {
+    return select(points, parallel(pack(points), dimsOf(points)));
+  }
+
+  /**
+   * Computes the skyline using the divide and conquer algorithm where the
+   * halves are processed in parallel in the common fork-join pool.
+   *
+   * @param coords packed coordinates of the points
+   * @param dims number of dimensions
+   * @return indices of the skyline points, in ascending order
+   */
+  static public int[] parallel(double[] coords, int dims) {
+    assert(coords != null && dims > 0 && coords.length % dims == 0);
+    int[] sorted = sortedIndices(coords, dims);
+    int size = ForkJoinPool.commonPool().invoke(
+      new SkylineTask(coords, dims, sorted, 0, sorted.length, true)
+    );
+    return ascending(sorted, size);
+  }
+
+  /**
+   * Filters a range of sorted indices, keeping only the points which are not
+   * dominated by a point kept before them.
+   *
+   * @param coords packed coordinates of the points
+   * @param dims number of dimensions
+   * @param sorted sorted indices of the points
+   * @param from start of the range (inclusive)
+   * @param to end of the range (exclusive)
+   * @param dest destination of the kept indices, starting at 'from' (may be
+   *    'sorted')
+   * @return number of kept indices
+   */
+  static private int filter(
+    double[] coords, int dims, int[] sorted, int from, int to, int[] dest
+  ) {
+    int size = 0;
+    for (int i=from; i<to; i++) {
+      int p = sorted[i];
+      if (!isDominatedByAny(coords, dims, p, dest, from, from + size))
+        dest[from + size++] = p;
+    }
+    return size;
+  }
+
+  /**
+   * Checks if a point is dominated by any of a range of points.
+   *
+   * @param coords packed coordinates of the points
+   * @param dims number of dimensions
+   * @param p index of the point
+   * @param indices indices of the points to check against
+   * @param from start of the range (inclusive)
+   * @param to end of the range (exclusive)
+   * @return true if p is dominated, false otherwise
+   */
+  static private boolean isDominatedByAny(
+    double[] coords, int dims, int p, int[] indices, int from, int to
+  ) {
+    for (int i=from; i<to; i++)
+      if (isDominates(coords, dims, indices[i], p))
+        return true;
+    return false;
+  }
+
+  /**
+   * @see Points#isDominates(Point, Point)
+   */
+  static boolean isDominates(double[] coords, int dims, int p, int o) {
+    return PointKernels.kernels.isDominates(
+      coords, p * dims, coords, o * dims, dims
+    );
+  }
+
+  /**
+   * Sorts the indices of the points in the order of
+   * {@link Points#compare(Point, Point)}.
+   *
+   * @param coords packed coordinates of the points
+   * @param dims number of dimensions
+   * @return the sorted indices
+   */
+  static private int[] sortedIndices(double[] coords, int dims) {
+    int count = coords.length / dims;
+    int[] indices = new int[count];
+    for (int i=0; i<count; i++)
+      indices[i] = i;
+    mergeSort(coords, dims, indices, new int[count], 0, count);
+    return indices;
+  }
+
+  /**
+   * Merge sorts a range of indices by the coordinates of their points.
+   */
+  static private void mergeSort(
+    double[] coords, int dims, int[] indices, int[] scratch, int from, int to
+  ) {
+    if (to - from < 2)
+      return;
+    int mid = (from + to) >>> 1;
+    mergeSort(coords, dims, indices, scratch, from, mid);
+    mergeSort(coords, dims, indices, scratch, mid, to);
+    if (compare(coords, dims, indices[mid - 1], indices[mid]) <= 0)
+      return;
+    System.arraycopy(indices, from, scratch, from, to - from);
+    int left = from;
+    int right = mid;
+    for (int i=from; i<to; i++)
+      if (
+        right >= to ||
+        (left < mid &&
+          compare(coords, dims, scratch[left], scratch[right]) <= 0)
+      )
+        indices[i] = scratch[left++];
+      else
+        indices[i] = scratch[right++];
+  }
+
+  /**
+   * Same as {@link Points#compare(Point, Point)} except that -0.0 and 0.0 are
+   * considered equal, as they are by dominance.
+   */
+  static private int compare(double[] coords, int dims, int p, int o) {
+    int pOffset = p * dims;
+    int oOffset = o * dims;
+    for (int i=0; i<dims; i++) {
+      int result = Double.compare(
+        coords[pOffset + i] + 0.0, coords[oOffset + i] + 0.0
+      );
+      if (result != 0) return result;
+    }
+    return 0;
+  }
+
+  /**
+   * Copies the first 'size' indices and sorts them in ascending order.
+   */
+  static private int[] ascending(int[] indices, int size) {
+    int[] result = Arrays.copyOf(indices, size);
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * Packs the coordinates of the given points into an array.
+   *
+   * @param points the given points (all of the same dimensions)
+   * @return the packed coordinates
+   */
+  static private double[] pack(Collection<Point> points) {
+    assert(points != null);
+    int dims = dimsOf(points);
+    double[] coords = new double[points.size() * dims];
+    int offset = 0;
+    for (Point p : points) {
+      assert(p.getDims() == dims);
+      for (int i=0; i<dims; i++)
+        coords[offset++] = p.getCoord(i);
+    }
+    return coords;
+  }
+
+  /**
+   * Number of dimensions of the given points (1 if there are no points).
+   */
+  static private int dimsOf(Collection<Point> points) {
+    return points.isEmpty() ? 1 : points.iterator().next().getDims();
+  }
+
+  /**
+   * Selects the points at the given indices, in the iteration order of the
+   * given collection.
+   */
+  static private List<Point> select(Collection<Point> points, int[] indices) {
+    FastList<Point> result = FastList.newList(indices.length);
+    int i = 0;
+    int next = 0;
+    for (Point p : points) {
+      if (next == indices.length)
+        break;
+      if (i++ == indices[next]) {
+        result.add(p);
+        next++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Computes the skyline of a range of sorted indices in place, by halving the
+   * range until it is smaller than a threshold.
+   */
+  static private class SkylineTask extends RecursiveTask<Integer> {
+
+    final private double[] coords;
+    final private int dims;
+    final private int[] sorted;
+    final private int from;
+    final private int to;
+    /** should the halves be processed in parallel? */
+    final private boolean isParallel;
+
+    SkylineTask(
+      double[] coords, int dims, int[] sorted, int from, int to,
+      boolean isParallel
+    ) {
+      this.coords = coords;
+      this.dims = dims;
+      this.sorted = sorted;
+      this.from = from;
+      this.to = to;
+      this.isParallel = isParallel;
+    }
+
+    /**
+     * @return number of skyline indices, which are moved to the start of the
+     *    range
+     */
+    @Override
+    protected Integer compute() {
+      if (to - from <= (isParallel ? parallelThreshold : sequentialThreshold))
+        return filter(coords, dims, sorted, from, to, sorted);
+      int mid = (from + to) >>> 1;
+      SkylineTask left =
+        new SkylineTask(coords, dims, sorted, from, mid, isParallel);
+      SkylineTask right =
+        new SkylineTask(coords, dims, sorted, mid, to, isParallel);
+      int leftSize;
+      int rightSize;
+      if (isParallel) {
+        right.fork();
+        leftSize = left.compute();
+        rightSize = right.join();
+      } else {
+        leftSize = left.compute();
+        rightSize = right.compute();
+      }
+      int size = leftSize;
+      for (int i=mid; i<mid+rightSize; i++) {
+        int p = sorted[i];
+        if (!isDominatedByAny(coords, dims, p, sorted, from, from + leftSize))
+          sorted[from + size++] = p;
+      }
+      return size;
+    }
+
+  }
+
+}
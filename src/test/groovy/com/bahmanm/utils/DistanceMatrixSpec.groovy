@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
+/**
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+class DistanceMatrixSpec extends Specification {
+
+  @Shared def random = new Random(7)
+  // not a multiple of the tile size
+  @Shared int n = 300
+  @Shared double[] lats = (0..<n).collect {
+    random.nextDouble() * 180 - 90
+  } as double[]
+  @Shared double[] lons = (0..<n).collect {
+    random.nextDouble() * 360 - 180
+  } as double[]
+
+  private void check(def dest, double tolerance) {
+    for (int i=0; i<n; i++)
+      for (int j=0; j<n; j++) {
+        def expected = i == j ?
+          0 : SpatialUtils.distance(lats[i], lons[i], lats[j], lons[j])
+        assert Math.abs(dest[i * n + j] - expected) <=
+          Math.max(1e-6, expected * tolerance)
+      }
+  }
+
+  void 'build into double[]'() {
+    expect:
+    check(DistanceMatrix.build(lats, lons, new double[n * n]), 1e-9)
+    check(DistanceMatrix.buildParallel(lats, lons, new double[n * n]), 1e-9)
+  }
+
+  void 'build into float[]'() {
+    expect:
+    check(DistanceMatrix.build(lats, lons, new float[n * n]), 1e-6)
+    check(DistanceMatrix.buildParallel(lats, lons, new float[n * n]), 1e-6)
+  }
+
+  void 'build into a direct FloatBuffer'() {
+    given:
+    def dest = ByteBuffer.allocateDirect(n * n * 4)
+      .order(ByteOrder.nativeOrder()).asFloatBuffer()
+
+    when:
+    DistanceMatrix.buildParallel(lats, lons, dest)
+
+    then:
+    dest.position() == 0
+    check((0..<n * n).collect { dest.get(it) }, 1e-6)
+  }
+
+  void 'parallel is identical to sequential'() {
+    expect:
+    DistanceMatrix.buildParallel(lats, lons, new double[n * n]) ==
+      DistanceMatrix.build(lats, lons, new double[n * n])
+  }
+
+  void 'symmetric'() {
+    given:
+    def dest = DistanceMatrix.build(lats, lons, new double[n * n])
+
+    expect:
+    (0..<n).every { i -> (0..<n).every { j ->
+      dest[i * n + j] == dest[j * n + i]
+    } }
+  }
+
+  void 'single point'() {
+    expect:
+    DistanceMatrix.build(
+      [10.0] as double[], [20.0] as double[], new double[1]
+    ) == [0.0] as double[]
+  }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils
+
+import org.eclipse.collections.impl.factory.primitive.DoubleLists
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+class DoubleListCombinationsSpec extends Specification {
+
+  static def a = [0.5, 1.5]
+  static def b = [-1.0, 0.0, 1.0]
+
+  static List<List> boxed(ListCombinations.Order order) {
+    new ListCombinations<Object>([a, b], order).collect { it }
+  }
+
+  void 'same combinations as ListCombinations'() {
+    expect:
+    new DoubleListCombinations(
+      [a as double[], b as double[]] as double[][], order
+    ).collect { it as List } == boxed(order)
+
+    where:
+    order << ListCombinations.Order.values()
+  }
+
+  void 'default order and primitive lists'() {
+    expect:
+    new DoubleListCombinations(a as double[], b as double[])
+      .collect { it as List } == boxed(ListCombinations.Order.COLEXICOGRAPHIC)
+    new DoubleListCombinations(
+      [
+        DoubleLists.immutable.of(a as double[]),
+        DoubleLists.immutable.of(b as double[])
+      ],
+      ListCombinations.Order.LEXICOGRAPHIC
+    ).collect { it as List } == boxed(ListCombinations.Order.LEXICOGRAPHIC)
+  }
+
+  void 'next into an array, forEachInto, count and unrank'() {
+    given:
+    def lc = new DoubleListCombinations(a as double[], b as double[])
+    def dest = new double[2]
+    def seen = []
+
+    when:
+    def first = lc.next(dest) as List
+    lc.forEachInto(dest) { seen << (it as List) }
+
+    then:
+    first == boxed(ListCombinations.Order.COLEXICOGRAPHIC)[0]
+    seen == boxed(ListCombinations.Order.COLEXICOGRAPHIC).drop(1)
+    !lc.hasNext()
+    lc.count() == 6
+    (0..<6).collect { lc.unrank(it, new double[2]) as List } ==
+      boxed(ListCombinations.Order.COLEXICOGRAPHIC)
+
+    when:
+    lc.next()
+
+    then:
+    thrown NoSuchElementException
+  }
+
+}
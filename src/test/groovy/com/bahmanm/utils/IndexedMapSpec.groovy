@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+class IndexedMapSpec extends Specification {
+
+  void 'put, get and remove'() {
+    given:
+    def map = new IndexedMap<String, Integer>()
+
+    expect:
+    map.put('a', 1) == null
+    map.put('b', 2) == null
+    map.put('a', 3) == 1
+    map.get('a') == 3
+    map.remove('b') == 2
+    map.remove('b') == null
+    map == [a: 3]
+    map.getKey(0) == 'a'
+    map.getValue(0) == 3
+  }
+
+  void 'agrees with a HashMap under random operations'() {
+    given:
+    def random = new Random(23)
+    def map = new IndexedMap<Integer, Integer>(1)
+    def expected = new HashMap<Integer, Integer>()
+
+    when:
+    10_000.times {
+      def k = random.nextInt(500)
+      if (random.nextBoolean())
+        assert map.put(k, it) == expected.put(k, it)
+      else
+        assert map.remove(k) == expected.remove(k)
+    }
+
+    then:
+    map == expected
+    (0..<map.size()).collectEntries { [map.getKey(it), map.getValue(it)] } ==
+      expected
+  }
+
+  void 'entries write through and can be removed while iterating'() {
+    given:
+    def map = new IndexedMap<Integer, String>([1: 'a', 2: 'b', 3: 'c'])
+
+    when:
+    map.entrySet().each { it.value = it.value.toUpperCase() }
+    map.entrySet().removeIf { it.key == 2 }
+
+    then:
+    map == [1: 'A', 3: 'C']
+  }
+
+}
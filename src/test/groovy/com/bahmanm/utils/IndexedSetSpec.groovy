@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+class IndexedSetSpec extends Specification {
+
+  void 'add, contains and remove'() {
+    given:
+    def set = new IndexedSet<String>()
+
+    expect:
+    set.add('a')
+    set.add('b')
+    set.add('c')
+    !set.add('b')
+    set.size() == 3
+    set.contains('b')
+    set.remove('a')
+    !set.remove('a')
+    !set.contains('a')
+    set == ['b', 'c'] as Set
+    (0..<set.size()).collect { set.get(it) } as Set == ['b', 'c'] as Set
+  }
+
+  void 'null elements'() {
+    given:
+    def set = new IndexedSet<String>(['a', null])
+
+    expect:
+    set.contains(null)
+    set.remove(null)
+    set == ['a'] as Set
+  }
+
+  void 'agrees with a HashSet under random operations'() {
+    given:
+    def random = new Random(17)
+    def set = new IndexedSet<Integer>(1)
+    def expected = new HashSet<Integer>()
+
+    when:
+    10_000.times {
+      def e = random.nextInt(500)
+      if (random.nextBoolean())
+        assert set.add(e) == expected.add(e)
+      else
+        assert set.remove(e) == expected.remove(e)
+    }
+
+    then:
+    set == expected
+    set.size() == expected.size()
+    (0..<set.size()).collect { set.get(it) } as Set == expected
+  }
+
+  void 'iterator remove'() {
+    given:
+    def set = new IndexedSet<Integer>(1..20)
+
+    when:
+    set.removeIf { it % 3 == 0 }
+
+    then:
+    set == (1..20).findAll { it % 3 != 0 } as Set
+  }
+
+  void 'get out of range'() {
+    when:
+    new IndexedSet<Integer>([1]).get(1)
+
+    then:
+    thrown IndexOutOfBoundsException
+  }
+
+}
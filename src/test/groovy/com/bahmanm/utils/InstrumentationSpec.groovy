@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils
+
+import com.bahmanm.utils.Instrumentation.Counter
+import com.bahmanm.utils.geometry.Orthants
+import com.bahmanm.utils.geometry.Point
+import com.bahmanm.utils.geometry.Points
+import org.slf4j.Logger
+import org.slf4j.helpers.MessageFormatter
+import spock.lang.Requires
+import spock.lang.Specification
+
+/**
+ * The test task runs with the counters disabled, which checks they stay at
+ * 0.  The instrumentationTest task runs this spec alone with the counters
+ * enabled, so the counters can be reset and checked exactly.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+class InstrumentationSpec extends Specification {
+
+  private long delta(Counter c, Closure action) {
+    long before = Instrumentation.snapshot().get(c)
+    action()
+    Instrumentation.snapshot().get(c) - before
+  }
+
+  @Requires({ !Instrumentation.isEnabled })
+  void 'disabled counters do not count'() {
+    given:
+    def p = new Point([1, -1, 2] as double[])
+
+    when:
+    Orthants.getOrthantSign(11, 5)
+    Orthants.getOrthantSign(20, 5)
+    Points.trimNegative(p)
+    new ListCombinations<Integer>([0, 1], [2, 3, 4]).stream().forEach {}
+    RandomUtils.randPeek([1, 2, 3], 5)
+    def snapshot = Instrumentation.snapshot()
+
+    then:
+    Counter.values().every { snapshot.get(it) == 0 }
+    snapshot.getHitRatio(
+      Counter.POINT_ZERO_CACHE_HIT, Counter.POINT_ZERO_CACHE_MISS
+    ).isNaN()
+  }
+
+  @Requires({ Instrumentation.isEnabled })
+  void 'orthant sign cache'() {
+    given:
+    Orthants.getOrthantSign(11, 5)
+    Instrumentation.reset()
+
+    when:
+    3.times { Orthants.getOrthantSign(11, 5) }
+    Orthants.getOrthantSign(20, 5)
+    def snapshot = Instrumentation.snapshot()
+
+    then:
+    snapshot.get(Counter.ORTHANT_SIGN_CACHE_HIT) == 3
+    snapshot.get(Counter.ORTHANT_SIGN_CACHE_MISS) == 0
+    snapshot.get(Counter.ORTHANT_SIGN_UNCACHED) == 1
+  }
+
+  @Requires({ Instrumentation.isEnabled })
+  void 'point zero cache'() {
+    given:
+    def p = new Point([1, -1, 2, -2, 3, -3, 4] as double[])
+
+    expect:
+    Points.trimNegative(p) != null
+    delta(Counter.POINT_ZERO_CACHE_HIT) {
+      2.times { Points.trimNegative(p) }
+    } == 2
+  }
+
+  @Requires({ Instrumentation.isEnabled })
+  void 'combinations emitted'() {
+    given:
+    def lc = new ListCombinations<Integer>([0, 1], [2, 3, 4])
+
+    expect:
+    delta(Counter.COMBINATIONS_EMITTED) {
+      lc.next()
+      lc.nextView()
+      lc.next(new Integer[2])
+    } == 3
+    delta(Counter.COMBINATIONS_EMITTED) {
+      new ListCombinations<Integer>([0, 1], [2, 3, 4]).stream().forEach {}
+    } == 6
+  }
+
+  @Requires({ Instrumentation.isEnabled })
+  void 'random samples'() {
+    expect:
+    delta(Counter.RANDOM_SAMPLES) {
+      RandomUtils.randPeek([1, 2, 3])
+      RandomUtils.randPeek([1, 2, 3], 5)
+      RandomUtils.reservoir([1, 2, 3, 4].iterator(), 2)
+    } == 8
+  }
+
+  @Requires({ Instrumentation.isEnabled })
+  void 'snapshot'() {
+    given: 'a dimension whose zero point is not cached yet'
+    def p = new Point(new double[23])
+    Instrumentation.reset()
+
+    when:
+    3.times { Points.trimNegative(p) }
+    def snapshot = Instrumentation.snapshot()
+
+    then:
+    snapshot.get(Counter.POINT_ZERO_CACHE_MISS) == 1
+    snapshot.get(Counter.POINT_ZERO_CACHE_HIT) == 2
+    snapshot.getHitRatio(
+      Counter.POINT_ZERO_CACHE_HIT, Counter.POINT_ZERO_CACHE_MISS
+    ) == 2 / 3d
+    snapshot.toString() ==
+      'Instrumentation[ORTHANT_SIGN_CACHE_HIT=0, ORTHANT_SIGN_CACHE_MISS=0, ' +
+      'ORTHANT_SIGN_UNCACHED=0, POINT_ZERO_CACHE_HIT=2, ' +
+      'POINT_ZERO_CACHE_MISS=1, COMBINATIONS_EMITTED=0, RANDOM_SAMPLES=0]'
+
+    when:
+    Instrumentation.reset()
+
+    then:
+    Counter.values().every { Instrumentation.snapshot().get(it) == 0 }
+  }
+
+  @Requires({ Instrumentation.isEnabled })
+  void 'log'() {
+    given:
+    def logger = Mock(Logger)
+    def logged = []
+    Instrumentation.reset()
+    Counter.RANDOM_SAMPLES.add(4)
+
+    when:
+    Instrumentation.log(logger)
+
+    then:
+    1 * logger.isInfoEnabled() >> true
+    1 * logger.info(_ as String, _) >> { String format, Object arg ->
+      logged << MessageFormatter.format(format, arg).message
+    }
+    logged == [
+      'Instrumentation[ORTHANT_SIGN_CACHE_HIT=0, ORTHANT_SIGN_CACHE_MISS=0, ' +
+      'ORTHANT_SIGN_UNCACHED=0, POINT_ZERO_CACHE_HIT=0, ' +
+      'POINT_ZERO_CACHE_MISS=0, COMBINATIONS_EMITTED=0, RANDOM_SAMPLES=4]'
+    ]
+
+    when:
+    Instrumentation.log(logger)
+
+    then:
+    1 * logger.isInfoEnabled() >> false
+    0 * logger.info(*_)
+  }
+
+}
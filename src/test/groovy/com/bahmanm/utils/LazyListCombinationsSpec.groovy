@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils
+
+import spock.lang.Specification
+
+import java.util.stream.Collectors
+
+/**
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+class LazyListCombinationsSpec extends Specification {
+
+  /**
+   * An iterable which can be iterated only once.
+   */
+  static Iterable<Integer> once(List<Integer> list) {
+    def isUsed = false
+    return {
+      assert !isUsed
+      isUsed = true
+      list.iterator()
+    } as Iterable<Integer>
+  }
+
+  void 'same combinations as ListCombinations in lexicographic order'() {
+    given:
+    def lists = [[1, 2, 3], ['a', 'b'], [true, false]]
+
+    expect:
+    new LazyListCombinations<Object>(lists).collect { it } ==
+      new ListCombinations<Object>(
+        lists, ListCombinations.Order.LEXICOGRAPHIC
+      ).collect { it }
+  }
+
+  void 'the first sequence is iterated only once'() {
+    given:
+    def lc = new LazyListCombinations<Integer>(
+      [once([1, 2]), [10, 20, 30]]
+    )
+
+    expect:
+    lc.collect { it } == [
+      [1, 10], [1, 20], [1, 30], [2, 10], [2, 20], [2, 30]
+    ]
+  }
+
+  void 'unbounded first sequence with early termination'() {
+    given:
+    def naturals = { ->
+      def n = 0
+      [hasNext: { true }, next: { n++ }] as Iterator<Integer>
+    } as Iterable<Integer>
+    def lc = new LazyListCombinations<Integer>([naturals, [0, 1]])
+
+    expect:
+    lc.stream().limit(5).collect(Collectors.toList()) ==
+      [[0, 0], [0, 1], [1, 0], [1, 1], [2, 0]]
+  }
+
+  void 'any empty sequence means no combinations'() {
+    given:
+    def lc = new LazyListCombinations<Integer>([[1, 2], [], [3]])
+
+    when:
+    lc.next()
+
+    then:
+    !lc.hasNext()
+    thrown NoSuchElementException
+  }
+
+  void 'next into an array and nextView'() {
+    given:
+    def lc = new LazyListCombinations<Integer>([1, 2], [3])
+
+    expect:
+    lc.next(new Integer[2]) == [1, 3] as Integer[]
+    lc.nextView() == [2, 3]
+    !lc.hasNext()
+  }
+
+  void 'forEachChunk'() {
+    given:
+    def lc = new LazyListCombinations<Integer>([1, 2, 3], [4, 5, 6])
+    def chunks = []
+
+    when:
+    lc.forEachChunk(4) { chunks << it }
+
+    then:
+    chunks*.size() == [4, 4, 1]
+    chunks.sum() ==
+      new ListCombinations<Integer>(
+        [[1, 2, 3], [4, 5, 6]], ListCombinations.Order.LEXICOGRAPHIC
+      ).collect { it }
+  }
+
+  void 'forEachChunkWhile stops and resumes'() {
+    given:
+    def lc = new LazyListCombinations<Integer>((0..<10), (0..<10))
+    def chunks = []
+
+    when:
+    def isDone = lc.forEachChunkWhile(7) { chunks << it; chunks.size() < 2 }
+
+    then:
+    !isDone
+    chunks.sum().size() == 14
+    lc.next() == [1, 4]
+
+    when:
+    isDone = lc.forEachChunkWhile(50) { chunks << it; true }
+
+    then:
+    isDone
+    chunks.sum().size() == 99
+  }
+
+}
@@ -88,4 +88,174 @@ class ListCombinationsSpec extends Specification {
     !lc1.hasNext()
   }
 
+  void 'next into an array'() {
+    given:
+    def lc = new ListCombinations([0,1], ['a','b'])
+    def dest = new Object[2]
+
+    when:
+    def result = []
+    while (lc.hasNext())
+      result << (lc.next(dest) as List)
+
+    then:
+    result == [[0,'a'], [1,'a'], [0,'b'], [1,'b']]
+  }
+
+  void 'nextView reuses the same view'() {
+    given:
+    def lc = new ListCombinations([0,1], [5], [7,8])
+
+    when:
+    def first = lc.nextView()
+    def firstCopy = new ArrayList(first)
+    def second = lc.nextView()
+
+    then:
+    first.is(second)
+    firstCopy == [0,5,7]
+    second == [1,5,7]
+    lc.collect { it } == [[0,5,8], [1,5,8]]
+  }
+
+  void 'single element lists'() {
+    expect:
+    new ListCombinations([1], [2], [3]).findAll() == [[1,2,3]]
+  }
+
+  void 'rank and unrank'() {
+    given:
+    def lc = new ListCombinations([0,1,2], ['a','b'], [true,false])
+    def all = new ListCombinations([0,1,2], ['a','b'], [true,false]).findAll()
+
+    expect:
+    lc.count() == 12
+    (0..<12).every { lc.unrank(it) == all[it] }
+    (0..<12).every { lc.rank(all[it]) == it }
+  }
+
+  void 'rank of a foreign combination'() {
+    when:
+    new ListCombinations([0,1], [2,3]).rank([0,4])
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+
+  void 'stream'() {
+    given:
+    def lc = new ListCombinations([0,1,2], [3,4,5], [6,7], [8,9,10,11])
+    def expected = new ListCombinations([0,1,2], [3,4,5], [6,7], [8,9,10,11])
+      .findAll()
+
+    expect:
+    lc.stream().collect(java.util.stream.Collectors.toList()) == expected
+    lc.parallelStream().collect(java.util.stream.Collectors.toList()) ==
+      expected
+  }
+
+  void 'spliterator over a slice'() {
+    given:
+    def lc = new ListCombinations([0,1,2], [3,4])
+    def result = []
+
+    when:
+    def split = lc.spliterator(2, 5)
+    def prefix = split.trySplit()
+    prefix.forEachRemaining { result << it }
+    split.forEachRemaining { result << it }
+
+    then:
+    result == [[2,3], [0,4], [1,4]]
+  }
+
+  void 'lexicographic order'() {
+    given:
+    def lc = new ListCombinations(
+      [[0,1], ['a','b','c']], ListCombinations.Order.LEXICOGRAPHIC
+    )
+    def expected = [[0,'a'], [0,'b'], [0,'c'], [1,'a'], [1,'b'], [1,'c']]
+
+    expect:
+    lc.stream().collect(java.util.stream.Collectors.toList()) == expected
+    (0..<6).every { lc.unrank(it) == expected[it] }
+    (0..<6).every { lc.rank(expected[it]) == it }
+    lc.findAll() == expected
+  }
+
+  void 'gray order'() {
+    given:
+    def lists = [[0,1,2], ['a','b'], [true], [7,8,9,10]]
+    def gray = new ListCombinations(lists, ListCombinations.Order.GRAY)
+    def all = gray.findAll()
+    def expected = new ListCombinations(lists).findAll()
+
+    expect:
+    all.take(7) == [
+      [0,'a',true,7], [1,'a',true,7], [2,'a',true,7],
+      [2,'b',true,7], [1,'b',true,7], [0,'b',true,7], [0,'b',true,8]
+    ]
+    all as Set == expected as Set
+    all.size() == expected.size()
+    (1..<all.size()).every { i ->
+      (0..<4).count { all[i][it] != all[i - 1][it] } == 1
+    }
+    (0..<all.size()).every { gray.unrank(it) == all[it] }
+    (0..<all.size()).every { gray.rank(all[it]) == it }
+    (0..all.size()).every { from ->
+      def result = []
+      gray.spliterator(from, all.size()).forEachRemaining { result << it }
+      result == all.drop(from)
+    }
+  }
+
+  void 'nextView reports the changes'() {
+    given:
+    def lists = [[0,1,2], ['a','b'], [true], [7,8,9]]
+    def lc = new ListCombinations(lists, order)
+    def expected = new ListCombinations(lists, order).findAll()
+    def current = [null] * 4
+    def seen = []
+
+    when:
+    while (lc.hasNext()) {
+      def view = lc.nextView { pos, oldValue, newValue ->
+        assert current[pos] == oldValue && oldValue != newValue
+        current[pos] = newValue
+      }
+      assert current == view
+      seen << view.collect()
+    }
+
+    then:
+    seen == expected
+
+    where:
+    order << ListCombinations.Order.values()
+  }
+
+  void 'nextView reports one change per step in gray order'() {
+    given:
+    def lc = new ListCombinations(
+      [[0,1,2], ['a','b'], [true], [7,8,9]], ListCombinations.Order.GRAY
+    )
+    def current = [null] * 4
+    def counts = []
+
+    when:
+    while (lc.hasNext()) {
+      int count = 0
+      def view = lc.nextView { pos, oldValue, newValue ->
+        assert current[pos] == oldValue
+        current[pos] = newValue
+        count++
+      }
+      assert current == view
+      counts << count
+    }
+
+    then:
+    counts == [4] + [1] * 17
+  }
+
 }
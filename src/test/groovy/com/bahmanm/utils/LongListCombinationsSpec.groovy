@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils
+
+import org.eclipse.collections.impl.factory.primitive.LongLists
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+class LongListCombinationsSpec extends Specification {
+
+  static def a = [1L, 2L]
+  static def b = [10L, 20L, 30L]
+
+  static List<List> boxed(ListCombinations.Order order) {
+    new ListCombinations<Object>([a, b], order).collect { it }
+  }
+
+  void 'same combinations as ListCombinations'() {
+    expect:
+    new LongListCombinations(
+      [a as long[], b as long[]] as long[][], order
+    ).collect { it as List } == boxed(order)
+
+    where:
+    order << ListCombinations.Order.values()
+  }
+
+  void 'default order and primitive lists'() {
+    expect:
+    new LongListCombinations(a as long[], b as long[])
+      .collect { it as List } == boxed(ListCombinations.Order.COLEXICOGRAPHIC)
+    new LongListCombinations(
+      [
+        LongLists.immutable.of(a as long[]),
+        LongLists.immutable.of(b as long[])
+      ],
+      ListCombinations.Order.LEXICOGRAPHIC
+    ).collect { it as List } == boxed(ListCombinations.Order.LEXICOGRAPHIC)
+  }
+
+  void 'next into an array, forEachInto, count and unrank'() {
+    given:
+    def lc = new LongListCombinations(a as long[], b as long[])
+    def dest = new long[2]
+    def seen = []
+
+    when:
+    def first = lc.next(dest) as List
+    lc.forEachInto(dest) { seen << (it as List) }
+
+    then:
+    first == boxed(ListCombinations.Order.COLEXICOGRAPHIC)[0]
+    seen == boxed(ListCombinations.Order.COLEXICOGRAPHIC).drop(1)
+    !lc.hasNext()
+    lc.count() == 6
+    (0..<6).collect { lc.unrank(it, new long[2]) as List } ==
+      boxed(ListCombinations.Order.COLEXICOGRAPHIC)
+
+    when:
+    lc.next()
+
+    then:
+    thrown NoSuchElementException
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils
+
+import spock.lang.Specification
+
+import static com.bahmanm.utils.ListCombinations.Order.LEXICOGRAPHIC
+
+/**
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+class PrunedListCombinationsSpec extends Specification {
+
+  void 'accepting everything is the lexicographic product'() {
+    given:
+    def lists = [[0,1,2], ['a','b'], [true,false]]
+
+    expect:
+    new PrunedListCombinations(lists, { true }).findAll() ==
+      new ListCombinations(lists, LEXICOGRAPHIC).findAll()
+  }
+
+  void 'budget constraint'() {
+    given:
+    def prices = [[1,5,9], [2,4,8], [1,3]]
+    def budget = 8
+    def expected = new ListCombinations(prices, LEXICOGRAPHIC).findAll {
+      it.sum() <= budget
+    }
+
+    expect:
+    new PrunedListCombinations(prices, { it.sum() <= budget }).findAll() ==
+      expected
+  }
+
+  void 'rejected prefixes are not extended'() {
+    given:
+    def tested = []
+    def lc = new PrunedListCombinations(
+      [[0,1], [0,1], [0,1]],
+      { tested << new ArrayList(it); it[0] == 1 }
+    )
+
+    when:
+    def result = lc.findAll()
+
+    then:
+    result == [[1,0,0], [1,0,1], [1,1,0], [1,1,1]]
+    !tested.any { it.size() > 1 && it[0] == 0 }
+  }
+
+  void 'nothing accepted'() {
+    given:
+    def lc = new PrunedListCombinations([[0,1], [2,3]], { it.size() < 2 })
+
+    expect:
+    !lc.hasNext()
+
+    when:
+    lc.next()
+
+    then:
+    thrown(NoSuchElementException)
+  }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+class RandomSamplerSpec extends Specification {
+
+  void 'samplers with the same seed produce the same samples'() {
+    given:
+    def src = (0..<1000).toList()
+    def s1 = new RandomSampler(7)
+    def s2 = new RandomSampler(7)
+
+    expect:
+    s1.randPeek(src, 100) == s2.randPeek(src, 100)
+    s1.randPeekDistinct(src, 100) == s2.randPeekDistinct(src, 100)
+    s1.reservoir(src.iterator(), 10) == s2.reservoir(src.iterator(), 10)
+    s1.split().randPeek(src, 10) == s2.split().randPeek(src, 10)
+  }
+
+  void 'nextGaussian is standard normal'() {
+    given:
+    def sampler = new RandomSampler(13)
+    def xs = (0..<20_000).collect { sampler.nextGaussian() }
+    def mean = xs.sum() / xs.size()
+    def variance = xs.sum { (it - mean) * (it - mean) } / xs.size()
+
+    expect:
+    Math.abs(mean) < 0.03
+    Math.abs(variance - 1) < 0.05
+    xs.count { Math.abs(it) < 1 } / xs.size() > 0.66
+  }
+
+  void 'randPeekDistinct returns distinct positions'() {
+    given:
+    def sampler = new RandomSampler(3)
+    def src = (0..<size).toList()
+
+    when:
+    def result = sampler.randPeekDistinct(src, k)
+
+    then:
+    result.size() == k
+    result.toSet().size() == k
+    result.every { it in src }
+
+    where:
+    size | k
+    100  | 0
+    100  | 5
+    100  | 60
+    100  | 100
+  }
+
+  void 'randPeekDistinct is uniform'() {
+    given:
+    def sampler = new RandomSampler(11)
+    def counts = new int[10]
+
+    when:
+    10_000.times {
+      sampler.randPeekDistinct((0..<10).toList(), 3).each { counts[it]++ }
+    }
+
+    then:
+    counts.every { Math.abs(it - 3000) < 200 }
+  }
+
+  void 'reservoir is uniform'() {
+    given:
+    def sampler = new RandomSampler(5)
+    def counts = new int[100]
+
+    when:
+    4_000.times {
+      sampler.reservoir((0..<100).iterator(), 5).each { counts[it]++ }
+    }
+
+    then:
+    counts.every { Math.abs(it - 200) < 70 }
+  }
+
+  void 'randPeek with weights follows the weights'() {
+    given:
+    def sampler = new RandomSampler(1)
+    def src = ['a', 'b', 'c', 'd']
+    def table = new AliasTable([1, 2, 0, 5] as double[])
+
+    when:
+    def counts = (0..<80_000).collect { sampler.randPeek(src, table) }
+      .countBy { it }
+
+    then:
+    !counts.containsKey('c')
+    Math.abs(counts['a'] - 10_000) < 500
+    Math.abs(counts['b'] - 20_000) < 700
+    Math.abs(counts['d'] - 50_000) < 1000
+  }
+
+  void 'AliasTable with a single weight'() {
+    expect:
+    new AliasTable([3] as double[]).next(new RandomSampler()) == 0
+  }
+
+}
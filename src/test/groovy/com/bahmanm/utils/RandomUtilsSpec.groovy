@@ -143,4 +143,94 @@ class RandomUtilsSpec extends Specification {
     [data: [a: 1, b: 2]] as Map  | _
   }
 
+  void '''
+    setSeed should make the samples of the current thread reproducible
+  '''() {
+    given:
+    def src = (0..<1000).toList()
+
+    when:
+    setSeed(42)
+    def first = (0..<20).collect { randPeek(src) } + randPeek(src, 5)
+    setSeed(42)
+    def second = (0..<20).collect { randPeek(src) } + randPeek(src, 5)
+
+    then:
+    first == second
+  }
+
+  void '''
+    each thread should have its own sampler
+  '''() {
+    given:
+    def samplers = Collections.synchronizedSet(
+      Collections.newSetFromMap(new IdentityHashMap())
+    )
+    def threads = (0..<4).collect {
+      Thread.start { samplers << sampler(); randPeek([1, 2, 3]) }
+    }
+
+    when:
+    threads*.join()
+
+    then:
+    samplers.size() == 4
+  }
+
+  void '''
+    randPeek with k should return k elements of the given list
+  '''() {
+    given:
+    def src = [101, 208, 33, 410, 5]
+
+    expect:
+    randPeek(src, 50).size() == 50
+    randPeek(src, 50).every { it in src }
+    randPeekDistinct(src, 5).sort() == src.sort()
+    randPeekDistinct((0..<1000).toList(), 10).toSet().size() == 10
+  }
+
+  void '''
+    reservoir should sample k elements of an iterator or a stream
+  '''() {
+    expect:
+    reservoir([1, 2, 3].iterator(), 5) == [1, 2, 3]
+    reservoir((0..<100_000).iterator(), 10).toSet().size() == 10
+    reservoir((0..<100).stream(), 10).every { it in (0..<100) }
+  }
+
+  void '''
+    randPeek should pick from indexed sets and maps
+  '''() {
+    given:
+    def set = new IndexedSet<Integer>([101, 208, 33])
+    def map = new IndexedMap<String, Integer>([a: 1, b: 2])
+
+    expect:
+    (0..100).every { randPeek(set) in set }
+    (0..100).every { randPeek(map) in map.keySet() }
+    (0..100).collect { randPeek(set as Set) } as Set == set
+  }
+
+  void '''
+    snapshot should be an immutable copy
+  '''() {
+    given:
+    def src = [1, 2, 3] as Set
+
+    when:
+    def snapshot = snapshot(src)
+    src << 4
+
+    then:
+    snapshot.sort(false) == [1, 2, 3]
+    (0..100).every { randPeek(snapshot) in [1, 2, 3] }
+
+    when:
+    snapshot.add(5)
+
+    then:
+    thrown UnsupportedOperationException
+  }
+
 }
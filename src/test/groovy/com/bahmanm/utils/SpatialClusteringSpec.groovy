@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+class SpatialClusteringSpec extends Specification {
+
+  /**
+   * The textbook DBSCAN over the full matrix.
+   */
+  private int[] bruteForce(
+    double[] lats, double[] lons, double eps, int minPoints
+  ) {
+    int n = lats.length
+    def neighbours = (0..<n).collect { i ->
+      (0..<n).findAll {
+        SpatialUtils.isWithin(lats[i], lons[i], lats[it], lons[it], eps)
+      }
+    }
+    def labels = new int[n]
+    Arrays.fill(labels, SpatialClustering.noise)
+    int cluster = 0
+    for (int i=0; i<n; i++) {
+      if (neighbours[i].size() < minPoints ||
+          labels[i] != SpatialClustering.noise)
+        continue
+      labels[i] = cluster
+      def stack = [i]
+      while (stack) {
+        int p = stack.pop()
+        for (int q : neighbours[p])
+          if (labels[q] == SpatialClustering.noise) {
+            labels[q] = cluster
+            if (neighbours[q].size() >= minPoints)
+              stack.push(q)
+          }
+      }
+      cluster++
+    }
+    labels
+  }
+
+  /**
+   * Maps the labels to the sets of points in each cluster.
+   */
+  private Set<Set<Integer>> clusters(int[] labels) {
+    (0..<labels.length)
+      .findAll { labels[it] != SpatialClustering.noise }
+      .groupBy { labels[it] }
+      .values()
+      .collect { it as Set } as Set
+  }
+
+  void 'blobs and noise'() {
+    given:
+    def random = new Random(11)
+    def centres = [[51.5, -0.12], [48.85, 2.35], [40.4, -3.7], [-33.9, 151.2]]
+    def lats = []
+    def lons = []
+    centres.each { c ->
+      200.times {
+        lats << c[0] + random.nextGaussian() * 0.02
+        lons << c[1] + random.nextGaussian() * 0.02
+      }
+    }
+    100.times {
+      lats << random.nextDouble() * 160 - 80
+      lons << random.nextDouble() * 360 - 180
+    }
+    double[] latsArr = lats as double[]
+    double[] lonsArr = lons as double[]
+
+    when:
+    def labels = SpatialClustering.dbscan(latsArr, lonsArr, 2_000, 5)
+    def expected = bruteForce(latsArr, lonsArr, 2_000, 5)
+
+    then:
+    (labels as Set).size() == 5
+    (labels as List).count { it == SpatialClustering.noise } >= 90
+    clusters(labels) == clusters(expected)
+    (0..<labels.length).every {
+      (labels[it] == SpatialClustering.noise) ==
+        (expected[it] == SpatialClustering.noise)
+    }
+  }
+
+  void 'minPoints of 1 puts each isolated point in its own cluster'() {
+    given:
+    double[] lats = [0, 0, 10, 20]
+    double[] lons = [0, 0.001, 10, 20]
+
+    expect:
+    SpatialClustering.dbscan(lats, lons, 1_000, 1) == [0, 0, 1, 2] as int[]
+  }
+
+  void 'too few points'() {
+    given:
+    double[] lats = [0, 0, 10]
+    double[] lons = [0, 0.001, 10]
+
+    expect:
+    SpatialClustering.dbscan(lats, lons, 1_000, 3) == [-1, -1, -1] as int[]
+  }
+
+  void 'empty'() {
+    expect:
+    SpatialClustering.dbscan(new double[0], new double[0], 1_000, 3).length == 0
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+class SpatialIndexSpec extends Specification {
+
+  @Shared def random = new Random(3)
+  @Shared double[] lats = (0..<3000).collect {
+    Math.toDegrees(Math.asin(random.nextDouble() * 2 - 1))
+  } as double[]
+  @Shared double[] lons = (0..<3000).collect {
+    random.nextDouble() * 360 - 180
+  } as double[]
+
+  private Set<Integer> bruteForce(double lat, double lon, double meters) {
+    (0..<lats.length).findAll {
+      SpatialUtils.distance(lat, lon, lats[it], lons[it]) <= meters
+    } as Set
+  }
+
+  void 'withinRadius'() {
+    given:
+    def index = SpatialIndex.bulkLoad(lats, lons, 1.5)
+
+    expect:
+    index.size() == lats.length
+    index.withinRadius(lat, lon, meters).toArray() as Set ==
+      bruteForce(lat, lon, meters)
+
+    where:
+    lat   | lon    | meters
+    0     | 0      | 1_000_000
+    51.5  | -0.12  | 700_000
+    -33.9 | 151.2  | 2_000_000
+    10    | 179.9  | 900_000
+    10    | -179.9 | 900_000
+    89.5  | 0      | 800_000
+    -89.9 | 45     | 300_000
+    0     | 0      | 25_000_000
+  }
+
+  void 'nearest'() {
+    given:
+    def index = SpatialIndex.bulkLoad(lats, lons, 0.7)
+    def expected = (0..<lats.length).toList().sort {
+      SpatialUtils.distance(lat, lon, lats[it], lons[it])
+    }.take(k)
+
+    expect:
+    index.nearest(lat, lon, k) as List == expected
+
+    where:
+    lat  | lon  | k
+    0    | 0    | 1
+    45   | 90   | 10
+    -60  | -179 | 25
+    89.9 | 10   | 5
+  }
+
+  void 'insert and remove'() {
+    given:
+    def index = new SpatialIndex(1)
+    def a = index.insert(35.6961, 51.4231)
+    def b = index.insert(35.7, 51.4)
+    def c = index.insert(53.3478, -6.2597)
+
+    expect:
+    index.withinRadius(35.7, 51.4, 10_000).toSortedArray() == [a, b] as int[]
+
+    when:
+    def removed = index.remove(b)
+
+    then:
+    removed
+    !index.remove(b)
+    index.size() == 2
+    index.withinRadius(35.7, 51.4, 10_000).toArray() == [a] as int[]
+    index.nearest(53, -6, 3) == [c, a] as int[]
+  }
+
+}
@@ -46,4 +46,141 @@ class SpatialUtilsSpec extends Specification {
     d << [4819.0, 478.8, 0.0, 6643, 5670, 15.73]
   }
 
+  void 'distances from an origin'() {
+    given:
+    def lats = [53.3478, 35.6961, -2.8800, 0.0, 89.9, -90.0] as double[]
+    def lons = [-6.2597, 51.4231, 23.6560, 0.0, 180.0, -179.5] as double[]
+    def dest = new double[lats.length]
+
+    when:
+    SpatialUtils.distances(51.5072, 0.1275, lats, lons, dest)
+
+    then:
+    (0..<lats.length).every {
+      Math.abs(
+        dest[it] - SpatialUtils.distance(51.5072, 0.1275, lats[it], lons[it])
+      ) < 1e-6
+    }
+  }
+
+  void 'distances of pairs'() {
+    given:
+    def lats1 = [53.3478, 53.3478, -2.8800, -23.5500, 0.0] as double[]
+    def lons1 = [-6.2597, -6.2597, 23.6560, -46.6333, 0.0] as double[]
+    def lats2 = [35.6961, 53.3478, 55.7500, 0.0, 0.1] as double[]
+    def lons2 = [51.4231, -6.2597, 37.6167, 0.0, 0.1] as double[]
+    def dest = new double[lats1.length]
+
+    when:
+    SpatialUtils.distancesPairwise(lats1, lons1, lats2, lons2, dest)
+
+    then:
+    (0..<lats1.length).every {
+      Math.abs(
+        dest[it] -
+        SpatialUtils.distance(lats1[it], lons1[it], lats2[it], lons2[it])
+      ) < 1e-6
+    }
+  }
+
+  void 'distance matrix'() {
+    given:
+    def random = new Random(7)
+    def lats1 = (0..<13).collect { random.nextDouble() * 180 - 90 } as double[]
+    def lons1 = (0..<13).collect { random.nextDouble() * 360 - 180 } as double[]
+    def lats2 = (0..<7).collect { random.nextDouble() * 180 - 90 } as double[]
+    def lons2 = (0..<7).collect { random.nextDouble() * 360 - 180 } as double[]
+    def dest = new double[13 * 7]
+
+    when:
+    SpatialUtils.distanceMatrix(lats1, lons1, lats2, lons2, dest)
+
+    then:
+    (0..<13).every { i ->
+      (0..<7).every { j ->
+        Math.abs(
+          dest[i * 7 + j] -
+          SpatialUtils.distance(lats1[i], lons1[i], lats2[j], lons2[j])
+        ) < 1e-3
+      }
+    }
+  }
+
+  /**
+   * Generates random pairs of points at most a given distance apart, both
+   * within a given latitude.
+   */
+  private static List<double[]> randomPairs(
+    long seed, int count, double maxMeters, double maxLat
+  ) {
+    def random = new Random(seed)
+    def result = []
+    while (result.size() < count) {
+      def lat1 = Math.toRadians((random.nextDouble() * 2 - 1) * maxLat)
+      def lon1 = Math.toRadians(random.nextDouble() * 360 - 180)
+      def d = (1 + random.nextDouble() * (maxMeters - 1)) /
+        SpatialUtils.earthRadius
+      def bearing = random.nextDouble() * 2 * Math.PI
+      def lat2 = Math.asin(
+        Math.sin(lat1) * Math.cos(d) +
+        Math.cos(lat1) * Math.sin(d) * Math.cos(bearing)
+      )
+      def lon2 = lon1 + Math.atan2(
+        Math.sin(bearing) * Math.sin(d) * Math.cos(lat1),
+        Math.cos(d) - Math.sin(lat1) * Math.sin(lat2)
+      )
+      if (Math.abs(Math.toDegrees(lat2)) <= maxLat)
+        result << ([
+          Math.toDegrees(lat1), Math.toDegrees(lon1),
+          Math.toDegrees(lat2), (Math.toDegrees(lon2) + 540) % 360 - 180
+        ] as double[])
+    }
+    result
+  }
+
+  void 'distance modes are within their documented error'() {
+    given:
+    def pairs = randomPairs(11, 20000, maxMeters, maxLat)
+
+    expect:
+    pairs.every { p ->
+      def exact = SpatialUtils.distance(p[0], p[1], p[2], p[3])
+      def approx = SpatialUtils.distance(mode, p[0], p[1], p[2], p[3])
+      Math.abs(approx - exact) <= maxRelError * exact
+    }
+
+    where:
+    mode                                        | maxMeters  | maxLat | maxRelError
+    SpatialUtils.DistanceMode.HAVERSINE         | 20_000_000 | 90     | 0
+    SpatialUtils.DistanceMode.EQUIRECTANGULAR   | 10_000     | 70     | 1e-6
+    SpatialUtils.DistanceMode.EQUIRECTANGULAR   | 100_000    | 70     | 1e-4
+    SpatialUtils.DistanceMode.EQUIRECTANGULAR   | 1_000_000  | 70     | 1e-2
+    SpatialUtils.DistanceMode.HAVERSINE_TABLE   | 10_000_000 | 90     | 1e-6
+    SpatialUtils.DistanceMode.HAVERSINE_TABLE   | 20_000_000 | 90     | 3e-4
+  }
+
+  void 'isWithin agrees with distance'() {
+    given:
+    def pairs = randomPairs(13, 20000, 2_000_000, 90)
+
+    expect:
+    pairs.every { p ->
+      def d = SpatialUtils.distance(p[0], p[1], p[2], p[3])
+      Math.abs(d - 500_000) < 1e-3 ||
+        SpatialUtils.isWithin(p[0], p[1], p[2], p[3], 500_000) == (d <= 500_000)
+    }
+  }
+
+  void 'chordSquared'() {
+    expect:
+    SpatialUtils.chordSquared(0, 0, 0, 0) == 0
+    Math.abs(SpatialUtils.chordSquared(0, 0, 0, 180) - 4) < 1e-12
+    Math.abs(SpatialUtils.chordSquared(0, 0, 0, 90) - 2) < 1e-12
+    Math.abs(
+      SpatialUtils.chordSquared(SpatialUtils.distance(10, 20, 30, 40)) -
+      SpatialUtils.chordSquared(10, 20, 30, 40)
+    ) < 1e-12
+    SpatialUtils.chordSquared(1e9) == 4
+  }
+
 }
@@ -0,0 +1,64 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class HashedPointSpec extends Specification {
+
+  void 'copies the coordinates'() {
+    given:
+    double[] coords = [1, 2, 3]
+    def p = new HashedPoint(coords)
+
+    when:
+    coords[0] = 9
+
+    then:
+    p.getCoord(0) == 1
+  }
+
+  void 'equals and hashes like Point'() {
+    given:
+    def p = new Point([1, -2, 3.5] as double[])
+    def h = new HashedPoint([1, -2, 3.5] as double[])
+
+    expect:
+    h == p
+    p == h
+    h.hashCode() == p.hashCode()
+    HashedPoint.of(p) == h
+    HashedPoint.of(h).is(h)
+    h != new HashedPoint([1, -2, 3.6] as double[])
+    h != new HashedPoint([1, -2] as double[])
+  }
+
+  void 'canonical'() {
+    given:
+    def nan = Double.longBitsToDouble(0x7ff8000000000123L)
+    def negativeZero = Math.copySign(0.0d, -1.0d)
+
+    expect:
+    new HashedPoint([negativeZero, 1] as double[]) !=
+      new HashedPoint([0.0d, 1] as double[])
+    HashedPoint.canonical([negativeZero, 1] as double[]) ==
+      HashedPoint.canonical([0.0d, 1] as double[])
+    HashedPoint.canonical(new Point([negativeZero, 1] as double[])) ==
+      new Point([0.0d, 1] as double[])
+    Double.doubleToRawLongBits(HashedPoint.canonicalise(nan)) ==
+      Double.doubleToRawLongBits(Double.NaN)
+    HashedPoint.canonical([nan] as double[]) ==
+      HashedPoint.canonical([Double.NaN] as double[])
+  }
+
+  void 'as a key'() {
+    given:
+    def map = [:]
+    (0..<100).each { map[new HashedPoint([it, -it] as double[])] = it }
+
+    expect:
+    (0..<100).every { map[new Point([it, -it] as double[])] == it }
+  }
+
+}
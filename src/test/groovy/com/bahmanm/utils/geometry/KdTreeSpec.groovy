@@ -0,0 +1,139 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class KdTreeSpec extends Specification {
+
+  static PointSet randomPointSet(long seed, int count, int dims) {
+    def random = new Random(seed)
+    def coords = new double[count * dims]
+    for (int i=0; i<coords.length; i++)
+      coords[i] = random.nextInt(1000) / 10.0
+    new PointSet(coords, dims)
+  }
+
+  static List<Integer> byDistance(PointSet points, Point q, Metric metric) {
+    (0..<points.size()).toList().sort { a, b ->
+      metric.distance(points.get(a), q) <=> metric.distance(points.get(b), q)
+    }
+  }
+
+  def 'nearest matches a linear scan'() {
+    given:
+    def points = randomPointSet(seed, 2000, dims)
+    def tree = KdTree.build(points, metric)
+    def q = randomPointSet(seed + 1, 1, dims).get(0)
+
+    when:
+    def result = tree.nearest(q, 10)
+    def expected = byDistance(points, q, metric).take(10)
+
+    then:
+    result.length == 10
+    result.collect { metric.distance(points.get(it), q) } ==
+      expected.collect { metric.distance(points.get(it), q) }
+
+    where:
+    seed | dims | metric
+    1    | 1    | Metrics.EUCLIDEAN
+    2    | 2    | Metrics.EUCLIDEAN
+    3    | 3    | Metrics.MANHATTAN
+    4    | 5    | Metrics.CHEBYSHEV
+  }
+
+  def 'nearest with k larger than the size'() {
+    given:
+    def points = randomPointSet(5, 7, 2)
+
+    expect:
+    (KdTree.build(points).nearest(points.get(3), 20) as List).sort() ==
+      (0..<7).toList()
+    KdTree.build(points).nearest(points.get(3), 0).length == 0
+    KdTree.build(new PointSet(0, 2)).nearest(points.get(3), 3).length == 0
+  }
+
+  def 'withinRadius matches a linear scan'() {
+    given:
+    def points = randomPointSet(seed, 2000, 3)
+    def tree = KdTree.build(points, metric)
+    def q = randomPointSet(seed + 1, 1, 3).get(0)
+
+    expect:
+    tree.withinRadius(q, 15).toSortedArray() ==
+      (0..<points.size()).findAll {
+        metric.distance(points.get(it), q) <= 15
+      } as int[]
+
+    where:
+    seed | metric
+    6    | Metrics.EUCLIDEAN
+    7    | Metrics.MANHATTAN
+    8    | Metrics.CHEBYSHEV
+  }
+
+  def 'withinBox matches a linear scan'() {
+    given:
+    def points = randomPointSet(9, 2000, 3)
+    def min = new Point([10, 20, 30] as double[])
+    def max = new Point([40, 50, 90] as double[])
+
+    expect:
+    KdTree.build(points).withinBox(min, max).toSortedArray() ==
+      (0..<points.size()).findAll { i ->
+        (0..<3).every {
+          points.getCoord(i, it) >= min.getCoord(it) &&
+            points.getCoord(i, it) <= max.getCoord(it)
+        }
+      } as int[]
+  }
+
+  def 'duplicate points'() {
+    given:
+    def points = new PointSet(([1, 1] * 100) as double[], 2)
+    def tree = KdTree.build(points)
+
+    expect:
+    tree.withinRadius(new Point([1, 1] as double[]), 0).size() == 100
+    tree.nearest(new Point([0, 0] as double[]), 5).length == 5
+  }
+
+  def 'buildParallel is identical to build'() {
+    given:
+    def points = randomPointSet(10, 50_000, 3)
+    def q = new Point([50, 50, 50] as double[])
+
+    when:
+    def sequential = KdTree.build(points, Metrics.EUCLIDEAN)
+    def parallel = KdTree.buildParallel(points, Metrics.EUCLIDEAN)
+
+    then:
+    parallel.nearest(q, 50) == sequential.nearest(q, 50)
+    parallel.withinRadius(q, 5).toSortedArray() ==
+      sequential.withinRadius(q, 5).toSortedArray()
+  }
+
+  def 'build from a collection'() {
+    given:
+    def points = [
+      new Point([0, 0] as double[]),
+      new Point([5, 5] as double[]),
+      new Point([1, 0] as double[])
+    ]
+
+    expect:
+    KdTree.build(points, Metrics.MANHATTAN)
+      .nearest(new Point([0.9, 0.1] as double[]), 2) == [2, 0] as int[]
+  }
+
+  def 'the cosine metric is rejected'() {
+    when:
+    KdTree.build(randomPointSet(1, 10, 2), Metrics.COSINE)
+
+    then:
+    thrown AssertionError
+  }
+
+}
@@ -0,0 +1,118 @@
+package com.bahmanm.utils.geometry
+
+import com.bahmanm.utils.RandomSampler
+import spock.lang.Shared
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class LshIndexSpec extends Specification {
+
+  @Shared int dims = 64
+  @Shared RandomSampler random = new RandomSampler(17)
+  // 40 clusters of 50 points each
+  @Shared PointSet points = clusters(40, 50)
+  @Shared List<Point> queries = (0..<100).collect {
+    def p = points.get(random.nextInt(points.size()))
+    new Point((0..<dims).collect {
+      p.getCoord(it) + random.nextGaussian() * 0.2
+    } as double[])
+  }
+
+  private PointSet clusters(int count, int perCluster) {
+    def result = new PointSet(count * perCluster, dims)
+    for (int c=0; c<count; c++) {
+      def centre = (0..<dims).collect { random.nextGaussian() * 10 }
+      for (int i=0; i<perCluster; i++)
+        for (int d=0; d<dims; d++)
+          result.setCoord(
+            c * perCluster + i, d, centre[d] + random.nextGaussian() * 0.5
+          )
+    }
+    result
+  }
+
+  private int bruteForceNearest(Point q, Metric metric) {
+    (0..<points.size()).min { metric.distance(q, points.get(it)) }
+  }
+
+  private double recall(LshIndex index) {
+    queries.count {
+      def found = index.nearest(it, 1)
+      found.length == 1 &&
+        found[0] == bruteForceNearest(it, index.getMetric())
+    } / queries.size()
+  }
+
+  void 'euclidean'() {
+    given:
+    def index = LshIndex.euclidean(points, 8, 6, 20, new RandomSampler(1))
+
+    expect:
+    index.size() == points.size()
+    index.dims == dims
+    index.tables == 8
+    index.hashesPerTable == 6
+    index.metric == Metrics.EUCLIDEAN
+    recall(index) >= 0.9
+    // far fewer candidates than points
+    queries.sum { index.candidates(it).size() } / queries.size() <
+      points.size() / 4
+  }
+
+  void 'cosine'() {
+    given:
+    def index = LshIndex.cosine(points, 10, 8, new RandomSampler(1))
+
+    expect:
+    index.metric == Metrics.COSINE
+    recall(index) >= 0.9
+  }
+
+  void 'cosine ignores the length of the query'() {
+    given:
+    def index = LshIndex.cosine(points, 4, 8, new RandomSampler(1))
+    def q = queries[0]
+    def scaled = new Point((0..<dims).collect { q.getCoord(it) * 3 }
+      as double[])
+
+    expect:
+    index.candidates(q).toSortedArray() ==
+      index.candidates(scaled).toSortedArray()
+  }
+
+  void 'an indexed point is its own nearest'() {
+    given:
+    def index = LshIndex.euclidean(points, 2, 4, 20, new RandomSampler(1))
+
+    expect:
+    [0, 77, 1999].every { index.nearest(points.get(it), 1) == [it] as int[] }
+  }
+
+  void 'nearest is sorted and distinct'() {
+    given:
+    def index = LshIndex.euclidean(points, 8, 6, 20, new RandomSampler(1))
+    def q = queries[1]
+    def found = index.nearest(q, 10)
+    def distances =
+      found.collect { Metrics.EUCLIDEAN.distance(q, points.get(it)) }
+
+    expect:
+    found.length == 10
+    (found as Set).size() == 10
+    distances == distances.sort(false)
+  }
+
+  void 'same seed, same index'() {
+    given:
+    def a = LshIndex.cosine(points, 4, 8, new RandomSampler(5))
+    def b = LshIndex.cosine(points, 4, 8, new RandomSampler(5))
+
+    expect:
+    queries.every {
+      a.candidates(it).toSortedArray() == b.candidates(it).toSortedArray()
+    }
+  }
+
+}
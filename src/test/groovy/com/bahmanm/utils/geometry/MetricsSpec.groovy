@@ -0,0 +1,43 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class MetricsSpec extends Specification {
+
+  def 'metrics are norms of Points.distance'() {
+    given:
+    def p = new Point([1, -2, 7] as double[])
+    def o = new Point([4, 2, 7] as double[])
+    def diff = Points.distance(p, o)
+    def coords = (0..<3).collect { Math.abs(diff.getCoord(it)) }
+
+    expect:
+    Metrics.EUCLIDEAN.distance(p, o) == Math.sqrt(coords.sum { it * it })
+    Metrics.MANHATTAN.distance(p, o) == coords.sum()
+    Metrics.CHEBYSHEV.distance(p, o) == coords.max()
+    Metrics.EUCLIDEAN.distance(p, o) == 5
+  }
+
+  def 'distance over ranges of arrays'() {
+    expect:
+    Metrics.MANHATTAN.distance(
+      [9, 1, 2] as double[], 1, [3, 4, 9, 9] as double[], 0, 2
+    ) == 4
+  }
+
+  def 'cosine'() {
+    expect:
+    Metrics.COSINE.distance(
+      new Point([1, 0] as double[]), new Point([5, 0] as double[])) == 0
+    Math.abs(Metrics.COSINE.distance(
+      new Point([1, 0] as double[]), new Point([0, 2] as double[])) - 1) < 1e-12
+    Metrics.COSINE.distance(
+      new Point([1, 1] as double[]), new Point([-2, -2] as double[])) == 2
+    Metrics.COSINE.distance(
+      new Point([0, 0] as double[]), new Point([1, 2] as double[])) == 1
+  }
+
+}
@@ -0,0 +1,75 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class MutablePointSpec extends Specification {
+
+  void 'setCoord and set'() {
+    given:
+    def p = new MutablePoint(2)
+
+    expect:
+    p.toPoint() == new Point([0, 0] as double[])
+
+    when:
+    p.setCoord(1, 7)
+
+    then:
+    p.getCoord(1) == 7
+    p.toPoint() == new Point([0, 7] as double[])
+
+    when:
+    p.set(new Point([3, 4] as double[]))
+
+    then:
+    p.toPoint() == new Point([3, 4] as double[])
+  }
+
+  void 'never equals an immutable Point'() {
+    given:
+    def p = new MutablePoint([1, 2] as double[])
+    def o = new Point([1, 2] as double[])
+    def set = [o] as Set
+
+    expect:
+    !p.equals(o)
+    !o.equals(p)
+    !set.contains(p)
+    p == new MutablePoint([1, 2] as double[])
+    p.hashCode() == new MutablePoint([1, 2] as double[]).hashCode()
+    p != new MutablePoint([1, 3] as double[])
+  }
+
+  void 'toPoint is a standalone copy'() {
+    given:
+    def p = new MutablePoint([1, 2] as double[])
+    def copy = p.toPoint()
+
+    when:
+    p.setCoord(0, 5)
+
+    then:
+    copy == new Point([1, 2] as double[])
+    copy.getClass() == Point
+  }
+
+  void 'a view into a range of an array'() {
+    given:
+    def coords = [9, 9, 1, 2, 9] as double[]
+    def p = new MutablePoint(coords, 2, 2)
+
+    when:
+    p.setCoord(1, 5)
+    Points.plus(p, new Point([10, 10] as double[]), p)
+    Points.negate(new Point([3, 4] as double[]), new MutablePoint(coords, 0, 2))
+
+    then:
+    p.toPoint() == new Point([11, 15] as double[])
+    p.toPoint().dims == 2
+    coords as List == [-3, -4, 11, 15, 9]
+  }
+
+}
@@ -0,0 +1,45 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class NeighboursSpec extends Specification {
+
+  void 'keeps the k nearest, nearest first'() {
+    given:
+    def random = new Random(7)
+    def distances = (0..<200).collect { random.nextDouble() }
+    def neighbours = new Neighbours(k)
+
+    when:
+    distances.eachWithIndex { d, i ->
+      if (neighbours.isCloser(d))
+        neighbours.offer(i, d)
+    }
+
+    then:
+    neighbours.capacity == k
+    neighbours.toIds(null) as List ==
+      (0..<200).sort(false) { distances[it] }.take(k)
+
+    where:
+    k << [0, 1, 5, 200]
+  }
+
+  void 'fewer points than k and ids of positions'() {
+    given:
+    def neighbours = new Neighbours(5)
+
+    when:
+    neighbours.offer(0, 3.0)
+    neighbours.offer(1, 1.0)
+
+    then:
+    neighbours.isCloser(100)
+    neighbours.toIds([10, 11] as int[]) == [11, 10] as int[]
+    neighbours.toIds(null).length == 0
+  }
+
+}
@@ -2,6 +2,9 @@ package com.bahmanm.utils.geometry
 
 import spock.lang.Specification
 
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
 /**
  * @author Bahman Movaqar [Bahman AT BahmanM.com]
  */
@@ -22,4 +25,152 @@ class OrthantsSpec extends Specification {
     ]
   }
 
+  def 'getOrthantSign matches the lexicographic numbering'() {
+    expect:
+    (1..Orthants.getOrthantCount(dims)).every {
+      Orthants.getOrthantSign(dims, it) ==
+        new Point(lexicographicSigns(dims)[it - 1] as double[])
+    }
+    where:
+    dims << [1, 2, 3, 4, 5]
+  }
+
+  def 'getOrthantSign is cached'() {
+    expect:
+    Orthants.getOrthantSign(3, 6).is(Orthants.getOrthantSign(3, 6))
+  }
+
+  def 'getOrthantSign beyond the cached dimensions'() {
+    given:
+    def dims = 20
+    def count = Orthants.getOrthantCount(dims)
+    expect:
+    Orthants.getOrthantSign(dims, 1) ==
+      new Point([1] * dims as double[])
+    Orthants.getOrthantSign(dims, count / 2 + 1 as int) ==
+      new Point([-1] * dims as double[])
+    Orthants.getOrthantSign(dims, count) ==
+      new Point(([-1] + [1] * (dims - 1)) as double[])
+  }
+
+  def 'getOrthantSign from multiple threads'() {
+    given:
+    def pool = Executors.newFixedThreadPool(8)
+    when:
+    def results = pool.invokeAll(
+      (1..8).collect {
+        { -> (1..256).collect { Orthants.getOrthantSign(8, it) } } as Callable
+      }
+    )*.get()
+    then:
+    results.every { it == results[0] }
+    results.every { r -> (0..<256).every { r[it].is(results[0][it]) } }
+    cleanup:
+    pool.shutdown()
+  }
+
+  def 'getOrthantCount'() {
+    expect:
+    Orthants.getOrthantCount(dims) == count
+    where:
+    dims << [1, 2, 3, 10, 30]
+    count << [2, 4, 8, 1024, 1 << 30]
+  }
+
+  def 'getOrthant is the inverse of getOrthantSign'() {
+    given:
+    def origin = new Point([0.5, -1, 2] as double[])
+    def p = new Point([3, 0.25, -4] as double[])
+    expect:
+    (1..8).every {
+      Orthants.getOrthant(Points.toOrthant(p, origin, it), origin) == it
+    }
+  }
+
+  def 'getOrthant on the boundary counts as positive'() {
+    expect:
+    Orthants.getOrthant(
+      new Point([0, -1] as double[]), Points.getPointZero(2)
+    ) == 2
+  }
+
+  def 'classify'() {
+    given:
+    def origin = new Point([1, 1] as double[])
+    def points = [
+      new Point([2, 2] as double[]),
+      new Point([2, 0] as double[]),
+      new Point([0, 0] as double[]),
+      new Point([0, 2] as double[])
+    ]
+    expect:
+    Orthants.classify(points, origin) == [1, 2, 3, 4] as int[]
+    Orthants.classify(PointSet.of(points), origin) == [1, 2, 3, 4] as int[]
+  }
+
+  def 'partition'() {
+    given:
+    def points = SkylinesSpec.randomPoints(11, 1000, 3)
+    def origin = new Point([24.5, 24.5, 24.5] as double[])
+    def orthants = Orthants.classify(points, origin)
+    when:
+    def partition = Orthants.partition(points, origin)
+    then:
+    partition.orthantCount == 8
+    (1..8).every { k ->
+      partition.getIndices(k) ==
+        (0..<points.size()).findAll { orthants[it] == k } as int[]
+    }
+    (partition.indices as List).sort() == (0..<points.size()).toList()
+    Orthants.partition(PointSet.of(points), origin).indices == partition.indices
+  }
+
+  def 'partitionParallel'() {
+    given:
+    def random = new Random(5)
+    def coords = new double[300_000 * 4]
+    for (int i=0; i<coords.length; i++)
+      coords[i] = random.nextGaussian()
+    def points = new PointSet(coords, 4)
+    def origin = Points.getPointZero(4)
+    when:
+    def sequential = Orthants.partition(points, origin)
+    def parallel = Orthants.partitionParallel(points, origin)
+    then:
+    parallel.indices == sequential.indices
+    (1..16).every { parallel.size(it) == sequential.size(it) }
+  }
+
+  def 'getGrayOrder'() {
+    expect:
+    Orthants.getGrayOrder(2) == [1, 2, 3, 4] as int[]
+    Orthants.getGrayOrder(3) == [1, 2, 4, 3, 6, 5, 7, 8] as int[]
+    (1..6).every { dims ->
+      def order = Orthants.getGrayOrder(dims)
+      def count = Orthants.getOrthantCount(dims)
+      (order as List).sort(false) == (1..count).toList() &&
+        (1..<count).every { step ->
+          def before = Orthants.getOrthantSign(dims, order[step - 1])
+          def after = Orthants.getOrthantSign(dims, order[step])
+          def flip = Orthants.getGrayFlip(dims, step)
+          (0..<dims).every {
+            (before.getCoord(it) == after.getCoord(it)) == (it != flip)
+          }
+        }
+    }
+  }
+
+  /**
+   * The numbering by definition: the upper half of the sorted sign lists in
+   * reverse, followed by the lower half.
+   */
+  static List<List<Integer>> lexicographicSigns(int dims) {
+    def sorted = [[-1, 1]] * dims
+    sorted = sorted.combinations().collect { it.reverse() }.sort { a, b ->
+      [a, b].transpose().findResult { x, y -> x <=> y ?: null } ?: 0
+    }
+    def half = sorted.size() / 2 as int
+    sorted.reverse().take(half) + sorted.take(half)
+  }
+
 }
@@ -0,0 +1,157 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class PointFilesSpec extends Specification {
+
+  Path path
+
+  def setup() {
+    path = Files.createTempFile('points', '.bin')
+  }
+
+  def cleanup() {
+    Files.deleteIfExists(path)
+  }
+
+  def 'write and open a collection of points'() {
+    given:
+    def points = SkylinesSpec.randomPoints(1, 1000, 3)
+
+    when:
+    PointFiles.write(path, points)
+    def store = PointFiles.open(path)
+
+    then:
+    store.size() == 1000
+    store.dims == 3
+    store.collect { it } == points
+    store.get(7) == points[7]
+    store.get(7).hashCode() == points[7].hashCode()
+    store.get(7).toString() == points[7].toString()
+    store.getCoord(999, 2) == points[999].getCoord(2)
+    store.toPointSet().toList() == points
+    store.isValid()
+    Files.size(path) == 32 + 1000 * 3 * 8
+  }
+
+  def 'write a point set'() {
+    given:
+    def points = PointSet.of(SkylinesSpec.randomPoints(2, 10, 4))
+
+    when:
+    PointFiles.write(path, points)
+
+    then:
+    PointFiles.open(path).toPointSet().toList() == points.toList()
+  }
+
+  def 'an empty file of points'() {
+    when:
+    PointFiles.write(path, 2, Collections.emptyIterator())
+    def store = PointFiles.open(path)
+
+    then:
+    store.size() == 0
+    store.collect { it } == []
+    store.isValid()
+  }
+
+  def 'points are read across segments'() {
+    given:
+    def points = SkylinesSpec.randomPoints(3, 1000, 3)
+    PointFiles.write(path, points)
+
+    when:
+    // 64 points (1536 bytes) per segment
+    def store = PointFiles.open(path, 2000)
+
+    then:
+    store.collect { it } == points
+    store.get(64) == points[64]
+    store.get(999) == points[999]
+    store.isValid()
+  }
+
+  def 'corrupt data fails the checksum'() {
+    given:
+    PointFiles.write(path, SkylinesSpec.randomPoints(4, 100, 2))
+    Files.newByteChannel(path, StandardOpenOption.WRITE).withCloseable {
+      it.position(100)
+      it.write(ByteBuffer.wrap([1, 2, 3] as byte[]))
+    }
+
+    expect:
+    !PointFiles.open(path).isValid()
+  }
+
+  static List header(int dims, long count) {
+    ByteBuffer.allocate(32)
+      .order(ByteOrder.LITTLE_ENDIAN)
+      .putInt(PointFiles.magic)
+      .putInt(PointFiles.version)
+      .putInt(dims)
+      .putInt(0)
+      .putLong(count)
+      .putLong(0)
+      .array() as List
+  }
+
+  def 'invalid files are rejected'() {
+    when:
+    Files.write(path, content as byte[])
+    PointFiles.open(path)
+
+    then:
+    thrown IOException
+
+    where:
+    content << [
+      [], [1, 2, 3, 4] * 8,
+      // count * dims * 8 overflows to 0
+      header(1, 1L << 61), header(4, 1L << 59), header(1, Long.MAX_VALUE)
+    ]
+  }
+
+  def 'points wider than the write buffer'() {
+    given:
+    def random = new Random(6)
+    def point = new Point(
+      (0..<200000).collect { random.nextDouble() } as double[]
+    )
+
+    when:
+    PointFiles.write(path, [point, Points.negate(point)])
+    def store = PointFiles.open(path)
+
+    then:
+    store.size() == 2
+    store.get(0) == point
+    store.get(1) == Points.negate(point)
+    store.isValid()
+  }
+
+  def 'truncated data is rejected'() {
+    given:
+    PointFiles.write(path, SkylinesSpec.randomPoints(5, 100, 2))
+    Files.newByteChannel(path, StandardOpenOption.WRITE).withCloseable {
+      it.truncate(500)
+    }
+
+    when:
+    PointFiles.open(path)
+
+    then:
+    thrown IOException
+  }
+
+}
@@ -0,0 +1,89 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class PointHashSetSpec extends Specification {
+
+  private static Point point(double... coords) {
+    new Point(coords)
+  }
+
+  void 'add, contains and remove'() {
+    given:
+    def set = new PointHashSet(2)
+
+    expect:
+    set.isEmpty()
+    set.add(point(1, 2))
+    !set.add(point(1, 2))
+    set.add([0, 3, 4] as double[], 1)
+    set.size() == 2
+    set.contains(point(3, 4))
+    set.contains([1, 2] as double[], 0)
+    !set.contains(point(2, 1))
+    set.remove(point(1, 2))
+    !set.remove(point(1, 2))
+    set.remove([3, 4] as double[], 0)
+    set.isEmpty()
+  }
+
+  void 'agrees with a HashSet of points'() {
+    given:
+    def random = new Random(5)
+    def set = new PointHashSet(3, 0, false)
+    def expected = new HashSet<Point>()
+
+    when:
+    20_000.times {
+      // few distinct coordinates, so there are many collisions and removals
+      def p = point(random.nextInt(8), random.nextInt(8), random.nextInt(8))
+      if (random.nextInt(3) == 0)
+        assert set.remove(p) == expected.remove(p)
+      else
+        assert set.add(p) == expected.add(p)
+    }
+
+    then:
+    set.size() == expected.size()
+    set.toPointSet().toList() as Set == expected
+    (0..<8).every { x -> (0..<8).every { y -> (0..<8).every { z ->
+      set.contains(point(x, y, z)) == expected.contains(point(x, y, z))
+    } } }
+  }
+
+  void 'canonical'() {
+    given:
+    def plain = new PointHashSet(1)
+    def canonical = new PointHashSet(1, 4, true)
+    def negativeZero = Math.copySign(0.0d, -1.0d)
+
+    when:
+    plain.add(point(negativeZero))
+    canonical.add(point(negativeZero))
+
+    then:
+    !plain.contains(point(0.0d))
+    canonical.contains(point(0.0d))
+    canonical.toPointSet().getCoord(0, 0).equals(0.0d)
+  }
+
+  void 'of and clear'() {
+    given:
+    def set = PointHashSet.of(new PointSet([1, 2, 3, 4, 1, 2] as double[], 2))
+
+    expect:
+    set.size() == 2
+
+    when:
+    set.clear()
+
+    then:
+    set.isEmpty()
+    !set.contains(point(1, 2))
+    set.add(point(1, 2))
+  }
+
+}
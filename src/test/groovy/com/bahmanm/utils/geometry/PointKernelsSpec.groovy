@@ -0,0 +1,153 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class PointKernelsSpec extends Specification {
+
+  static def scalar = PointKernels.load('scalar')
+  static def selected = PointKernels.load('vector')
+  static def specials = [
+    0.0d, Math.copySign(0.0d, -1.0d), Double.NaN, Double.POSITIVE_INFINITY,
+    Double.NEGATIVE_INFINITY, Double.MIN_VALUE, -1.5d
+  ]
+
+  static double[] randomCoords(Random random, int length) {
+    (0..<length).collect {
+      random.nextInt(8) == 0 ?
+        specials[random.nextInt(specials.size())] :
+        (double) (random.nextInt(7) - 3)
+    } as double[]
+  }
+
+  static List bits(double[] coords) {
+    coords.collect { Double.doubleToRawLongBits(it) }
+  }
+
+  static boolean isClose(double actual, double expected) {
+    actual == expected ||
+      (actual.isNaN() && expected.isNaN()) ||
+      Math.abs(actual - expected) <= 1e-12 * Math.abs(expected)
+  }
+
+  void 'loading'() {
+    given: 'the vectorTest task expects the Vector API kernels'
+    def hasVectorApi = System.getProperty(
+      'com.bahmanm.utils.geometry.kernels.expected'
+    ) == 'vector'
+    if (!hasVectorApi)
+      try {
+        Class.forName('com.bahmanm.utils.geometry.VectorPointKernels')
+        hasVectorApi = true
+      } catch (ClassNotFoundException | LinkageError e) {
+        hasVectorApi = false
+      }
+
+    expect:
+    scalar instanceof PointKernels.Scalar
+    PointKernels.load('nonsense') instanceof PointKernels.Scalar
+    PointKernels.kernels.class == selected.class
+    !hasVectorApi || !(selected instanceof PointKernels.Scalar)
+  }
+
+  void 'same results as the scalar kernels'() {
+    given:
+    def random = new Random(length)
+    def a = randomCoords(random, length + 3)
+    def b = randomCoords(random, length + 2)
+    def expected = new double[length + 1]
+    def actual = new double[length + 1]
+
+    expect:
+    [[3, 2, 1], [0, 0, 0], [1, 2, 0]].every { int aOff, int bOff, int dOff ->
+      scalar.plus(a, aOff, b, bOff, expected, dOff, length)
+      selected.plus(a, aOff, b, bOff, actual, dOff, length)
+      assert bits(actual) == bits(expected)
+      scalar.multiply(a, aOff, b, bOff, expected, dOff, length)
+      selected.multiply(a, aOff, b, bOff, actual, dOff, length)
+      assert bits(actual) == bits(expected)
+      [true, false].each { isAbsValue ->
+        scalar.subtract(a, aOff, b, bOff, expected, dOff, length, isAbsValue)
+        selected.subtract(a, aOff, b, bOff, actual, dOff, length, isAbsValue)
+        assert bits(actual) == bits(expected)
+      }
+      scalar.negate(a, aOff, expected, dOff, length)
+      selected.negate(a, aOff, actual, dOff, length)
+      assert bits(actual) == bits(expected)
+      scalar.trim(a, aOff, b, bOff, expected, dOff, length)
+      selected.trim(a, aOff, b, bOff, actual, dOff, length)
+      assert bits(actual) == bits(expected)
+      true
+    }
+
+    where:
+    length << (1..37)
+  }
+
+  void 'reductions'() {
+    given:
+    def random = new Random(length)
+    def a = randomCoords(random, length + 3)
+    def b = randomCoords(random, length + 2)
+    def x = (0..<length).collect { random.nextDouble() } as double[]
+    def y = (0..<length).collect { random.nextDouble() } as double[]
+
+    expect:
+    [[a, 3, b, 2], [a, 0, b, 0], [x, 0, y, 0]].every {
+      double[] p, int pOff, double[] o, int oOff ->
+      assert isClose(
+        selected.sumSquaredDifferences(p, pOff, o, oOff, length),
+        scalar.sumSquaredDifferences(p, pOff, o, oOff, length)
+      )
+      assert isClose(
+        selected.sumAbsDifferences(p, pOff, o, oOff, length),
+        scalar.sumAbsDifferences(p, pOff, o, oOff, length)
+      )
+      assert Double.doubleToLongBits(
+        selected.maxAbsDifference(p, pOff, o, oOff, length)
+      ) == Double.doubleToLongBits(
+        scalar.maxAbsDifference(p, pOff, o, oOff, length)
+      )
+      true
+    }
+    scalar.sumSquaredDifferences(x, 0, y, 0, length) ==
+      (0..<length).sum { (x[it] - y[it]) * (x[it] - y[it]) }
+
+    where:
+    length << (1..37)
+  }
+
+  void 'isDominates'() {
+    given:
+    def random = new Random(length)
+    def zero = new double[length]
+    def tail = new double[length]
+    tail[length - 1] = 1
+    def head = new double[length]
+    head[0] = -1
+    head[length - 1] = 1
+
+    expect:
+    (0..<200).every {
+      def a = randomCoords(random, length)
+      def b = a.collect {
+        random.nextBoolean() ? it : it + random.nextInt(3) - 0.5
+      } as double[]
+      selected.isDominates(a, 0, b, 0, length) ==
+        scalar.isDominates(a, 0, b, 0, length) &&
+      selected.isDominates(b, 0, a, 0, length) ==
+        scalar.isDominates(b, 0, a, 0, length)
+    }
+    !selected.isDominates(zero, 0, zero, 0, length)
+    selected.isDominates(zero, 0, tail, 0, length)
+    !selected.isDominates(tail, 0, zero, 0, length)
+    !selected.isDominates(head, 0, zero, 0, length)
+    length == 1 || !selected.isDominates(zero, 0, head, 0, length)
+
+    where:
+    length << [1, 2, 3, 4, 7, 8, 9, 16, 17, 31, 64]
+  }
+
+}
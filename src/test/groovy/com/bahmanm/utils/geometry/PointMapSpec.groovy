@@ -0,0 +1,76 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class PointMapSpec extends Specification {
+
+  private static Point point(double... coords) {
+    new Point(coords)
+  }
+
+  void 'put, get and remove'() {
+    given:
+    def map = new PointMap<String>(2)
+
+    expect:
+    map.put(point(1, 2), 'a') == null
+    map.put(point(1, 2), 'b') == 'a'
+    map.put([0, 3, 4] as double[], 1, 'c') == null
+    map.size() == 2
+    map.get(point(1, 2)) == 'b'
+    map.get([3, 4] as double[], 0) == 'c'
+    map.get(point(4, 3)) == null
+    map.containsKey(point(3, 4))
+    !map.containsKey([4, 3] as double[], 0)
+    map.remove(point(1, 2)) == 'b'
+    map.remove(point(1, 2)) == null
+    map.remove([3, 4] as double[], 0) == 'c'
+    map.isEmpty()
+  }
+
+  void 'agrees with a HashMap of points'() {
+    given:
+    def random = new Random(9)
+    def map = new PointMap<Integer>(2, 0, false)
+    def expected = new HashMap<Point, Integer>()
+
+    when:
+    50_000.times {
+      def p = point(random.nextInt(30), random.nextInt(30))
+      switch (random.nextInt(4)) {
+        case 0:
+          assert map.remove(p) == expected.remove(p)
+          break
+        default:
+          assert map.put(p, it) == expected.put(p, it)
+      }
+    }
+    def entries = [:]
+    map.forEach { k, v -> entries[new Point([k.getCoord(0), k.getCoord(1)]
+      as double[])] = v }
+
+    then:
+    map.size() == expected.size()
+    entries == expected
+    (0..<30).every { x -> (0..<30).every { y ->
+      map.get(point(x, y)) == expected.get(point(x, y))
+    } }
+  }
+
+  void 'canonical'() {
+    given:
+    def map = new PointMap<String>(2, 4, true)
+    def negativeZero = Math.copySign(0.0d, -1.0d)
+
+    when:
+    map.put(point(negativeZero, 1), 'a')
+
+    then:
+    map.get(point(0.0d, 1)) == 'a'
+    map.get(point(negativeZero, 1)) == 'a'
+  }
+
+}
@@ -0,0 +1,77 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class PointSetSpec extends Specification {
+
+  static def points = [
+    new Point([1, 4] as double[]),
+    new Point([-2, 0.5] as double[]),
+    new Point([3, -7] as double[])
+  ]
+
+  void 'of, get and toList'() {
+    given:
+    def ps = PointSet.of(points)
+
+    expect:
+    ps.size() == 3
+    ps.dims == 2
+    ps.getCoord(2, 1) == -7
+    ps.get(1) == points[1]
+    ps.toList() == points
+    ps.collect { it } == points
+  }
+
+  void 'views share the storage'() {
+    given:
+    def ps = PointSet.of(points)
+    def view = ps.get(0)
+
+    when:
+    ps.setCoord(0, 1, 9)
+
+    then:
+    view == new Point([1, 9] as double[])
+    view.hashCode() == new Point([1, 9] as double[]).hashCode()
+    view.toString() == 'Point[1.0, 9.0]'
+  }
+
+  void 'bulk operations agree with Points'() {
+    given:
+    def ps = PointSet.of(points)
+    def o = new Point([2, 2] as double[])
+
+    expect:
+    ps.plus(o).toList() == points.collect { Points.plus(it, o) }
+    ps.multiply(o).toList() == points.collect { Points.multiply(it, o) }
+    ps.negate().toList() == points.collect { Points.negate(it) }
+    ps.distance(o).toList() == points.collect { Points.distance(it, o) }
+    ps.distanceAbs(o).toList() == points.collect { Points.distanceAbs(it, o) }
+    ps.translate(o).toList() == points.collect { Points.translate(it, o) }
+    ps.trimRelative(o).toList() ==
+      points.collect { Points.trimRelative(it, o) }
+    (1..4).every { orthant ->
+      ps.toOrthant(o, orthant).toList() ==
+        points.collect { Points.toOrthant(it, o, orthant) }
+    }
+  }
+
+  void 'in place'() {
+    given:
+    def ps = PointSet.of(points)
+
+    when:
+    def result = ps.plus(new Point([1, 1] as double[]), ps)
+
+    then:
+    result.is(ps)
+    ps.toList() == points.collect {
+      Points.plus(it, new Point([1, 1] as double[]))
+    }
+  }
+
+}
@@ -0,0 +1,145 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.util.stream.Collectors
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class PointStatisticsSpec extends Specification {
+
+  @Shared def random = new Random(23)
+  @Shared List<Point> points = (0..<1000).collect {
+    new Point([
+      random.nextGaussian() * 3 + 1e6,
+      random.nextDouble() * 10 - 5,
+      random.nextInt(7)
+    ] as double[])
+  }
+
+  /**
+   * Checks the statistics against a naive two-pass computation.
+   */
+  private void check(PointStatistics stats, List<Point> expected) {
+    assert stats.count == expected.size()
+    for (int d=0; d<3; d++) {
+      def xs = expected.collect { it.getCoord(d) }
+      def mean = xs.sum() / xs.size()
+      def variance = xs.sum { (it - mean) * (it - mean) } / xs.size()
+      assert stats.getMin(d) == xs.min()
+      assert stats.getMax(d) == xs.max()
+      assert Math.abs(stats.getMean(d) - mean) <= 1e-9 * Math.abs(mean) + 1e-9
+      assert Math.abs(stats.getVariance(d) - variance) <= 1e-6 * variance + 1e-9
+    }
+  }
+
+  void 'single pass'() {
+    given:
+    def stats = new PointStatistics(3)
+
+    when:
+    points.each { stats.accept(it) }
+
+    then:
+    check(stats, points)
+    stats.min == new Point((0..<3).collect { stats.getMin(it) } as double[])
+    stats.mean.dims == 3
+    Math.abs(stats.getSampleVariance(1) / stats.getVariance(1) - 1000 / 999) <
+      1e-9
+  }
+
+  void 'of, accept from arrays and empty statistics'() {
+    given:
+    def ps = PointSet.of(points)
+    def stats = new PointStatistics(3)
+    double[] coords = [0, 1, 2, 3, 4]
+
+    when:
+    stats.accept(coords, 1)
+
+    then:
+    check(PointStatistics.of(ps), points)
+    stats.getMean(2) == 3
+    stats.getVariance(0) == 0
+    new PointStatistics(2).count == 0
+    new PointStatistics(2).getMin(0) == Double.POSITIVE_INFINITY
+  }
+
+  void 'combine'() {
+    given:
+    def a = new PointStatistics(3)
+    def b = new PointStatistics(3)
+    points[0..<300].each { a.accept(it) }
+    points[300..<1000].each { b.accept(it) }
+
+    expect:
+    check(a.copy().combine(b), points)
+    check(a.copy().combine(new PointStatistics(3)), points[0..<300])
+    check(new PointStatistics(3).combine(a), points[0..<300])
+  }
+
+  void 'collector'() {
+    expect:
+    check(points.parallelStream().collect(PointStatistics.collector(3)), points)
+    check(points.stream().collect(PointStatistics.collector(3)), points)
+  }
+
+  void 'tumbling windows'() {
+    given:
+    def windows = []
+    def tumbling = new PointStatistics.Tumbling(3, 300, { windows << it })
+
+    when:
+    points.each { tumbling.accept(it) }
+
+    then:
+    windows.size() == 3
+
+    when:
+    tumbling.flush()
+    tumbling.flush()
+
+    then:
+    windows.size() == 4
+    (0..<4).every {
+      check(windows[it], points[(it * 300)..<Math.min((it + 1) * 300, 1000)])
+      true
+    }
+  }
+
+  void 'sliding window'() {
+    given:
+    def sliding = new PointStatistics.Sliding(3, size)
+
+    expect:
+    sliding.snapshot().count == 0
+    points.withIndex().every { p, i ->
+      sliding.accept(p)
+      if (i % 37 == 0 || i > 990)
+        check(sliding.snapshot(), points[Math.max(0, i - size + 1)..i])
+      true
+    }
+    sliding.count == Math.min(size, points.size())
+
+    where:
+    size << [1, 10, 128, 2000]
+  }
+
+  void 'sliding window over arrays'() {
+    given:
+    def sliding = new PointStatistics.Sliding(1, 2)
+
+    when:
+    [5, 1, 3, 2].each { sliding.accept([it] as double[], 0) }
+    def stats = sliding.snapshot()
+
+    then:
+    stats.getMin(0) == 2
+    stats.getMax(0) == 3
+    stats.getMean(0) == 2.5
+    stats.getVariance(0) == 0.25
+  }
+
+}
@@ -258,4 +258,68 @@ class PointsSpec extends Specification {
     ]
   }
 
+  void 'operations into a destination'() {
+    given:
+    def p = new Point([1, -4, 2.5] as double[])
+    def o = new Point([2, 2, -1] as double[])
+    def dest = new MutablePoint(3)
+
+    expect:
+    Points.plus(p, o, dest).toPoint() == Points.plus(p, o)
+    Points.multiply(p, o, dest).toPoint() == Points.multiply(p, o)
+    Points.negate(p, dest).toPoint() == Points.negate(p)
+    Points.distance(p, o, dest).toPoint() == Points.distance(p, o)
+    Points.distanceAbs(p, o, dest).toPoint() == Points.distanceAbs(p, o)
+    Points.trimNegative(p, dest).toPoint() == Points.trimNegative(p)
+    Points.trimRelative(p, o, dest).toPoint() == Points.trimRelative(p, o)
+    Points.translate(p, o, dest).toPoint() == Points.translate(p, o)
+    Points.toFirstOrthant(p, o, dest).toPoint() == Points.toFirstOrthant(p, o)
+    (1..8).every {
+      Points.toOrthant(p, o, it, dest).toPoint() == Points.toOrthant(p, o, it)
+    }
+  }
+
+  void 'destination may be an operand'() {
+    given:
+    def p = new MutablePoint([1, 2] as double[])
+
+    when:
+    Points.plus(p, p, p)
+    Points.multiply(p, new Point([3, 0.5] as double[]), p)
+
+    then:
+    p.toPoint() == new Point([6, 2] as double[])
+  }
+
+  void 'points without storage and views into a packed array'() {
+    given:
+    def coords = [9, 1, -2, 0.5, 7, -3, 4, 0] as double[]
+    def p = new Point(coords, 1, 3)
+    def o = new Point(coords, 4, 3)
+    def lazy = { Point q ->
+      new Point(q.dims) {
+        @Override
+        double getCoord(int dim) { q.getCoord(dim) }
+      }
+    }
+    def copy = { Point q ->
+      new Point((0..<q.dims).collect { q.getCoord(it) } as double[])
+    }
+
+    expect:
+    [p, lazy(p)].every { pp ->
+      [o, lazy(o)].every { oo ->
+        Points.plus(pp, oo) == Points.plus(copy(p), copy(o)) &&
+        Points.multiply(pp, oo) == Points.multiply(copy(p), copy(o)) &&
+        Points.distance(pp, oo) == Points.distance(copy(p), copy(o)) &&
+        Points.distanceAbs(pp, oo) == Points.distanceAbs(copy(p), copy(o)) &&
+        Points.trimRelative(pp, oo) == Points.trimRelative(copy(p), copy(o)) &&
+        Points.isDominates(oo, pp) == Points.isDominates(copy(o), copy(p)) &&
+        Points.negate(pp) == Points.negate(copy(p))
+      }
+    }
+    Points.plus(p, o) == new Point([8, -5, 4.5] as double[])
+    Points.isDominates(new Point(coords, 2, 2), lazy(new Point(coords, 0, 2)))
+  }
+
 }
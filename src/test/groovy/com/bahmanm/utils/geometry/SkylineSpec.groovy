@@ -0,0 +1,40 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class SkylineSpec extends Specification {
+
+  void 'add'() {
+    given:
+    def skyline = new Skyline()
+
+    expect:
+    skyline.add(new Point([3, 3] as double[]))
+    skyline.add(new Point([1, 5] as double[]))
+    !skyline.add(new Point([4, 4] as double[]))
+    skyline.add(new Point([2, 2] as double[]))
+    skyline.getPoints() == [
+      new Point([1, 5] as double[]),
+      new Point([2, 2] as double[])
+    ]
+    skyline.isDominated(new Point([2, 3] as double[]))
+    !skyline.isDominated(new Point([0, 9] as double[]))
+  }
+
+  void 'incremental skyline agrees with the batch one'() {
+    given:
+    def points = SkylinesSpec.randomPoints(7, 2000, 3)
+    def skyline = new Skyline()
+
+    when:
+    skyline.addAll(points)
+
+    then:
+    skyline.getPoints() as Set == Skylines.sortFilter(points) as Set
+    skyline.size() == Skylines.sortFilter(points).size()
+  }
+
+}
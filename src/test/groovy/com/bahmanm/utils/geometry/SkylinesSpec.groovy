@@ -0,0 +1,68 @@
+package com.bahmanm.utils.geometry
+
+import spock.lang.Specification
+
+/**
+ * @author Bahman Movaqar [Bahman AT BahmanM.com]
+ */
+class SkylinesSpec extends Specification {
+
+  static List<Point> randomPoints(long seed, int count, int dims) {
+    def random = new Random(seed)
+    (0..<count).collect {
+      new Point((0..<dims).collect { random.nextInt(50) as double } as double[])
+    }
+  }
+
+  static List<Point> bruteForce(List<Point> points) {
+    points.findAll { p -> !points.any { o -> Points.isDominates(o, p) } }
+  }
+
+  void 'skyline algorithms agree with brute force'() {
+    given:
+    def points = randomPoints(seed, count, dims)
+    def expected = bruteForce(points)
+
+    expect:
+    Skylines.sortFilter(points) == expected
+    Skylines.divideAndConquer(points) == expected
+    Skylines.parallel(points) == expected
+
+    where:
+    seed | count | dims
+    1    | 0     | 2
+    2    | 1     | 3
+    3    | 100   | 2
+    4    | 1000  | 3
+    5    | 5000  | 4
+  }
+
+  void 'packed coordinates'() {
+    given:
+    def coords = [
+      1, 5,
+      2, 2,
+      3, 3,
+      5, 1,
+      2, 2,
+      4, 4
+    ] as double[]
+
+    expect:
+    Skylines.sortFilter(coords, 2) == [0, 1, 3, 4] as int[]
+    Skylines.divideAndConquer(coords, 2) == [0, 1, 3, 4] as int[]
+    Skylines.parallel(coords, 2) == [0, 1, 3, 4] as int[]
+  }
+
+  void 'negative zero'() {
+    given:
+    def points = [
+      new Point([Math.copySign(0.0d, -1.0d), 2] as double[]),
+      new Point([0.0d, 1] as double[])
+    ]
+
+    expect:
+    Skylines.sortFilter(points) == [points[1]]
+  }
+
+}
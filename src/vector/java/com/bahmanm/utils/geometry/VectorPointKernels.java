@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 Bahman Movaqar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bahmanm.utils.geometry;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link PointKernels} on the Vector API: whole vectors of the preferred
+ * species of the platform and a scalar loop for the tail.<br>
+ * Loaded reflectively by {@link PointKernels#load(String)}; refuses to be
+ * created if the platform has no SIMD registers for doubles.
+ *
+ * @author Bahman Movaqar <Bahman AT BahmanM.com>
+ */
+final class VectorPointKernels extends PointKernels {
+
+  final static private VectorSpecies<Double> species =
+    DoubleVector.SPECIES_PREFERRED;
+
+  VectorPointKernels() {
+    if (species.length() < 2)
+      throw new UnsupportedOperationException(
+        "No SIMD support for doubles"
+      );
+  }
+
+  @Override
+  void plus(
+    double[] a, int aOffset, double[] b, int bOffset,
+    double[] dest, int destOffset, int length
+  ) {
+    int i = 0;
+    for (int bound=species.loopBound(length); i<bound; i+=species.length())
+      DoubleVector.fromArray(species, a, aOffset + i)
+        .add(DoubleVector.fromArray(species, b, bOffset + i))
+        .intoArray(dest, destOffset + i);
+    for (; i<length; i++)
+      dest[destOffset + i] = a[aOffset + i] + b[bOffset + i];
+  }
+
+  @Override
+  void multiply(
+    double[] a, int aOffset, double[] b, int bOffset,
+    double[] dest, int destOffset, int length
+  ) {
+    int i = 0;
+    for (int bound=species.loopBound(length); i<bound; i+=species.length())
+      DoubleVector.fromArray(species, a, aOffset + i)
+        .mul(DoubleVector.fromArray(species, b, bOffset + i))
+        .intoArray(dest, destOffset + i);
+    for (; i<length; i++)
+      dest[destOffset + i] = a[aOffset + i] * b[bOffset + i];
+  }
+
+  @Override
+  void subtract(
+    double[] a, int aOffset, double[] b, int bOffset,
+    double[] dest, int destOffset, int length, boolean isAbsValue
+  ) {
+    int i = 0;
+    for (int bound=species.loopBound(length); i<bound; i+=species.length()) {
+      DoubleVector result = DoubleVector.fromArray(species, a, aOffset + i)
+        .sub(DoubleVector.fromArray(species, b, bOffset + i));
+      (isAbsValue ? result.abs() : result).intoArray(dest, destOffset + i);
+    }
+    for (; i<length; i++) {
+      double result = a[aOffset + i] - b[bOffset + i];
+      dest[destOffset + i] = isAbsValue ? Math.abs(result) : result;
+    }
+  }
+
+  @Override
+  void negate(
+    double[] a, int aOffset, double[] dest, int destOffset, int length
+  ) {
+    int i = 0;
+    for (int bound=species.loopBound(length); i<bound; i+=species.length())
+      DoubleVector.fromArray(species, a, aOffset + i)
+        .neg()
+        .intoArray(dest, destOffset + i);
+    for (; i<length; i++)
+      dest[destOffset + i] = -a[aOffset + i];
+  }
+
+  /**
+   * A blend rather than max, which would differ on NaN and -0.0.
+   */
+  @Override
+  void trim(
+    double[] a, int aOffset, double[] b, int bOffset,
+    double[] dest, int destOffset, int length
+  ) {
+    int i = 0;
+    for (int bound=species.loopBound(length); i<bound; i+=species.length()) {
+      DoubleVector c = DoubleVector.fromArray(species, a, aOffset + i);
+      DoubleVector o = DoubleVector.fromArray(species, b, bOffset + i);
+      c.blend(o, c.compare(VectorOperators.LT, o))
+        .intoArray(dest, destOffset + i);
+    }
+    for (; i<length; i++) {
+      double c = a[aOffset + i];
+      double o = b[bOffset + i];
+      dest[destOffset + i] = c < o ? o : c;
+    }
+  }
+
+  @Override
+  boolean isDominates(
+    double[] a, int aOffset, double[] b, int bOffset, int length
+  ) {
+    boolean oneLt = false;
+    int i = 0;
+    for (int bound=species.loopBound(length); i<bound; i+=species.length()) {
+      DoubleVector ac = DoubleVector.fromArray(species, a, aOffset + i);
+      DoubleVector bc = DoubleVector.fromArray(species, b, bOffset + i);
+      VectorMask<Double> lte = ac.compare(VectorOperators.LE, bc);
+      if (!lte.allTrue()) return false;
+      if (!oneLt) oneLt = ac.compare(VectorOperators.LT, bc).anyTrue();
+    }
+    for (; i<length; i++) {
+      double ac = a[aOffset + i];
+      double bc = b[bOffset + i];
+      if (!(ac <= bc)) return false;
+      if (ac < bc) oneLt = true;
+    }
+    return oneLt;
+  }
+
+  @Override
+  double sumSquaredDifferences(
+    double[] a, int aOffset, double[] b, int bOffset, int length
+  ) {
+    DoubleVector sums = DoubleVector.zero(species);
+    int i = 0;
+    for (int bound=species.loopBound(length); i<bound; i+=species.length()) {
+      DoubleVector d = DoubleVector.fromArray(species, a, aOffset + i)
+        .sub(DoubleVector.fromArray(species, b, bOffset + i));
+      sums = sums.add(d.mul(d));
+    }
+    double sum = sums.reduceLanes(VectorOperators.ADD);
+    for (; i<length; i++) {
+      double d = a[aOffset + i] - b[bOffset + i];
+      sum += d * d;
+    }
+    return sum;
+  }
+
+  @Override
+  double sumAbsDifferences(
+    double[] a, int aOffset, double[] b, int bOffset, int length
+  ) {
+    DoubleVector sums = DoubleVector.zero(species);
+    int i = 0;
+    for (int bound=species.loopBound(length); i<bound; i+=species.length())
+      sums = sums.add(
+        DoubleVector.fromArray(species, a, aOffset + i)
+          .sub(DoubleVector.fromArray(species, b, bOffset + i))
+          .abs()
+      );
+    double sum = sums.reduceLanes(VectorOperators.ADD);
+    for (; i<length; i++)
+      sum += Math.abs(a[aOffset + i] - b[bOffset + i]);
+    return sum;
+  }
+
+  @Override
+  double maxAbsDifference(
+    double[] a, int aOffset, double[] b, int bOffset, int length
+  ) {
+    DoubleVector maxes = DoubleVector.zero(species);
+    int i = 0;
+    for (int bound=species.loopBound(length); i<bound; i+=species.length())
+      maxes = maxes.max(
+        DoubleVector.fromArray(species, a, aOffset + i)
+          .sub(DoubleVector.fromArray(species, b, bOffset + i))
+          .abs()
+      );
+    double max = maxes.reduceLanes(VectorOperators.MAX);
+    for (; i<length; i++)
+      max = Math.max(max, Math.abs(a[aOffset + i] - b[bOffset + i]));
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return "vector kernels (" + species + ")";
+  }
+
+}